@@ -0,0 +1,87 @@
+package grondag.canvas.chunk.occlusion;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replays an occlusion scene through {@link OcclusionContext} without a running client.
+ * Run with <code>gradlew jmh</code>, which also reports allocation rates.
+ * Scenes written by {@link OcclusionScene#write} can be given with <code>-p sceneFile=path</code>,
+ * otherwise a generated terrain scene is used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OcclusionBenchmark {
+	/** Scene file to replay, or empty for a generated scene */
+	@Param({""})
+	public String sceneFile;
+
+	/** Radius in chunks of generated scenes. Ignored for scene files. */
+	@Param({"12"})
+	public int radius;
+
+	private OcclusionScene scene;
+	private OcclusionContext context;
+	private final IntArrayList visibleRegionIds = new IntArrayList();
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		if (sceneFile.isEmpty()) {
+			scene = SyntheticScene.create(42, radius);
+		} else {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sceneFile)))) {
+				scene = OcclusionScene.read(in);
+			}
+		}
+
+		context = new OcclusionContext();
+		// leaves raster fully drawn for test-only benchmark
+		scene.replay(context);
+	}
+
+	/** Full terrain iteration: regions are reached through visible neighbors, as in game */
+	@Benchmark
+	public int iterate() {
+		return scene.iterate(context, visibleRegionIds);
+	}
+
+	/** Full pass: each region is tested against occluders drawn so far and drawn if visible */
+	@Benchmark
+	public int replay() {
+		return scene.replay(context);
+	}
+
+	/** Occluder drawing only, for every non-empty region */
+	@Benchmark
+	public void drawAll() {
+		scene.drawAll(context);
+	}
+
+	/** Visibility tests only, against a raster left by the last full pass */
+	@Benchmark
+	public int testAll() {
+		return scene.testAll(context);
+	}
+}
@@ -0,0 +1,239 @@
+package grondag.canvas.chunk.occlusion;
+
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import grondag.canvas.chunk.occlusion.region.AreaFinder;
+import grondag.canvas.chunk.occlusion.region.BoxFinder;
+import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
+import grondag.canvas.chunk.occlusion.region.PackedBox;
+
+/**
+ * Generates repeatable rolling terrain with scattered caves for benchmarks when no captured scene is given.
+ * Regions are ordered by distance from camera, which approximates the breadth-first terrain iteration order.
+ */
+final class SyntheticScene {
+	private SyntheticScene() { }
+
+	private static final int REGION_HEIGHT = 16;
+
+	static OcclusionScene create(long seed, int radius) {
+		final Random random = new Random(seed);
+		final double cameraX = 8.5;
+		final double cameraY = 80.5;
+		final double cameraZ = 8.5;
+		final float yaw = random.nextFloat() * (float) (Math.PI * 2);
+		final float pitch = 0.3f;
+		final float far = radius * 16 * 4;
+
+		final float[] projectionMatrix = perspective(70, 16f / 9f, 0.05f, far);
+		final float[] modelMatrix = rotation(yaw, pitch);
+		final int cameraRegionId = pack(0, 5, 0);
+		final OcclusionScene result = new OcclusionScene(projectionMatrix, modelMatrix, planes(multiply(projectionMatrix, modelMatrix)), cameraX, cameraY, cameraZ, cameraRegionId, true);
+		result.addStartRegion(cameraRegionId);
+
+		final IntArrayList order = new IntArrayList();
+
+		for (int x = -radius; x <= radius; ++x) {
+			for (int z = -radius; z <= radius; ++z) {
+				if (x * x + z * z <= radius * radius) {
+					for (int y = 0; y < REGION_HEIGHT; ++y) {
+						order.add(pack(x, y, z));
+					}
+				}
+			}
+		}
+
+		order.sort((a, b) -> Integer.compare(squareDist(a, cameraX, cameraY, cameraZ), squareDist(b, cameraX, cameraY, cameraZ)));
+
+		final BoxFinder boxFinder = new BoxFinder(new AreaFinder());
+		final long[] bits = new long[64];
+		final int[] neighbors = new int[6];
+
+		for (final int packed : order) {
+			final int x = unpackX(packed);
+			final int y = unpackY(packed);
+			final int z = unpackZ(packed);
+			final int originX = x << 4;
+			final int originY = y << 4;
+			final int originZ = z << 4;
+			final int[] visData = buildRegion(boxFinder, bits, originX, originY, originZ, seed);
+			final int squareDist = squareDist(packed, cameraX, cameraY, cameraZ);
+
+			// same face order as Direction - neighbors outside the scene are ignored
+			neighbors[0] = y > 0 ? pack(x, y - 1, z) : -1;
+			neighbors[1] = y < REGION_HEIGHT - 1 ? pack(x, y + 1, z) : -1;
+			neighbors[2] = pack(x, y, z - 1);
+			neighbors[3] = pack(x, y, z + 1);
+			neighbors[4] = pack(x - 1, y, z);
+			neighbors[5] = pack(x + 1, y, z);
+
+			int flags = OcclusionScene.FLAG_SHOULD_BUILD;
+
+			if (squareDist < 768) {
+				flags |= OcclusionScene.FLAG_NEAR;
+			}
+
+			if (result.isRegionInFrustum(originX, originY, originZ)) {
+				flags |= OcclusionScene.FLAG_IN_FRUSTUM;
+			}
+
+			// boxes only, so every region is treated as open between all faces
+			result.addRegion(packed, originX, originY, originZ, PackedBox.rangeFromSquareBlockDist(squareDist), flags, neighbors, visData, OcclusionRegion.ALL_FACES_CONNECTED);
+		}
+
+		return result;
+	}
+
+	private static int[] buildRegion(BoxFinder boxFinder, long[] bits, int originX, int originY, int originZ, long seed) {
+		int count = 0;
+		int minX = 16, minY = 16, minZ = 16, maxX = -1, maxY = -1, maxZ = -1;
+
+		for (int i = 0; i < 64; ++i) {
+			bits[i] = 0;
+		}
+
+		for (int x = 0; x < 16; ++x) {
+			for (int z = 0; z < 16; ++z) {
+				final int height = height(originX + x, originZ + z);
+
+				for (int y = 0; y < 16; ++y) {
+					final int worldY = originY + y;
+
+					if (worldY < height && !isCave(originX + x, worldY, originZ + z, seed)) {
+						final int index = x | (y << 4) | (z << 8);
+						bits[index >> 6] |= 1L << (index & 63);
+						++count;
+						minX = Math.min(minX, x);
+						minY = Math.min(minY, y);
+						minZ = Math.min(minZ, z);
+						maxX = Math.max(maxX, x);
+						maxY = Math.max(maxY, y);
+						maxZ = Math.max(maxZ, z);
+					}
+				}
+			}
+		}
+
+		if (count == 0) {
+			return OcclusionRegion.EMPTY_CULL_DATA;
+		} else if (count == 4096) {
+			return new int[] {PackedBox.FULL_BOX, PackedBox.FULL_BOX};
+		}
+
+		boxFinder.findBoxes(bits, 0);
+		final IntArrayList boxes = boxFinder.boxes;
+		final int[] result = new int[boxes.size() + 1];
+		result[OcclusionRegion.CULL_DATA_REGION_BOUNDS] = PackedBox.pack(minX, minY, minZ, maxX + 1, maxY + 1, maxZ + 1, PackedBox.RANGE_EXTREME);
+
+		for (int i = 0; i < boxes.size(); ++i) {
+			result[OcclusionRegion.CULL_DATA_FIRST_BOX + i] = boxes.getInt(i);
+		}
+
+		return result;
+	}
+
+	private static int height(int x, int z) {
+		return 64 + (int) (10 * Math.sin(x / 23.0) * Math.cos(z / 19.0) + 6 * Math.sin((x + z) / 7.0));
+	}
+
+	private static boolean isCave(int x, int y, int z, long seed) {
+		long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL) ^ (z * 0x165667B19E3779F9L);
+		h ^= h >>> 29;
+		h *= 0xBF58476D1CE4E5B9L;
+		h ^= h >>> 32;
+		return (h & 31) == 0;
+	}
+
+	private static int pack(int x, int y, int z) {
+		return ((x + 512) << 20) | ((z + 512) << 8) | y;
+	}
+
+	private static int unpackX(int packed) {
+		return (packed >>> 20) - 512;
+	}
+
+	private static int unpackY(int packed) {
+		return packed & 0xFF;
+	}
+
+	private static int unpackZ(int packed) {
+		return ((packed >>> 8) & 0xFFF) - 512;
+	}
+
+	private static int squareDist(int packed, double cameraX, double cameraY, double cameraZ) {
+		final double dx = (unpackX(packed) << 4) + 8 - cameraX;
+		final double dy = (unpackY(packed) << 4) + 8 - cameraY;
+		final double dz = (unpackZ(packed) << 4) + 8 - cameraZ;
+		return (int) (dx * dx + dy * dy + dz * dz);
+	}
+
+	private static float[] perspective(float fovDegrees, float aspect, float near, float far) {
+		final float f = (float) (1 / Math.tan(Math.toRadians(fovDegrees) / 2));
+
+		return new float[] {
+				f / aspect, 0, 0, 0,
+				0, f, 0, 0,
+				0, 0, (far + near) / (near - far), 2 * far * near / (near - far),
+				0, 0, -1, 0
+		};
+	}
+
+	/** Row-major product a * b */
+	private static float[] multiply(float[] a, float[] b) {
+		final float[] result = new float[16];
+
+		for (int row = 0; row < 4; ++row) {
+			for (int col = 0; col < 4; ++col) {
+				float sum = 0;
+
+				for (int i = 0; i < 4; ++i) {
+					sum += a[row * 4 + i] * b[i * 4 + col];
+				}
+
+				result[row * 4 + col] = sum;
+			}
+		}
+
+		return result;
+	}
+
+	/** Left, right, near, top and bottom planes of the given view-projection matrix, as CanvasFrustum extracts them */
+	private static float[] planes(float[] mvp) {
+		final float[] result = new float[20];
+		plane(mvp, 0, 1, result, 0);
+		plane(mvp, 0, -1, result, 4);
+		plane(mvp, 2, 1, result, 8);
+		plane(mvp, 1, -1, result, 12);
+		plane(mvp, 1, 1, result, 16);
+		return result;
+	}
+
+	private static void plane(float[] mvp, int row, float sign, float[] planes, int index) {
+		final float x = mvp[12] + sign * mvp[row * 4];
+		final float y = mvp[13] + sign * mvp[row * 4 + 1];
+		final float z = mvp[14] + sign * mvp[row * 4 + 2];
+		final float w = mvp[15] + sign * mvp[row * 4 + 3];
+		final float mag = (float) (-1 / Math.sqrt(x * x + y * y + z * z));
+		planes[index] = x * mag;
+		planes[index + 1] = y * mag;
+		planes[index + 2] = z * mag;
+		planes[index + 3] = w * mag;
+	}
+
+	/** Yaw about Y followed by pitch about X - positive pitch looks down */
+	private static float[] rotation(float yaw, float pitch) {
+		final float cy = (float) Math.cos(yaw);
+		final float sy = (float) Math.sin(yaw);
+		final float cp = (float) Math.cos(pitch);
+		final float sp = (float) Math.sin(pitch);
+
+		return new float[] {
+				cy, 0, -sy, 0,
+				-sp * sy, cp, -sp * cy, 0,
+				cp * sy, sp, cp * cy, 0,
+				0, 0, 0, 1
+		};
+	}
+}
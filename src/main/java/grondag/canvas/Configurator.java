@@ -72,11 +72,14 @@ public class Configurator {
 		int maxLightmapDelayFrames = 0;
 
 		@Comment("Extra lightmap capacity. Ensure enabled if you are getting `unable to create HD lightmap(s) - out of space' messages.")
-		boolean moreLightmap = true;
+		boolean moreLightmap = false;
 
 		@Comment("Draws multiple chunks with same view transformation. Much faster, but try without if you see visual defects.")
 		boolean batchedChunkRender = true;
 
+		@Comment("Stores solid terrain in a few large shared buffers and draws each material with one call per buffer. Experimental.")
+		boolean terrainMegabuffer = false;
+
 		//        @Comment("TODO")
 		//        boolean disableVanillaChunkMatrix = true;
 
@@ -86,6 +89,9 @@ public class Configurator {
 		@Comment("Forces game to allow up to this many nanoseconds for chunk loading each frame. May prevent chunk load delay at high FPS.")
 		long minChunkBudgetNanos = 100000;
 
+		@Comment("Limits vertex data uploaded to the GPU each frame, in kilobytes. Remaining uploads wait for later frames. Zero uploads everything at once.")
+		int maxUploadKilobytes = 8192;
+
 		@Comment("Treats model geometry outside of block boundaries as on the block for lighting purposes. Helps prevent bad lighting outcomes.")
 		boolean clampExteriorVertices = true;
 
@@ -98,6 +104,18 @@ public class Configurator {
 		@Comment("Terrain setup done off the main render thread. Increases FPS when moving. May see occasional flashes of blank chunks")
 		boolean terrainSetupOffThread = true;
 
+		@Comment("Single block changes re-tesselate only the changed block and its neighbors. Uses more memory. Experimental.")
+		boolean incrementalRegionRebuild = false;
+
+		@Comment("Reuses prepared quads of blocks with the same state and visible faces during terrain rebuilds. Faster chunk loading.")
+		boolean cacheBlockTesselation = true;
+
+		@Comment("Rasterizes terrain occluders on several threads. May improve frame rate when moving on machines with many cores.")
+		boolean binnedOcclusionRaster = false;
+
+		@Comment("Reuses occluder coverage from the prior frame when the camera only rotates. Experimental.")
+		boolean occlusionReprojection = false;
+
 		@Comment("Max number of unique render material states. Change only if errors occur without. Causes small amount of memory use.")
 		int maxMaterialStates = 0x10000;
 
@@ -129,6 +147,9 @@ public class Configurator {
 		@Comment("Output periodic snapshots of terrain occlusion raster. Will have performance impact.")
 		boolean debugOcclusionRaster = false;
 
+		@Comment("Save the next complete terrain visibility pass for offline replay. Always off at startup.")
+		boolean debugOcclusionCapture = false;
+
 		@Comment("Render active occlusion boxes of targeted render region. Will have performance impact and looks strange.")
 		boolean debugOcclusionBoxes = false;
 	}
@@ -150,14 +171,20 @@ public class Configurator {
 	public static boolean moreLightmap = DEFAULTS.moreLightmap;
 
 	public static long minChunkBudgetNanos = DEFAULTS.minChunkBudgetNanos;
+	public static int maxUploadKilobytes = DEFAULTS.maxUploadKilobytes;
 
 	public static boolean batchedChunkRender = DEFAULTS.batchedChunkRender;
+	public static boolean terrainMegabuffer = DEFAULTS.terrainMegabuffer;
 	public static boolean disableVanillaChunkMatrix = false; //DEFAULTS.disableVanillaChunkMatrix;
 	public static boolean preventDepthFighting = DEFAULTS.preventDepthFighting;
 	public static boolean clampExteriorVertices = DEFAULTS.clampExteriorVertices;
 	public static boolean fixLuminousBlockShading = DEFAULTS.fixLuminousBlockShading;
 	public static boolean terrainBackfaceCulling = DEFAULTS.terrainBackfaceCulling;
 	public static boolean terrainSetupOffThread = DEFAULTS.terrainSetupOffThread;
+	public static boolean incrementalRegionRebuild = DEFAULTS.incrementalRegionRebuild;
+	public static boolean cacheBlockTesselation = DEFAULTS.cacheBlockTesselation;
+	public static boolean binnedOcclusionRaster = DEFAULTS.binnedOcclusionRaster;
+	public static boolean occlusionReprojection = DEFAULTS.occlusionReprojection;
 	public static int maxMaterialStates = DEFAULTS.maxMaterialStates;
 
 	public static boolean lightmapDebug = DEFAULTS.lightmapDebug;
@@ -168,6 +195,8 @@ public class Configurator {
 	public static boolean safeNativeMemoryAllocation = DEFAULTS.safeNativeMemoryAllocation;
 	public static boolean enablePerformanceTrace = DEFAULTS.enablePerformanceTrace;
 	public static boolean debugOcclusionRaster = DEFAULTS.debugOcclusionRaster;
+	/** Requests a single capture and is cleared when the capture starts, so is never read or saved */
+	public static boolean debugOcclusionCapture = DEFAULTS.debugOcclusionCapture;
 	public static boolean debugOcclusionBoxes = DEFAULTS.debugOcclusionBoxes;
 
 	/** use to stash parent screen during display */
@@ -198,6 +227,7 @@ public class Configurator {
 		subtleFog = config.subtleFog;
 		shaderDebug = config.shaderDebug;
 		minChunkBudgetNanos = config.minChunkBudgetNanos;
+		maxUploadKilobytes = config.maxUploadKilobytes;
 		maxLightmapDelayFrames = config.maxLightmapDelayFrames;
 		moreLightmap = config.moreLightmap;
 
@@ -208,12 +238,17 @@ public class Configurator {
 		aoShadingMode = config.aoShadingMode;
 
 		batchedChunkRender = config.batchedChunkRender;
+		terrainMegabuffer = config.terrainMegabuffer;
 		//        disableVanillaChunkMatrix = config.disableVanillaChunkMatrix;
 		preventDepthFighting = config.preventDepthFighting;
 		clampExteriorVertices = config.clampExteriorVertices;
 		fixLuminousBlockShading = config.fixLuminousBlockShading;
 		terrainBackfaceCulling = config.terrainBackfaceCulling;
 		terrainSetupOffThread = config.terrainSetupOffThread;
+		incrementalRegionRebuild = config.incrementalRegionRebuild;
+		cacheBlockTesselation = config.cacheBlockTesselation;
+		binnedOcclusionRaster = config.binnedOcclusionRaster;
+		occlusionReprojection = config.occlusionReprojection;
 		maxMaterialStates =  MathHelper.clamp(config.maxMaterialStates, 0x10000, 0x100000);
 
 		lightmapDebug = config.lightmapDebug;
@@ -233,6 +268,7 @@ public class Configurator {
 		config.subtleFog = subtleFog;
 		config.shaderDebug = shaderDebug;
 		config.minChunkBudgetNanos = minChunkBudgetNanos;
+		config.maxUploadKilobytes = maxUploadKilobytes;
 		config.maxLightmapDelayFrames = maxLightmapDelayFrames;
 
 		config.hdLightmaps = hdLightmaps;
@@ -243,12 +279,17 @@ public class Configurator {
 		config.moreLightmap = moreLightmap;
 
 		config.batchedChunkRender = batchedChunkRender;
+		config.terrainMegabuffer = terrainMegabuffer;
 		//        config.disableVanillaChunkMatrix = disableVanillaChunkMatrix;
 		config.preventDepthFighting = preventDepthFighting;
 		config.clampExteriorVertices = clampExteriorVertices;
 		config.fixLuminousBlockShading = fixLuminousBlockShading;
 		config.terrainBackfaceCulling = terrainBackfaceCulling;
 		config.terrainSetupOffThread = terrainSetupOffThread;
+		config.incrementalRegionRebuild = incrementalRegionRebuild;
+		config.cacheBlockTesselation = cacheBlockTesselation;
+		config.binnedOcclusionRaster = binnedOcclusionRaster;
+		config.occlusionReprojection = occlusionReprojection;
 		config.maxMaterialStates = maxMaterialStates;
 
 		config.lightmapDebug = lightmapDebug;
@@ -398,6 +439,13 @@ public class Configurator {
 				.setSaveConsumer(b -> minChunkBudgetNanos = b)
 				.build());
 
+		tweaks.addEntry(ENTRY_BUILDER
+				.startIntField(new TranslatableText("config.canvas.value.max_upload_kb"), maxUploadKilobytes)
+				.setDefaultValue(DEFAULTS.maxUploadKilobytes)
+				.setTooltip(parse("config.canvas.help.max_upload_kb"))
+				.setSaveConsumer(b -> maxUploadKilobytes = b)
+				.build());
+
 		tweaks.addEntry(ENTRY_BUILDER
 				.startBooleanToggle(new TranslatableText("config.canvas.value.batch_chunk_render"), batchedChunkRender)
 				.setDefaultValue(DEFAULTS.batchedChunkRender)
@@ -405,6 +453,13 @@ public class Configurator {
 				.setSaveConsumer(b -> batchedChunkRender = b)
 				.build());
 
+		tweaks.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.terrain_megabuffer"), terrainMegabuffer)
+				.setDefaultValue(DEFAULTS.terrainMegabuffer)
+				.setTooltip(parse("config.canvas.help.terrain_megabuffer"))
+				.setSaveConsumer(b -> {terrainMegabuffer = b; reload = true;})
+				.build());
+
 		//        tweaks.addOption(new BooleanListEntry("config.canvas.value.vanilla_chunk_matrix", disableVanillaChunkMatrix, "config.canvas.reset",
 		//                () -> DEFAULTS.disableVanillaChunkMatrix, b -> disableVanillaChunkMatrix = b,
 		//                () -> Optional.of(parse("config.canvas.help.vanilla_chunk_matrix"))));
@@ -444,6 +499,34 @@ public class Configurator {
 				.setSaveConsumer(b -> {terrainSetupOffThread = b; reload = true;})
 				.build());
 
+		tweaks.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.incremental_region_rebuild"), incrementalRegionRebuild)
+				.setDefaultValue(DEFAULTS.incrementalRegionRebuild)
+				.setTooltip(parse("config.canvas.help.incremental_region_rebuild"))
+				.setSaveConsumer(b -> {incrementalRegionRebuild = b; reload = true;})
+				.build());
+
+		tweaks.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.cache_block_tesselation"), cacheBlockTesselation)
+				.setDefaultValue(DEFAULTS.cacheBlockTesselation)
+				.setTooltip(parse("config.canvas.help.cache_block_tesselation"))
+				.setSaveConsumer(b -> {cacheBlockTesselation = b; reload = true;})
+				.build());
+
+		tweaks.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.binned_occlusion_raster"), binnedOcclusionRaster)
+				.setDefaultValue(DEFAULTS.binnedOcclusionRaster)
+				.setTooltip(parse("config.canvas.help.binned_occlusion_raster"))
+				.setSaveConsumer(b -> binnedOcclusionRaster = b)
+				.build());
+
+		tweaks.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.occlusion_reprojection"), occlusionReprojection)
+				.setDefaultValue(DEFAULTS.occlusionReprojection)
+				.setTooltip(parse("config.canvas.help.occlusion_reprojection"))
+				.setSaveConsumer(b -> occlusionReprojection = b)
+				.build());
+
 		lighting.addEntry(ENTRY_BUILDER
 				.startIntSlider(new TranslatableText("config.canvas.value.max_material_states"), maxMaterialStates, 0x10000, 0x100000)
 				.setDefaultValue(DEFAULTS.maxMaterialStates)
@@ -510,6 +593,13 @@ public class Configurator {
 				.setSaveConsumer(b -> debugOcclusionRaster = b)
 				.build());
 
+		debug.addEntry(ENTRY_BUILDER
+				.startBooleanToggle(new TranslatableText("config.canvas.value.debug_occlusion_capture"), debugOcclusionCapture)
+				.setDefaultValue(DEFAULTS.debugOcclusionCapture)
+				.setTooltip(parse("config.canvas.help.debug_occlusion_capture"))
+				.setSaveConsumer(b -> debugOcclusionCapture = b)
+				.build());
+
 		debug.addEntry(ENTRY_BUILDER
 				.startBooleanToggle(new TranslatableText("config.canvas.value.debug_occlusion_boxes"), debugOcclusionBoxes)
 				.setDefaultValue(DEFAULTS.debugOcclusionBoxes)
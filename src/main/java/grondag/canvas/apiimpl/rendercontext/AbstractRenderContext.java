@@ -87,6 +87,14 @@ public abstract class AbstractRenderContext implements RenderContext {
 		return activeTransform != NO_TRANSFORM;
 	}
 
+	/**
+	 * True if quads of vanilla models can be retrieved from {@link BlockTesselationCache}.
+	 * Only useful in contexts that render the same block states many times.
+	 */
+	protected boolean cacheTesselation() {
+		return false;
+	}
+
 	void mapMaterials(MutableQuadView quad) {
 		if (materialMap == defaultMap) {
 			return;
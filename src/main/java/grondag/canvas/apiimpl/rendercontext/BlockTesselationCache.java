@@ -0,0 +1,122 @@
+package grondag.canvas.apiimpl.rendercontext;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedQuad;
+
+/**
+ * Holds quads of vanilla block models after material mapping and geometry analysis,
+ * ready for lighting and encoding. Lets terrain rebuilds skip those steps for the
+ * many blocks that share a block state and set of visible faces.
+ *
+ * Entries are keyed by block state, visible faces and the quad lists returned by the model.
+ * Comparing the quad lists covers random model variants without knowing how a model uses
+ * its random seed. Quads are only cached when no quad transform is active.
+ *
+ * Safe for use from multiple threads. Entries are immutable once added.
+ */
+public class BlockTesselationCache {
+	/** Cache is emptied when it grows beyond this many entries */
+	private static final int MAX_ENTRIES = 8192;
+
+	/** Beyond this many entries for a single block state, new variants are not cached */
+	private static final int MAX_ENTRIES_PER_STATE = 32;
+
+	private static final ConcurrentHashMap<BlockState, Entry> MAP = new ConcurrentHashMap<>();
+	private static final AtomicInteger SIZE = new AtomicInteger();
+
+	/** Call when models, textures or lighting options change */
+	public static void clear() {
+		// reset count first so a concurrent add can only be over-counted, never lost
+		SIZE.set(0);
+		MAP.clear();
+	}
+
+	static Entry get(BlockState blockState, int flags, List<BakedQuad>[] quadLists) {
+		Entry entry = MAP.get(blockState);
+
+		while (entry != null) {
+			if (entry.matches(flags, quadLists)) {
+				return entry;
+			}
+
+			entry = entry.next;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Only entries actually stored count toward {@link #MAX_ENTRIES}, so models that return
+	 * new quad lists on every call fill their own state up to the per-state limit and then
+	 * stop adding instead of repeatedly emptying the cache.
+	 */
+	static void add(BlockState blockState, int flags, List<BakedQuad>[] quadLists, int[] quadData, int dataSize, int quadCount) {
+		final Entry head = MAP.get(blockState);
+
+		if (head != null && head.depth >= MAX_ENTRIES_PER_STATE) {
+			return;
+		}
+
+		MAP.compute(blockState, (k, v) -> {
+			if (v != null && v.depth >= MAX_ENTRIES_PER_STATE) {
+				return v;
+			}
+
+			SIZE.incrementAndGet();
+			return new Entry(flags, quadLists, quadData, dataSize, quadCount, v);
+		});
+
+		if (SIZE.get() > MAX_ENTRIES) {
+			clear();
+		}
+	}
+
+	static class Entry {
+		/** Visible faces and other inputs that affect quad output, see {@link FallbackConsumer} */
+		private final int flags;
+		private final List<BakedQuad>[] quadLists;
+
+		/** Encoded quads, concatenated */
+		final int[] quadData;
+		final int quadCount;
+
+		private final Entry next;
+		private final int depth;
+
+		@SuppressWarnings("unchecked")
+		private Entry(int flags, List<BakedQuad>[] quadLists, int[] quadData, int dataSize, int quadCount, Entry next) {
+			this.flags = flags;
+			this.quadLists = new List[quadLists.length];
+			System.arraycopy(quadLists, 0, this.quadLists, 0, quadLists.length);
+			this.quadData = new int[dataSize];
+			System.arraycopy(quadData, 0, this.quadData, 0, dataSize);
+			this.quadCount = quadCount;
+			this.next = next;
+			depth = next == null ? 1 : next.depth + 1;
+		}
+
+		private boolean matches(int flags, List<BakedQuad>[] quadLists) {
+			if (this.flags != flags) {
+				return false;
+			}
+
+			final List<BakedQuad>[] myLists = this.quadLists;
+
+			for (int i = 0; i < myLists.length; ++i) {
+				final List<BakedQuad> mine = myLists[i];
+				final List<BakedQuad> theirs = quadLists[i];
+
+				// baked quads don't override equals so list equality is element identity
+				if (mine != theirs && (mine == null || theirs == null || !mine.equals(theirs))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
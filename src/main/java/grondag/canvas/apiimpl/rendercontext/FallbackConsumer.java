@@ -28,6 +28,7 @@ import net.fabricmc.fabric.api.renderer.v1.mesh.QuadEmitter;
 import net.fabricmc.fabric.api.renderer.v1.model.ModelHelper;
 
 import grondag.canvas.apiimpl.Canvas;
+import grondag.canvas.apiimpl.RenderMaterialImpl;
 import grondag.canvas.apiimpl.RenderMaterialImpl.CompositeMaterial;
 import grondag.canvas.apiimpl.mesh.MutableQuadViewImpl;
 import grondag.canvas.apiimpl.util.MeshEncodingHelper;
@@ -62,6 +63,16 @@ public class FallbackConsumer implements Consumer<BakedModel> {
 
 	private final int[] editorBuffer = new int[MeshEncodingHelper.MAX_QUAD_STRIDE];
 
+	/** Quad lists of the current block for {@link BlockTesselationCache}, indexed by cull face id */
+	@SuppressWarnings("unchecked")
+	private final List<BakedQuad>[] quadLists = new List[ModelHelper.NULL_FACE_ID + 1];
+
+	/** Copies of quads as they are encoded, for {@link BlockTesselationCache} */
+	private int[] recordData = new int[MeshEncodingHelper.MAX_QUAD_STRIDE * 8];
+	private int recordSize;
+	private int recordCount;
+	private boolean isRecording = false;
+
 	public FallbackConsumer(AbstractRenderContext context) {
 		this.context = context;
 	}
@@ -84,6 +95,11 @@ public class FallbackConsumer implements Consumer<BakedModel> {
 		final boolean useAo =  context.defaultAo() && model.useAmbientOcclusion();
 		final BlockState blockState = context.blockState();
 
+		if (context.cacheTesselation() && !context.hasTransform()) {
+			acceptCached(model, useAo, blockState);
+			return;
+		}
+
 		acceptFaceQuads(Direction.DOWN, useAo, model.getQuads(blockState, Direction.DOWN, context.random()));
 		acceptFaceQuads(Direction.UP, useAo, model.getQuads(blockState, Direction.UP, context.random()));
 		acceptFaceQuads(Direction.NORTH, useAo, model.getQuads(blockState, Direction.NORTH, context.random()));
@@ -94,6 +110,84 @@ public class FallbackConsumer implements Consumer<BakedModel> {
 		acceptInsideQuads(useAo, model.getQuads(blockState, null, context.random()));
 	}
 
+	private void acceptCached(BakedModel model, boolean useAo, BlockState blockState) {
+		final List<BakedQuad>[] quadLists = this.quadLists;
+		int flags = useAo ? CACHE_FLAG_AO : 0;
+
+		for (int i = 0; i < ModelHelper.NULL_FACE_ID; ++i) {
+			final Direction face = ModelHelper.faceFromIndex(i);
+			final List<BakedQuad> quads = model.getQuads(blockState, face, context.random());
+
+			if (!quads.isEmpty() && context.cullTest(face)) {
+				quadLists[i] = quads;
+				flags |= 1 << i;
+			} else {
+				quadLists[i] = null;
+			}
+		}
+
+		final List<BakedQuad> insideQuads = model.getQuads(blockState, null, context.random());
+		quadLists[ModelHelper.NULL_FACE_ID] = insideQuads.isEmpty() ? null : insideQuads;
+
+		final BlockTesselationCache.Entry entry = BlockTesselationCache.get(blockState, flags, quadLists);
+
+		if (entry == null) {
+			recordSize = 0;
+			recordCount = 0;
+			isRecording = true;
+
+			for (int i = 0; i <= ModelHelper.NULL_FACE_ID; ++i) {
+				final List<BakedQuad> quads = quadLists[i];
+
+				if (quads != null) {
+					final int limit = quads.size();
+
+					for (int j = 0; j < limit; ++j) {
+						final BakedQuad q = quads.get(j);
+						renderQuad(q, i, q.hasShade() ? (useAo ? MATERIAL_AO_SHADED : MATERIAL_SHADED) : (useAo ? MATERIAL_AO_FLAT : MATERIAL_FLAT));
+					}
+				}
+			}
+
+			isRecording = false;
+			BlockTesselationCache.add(blockState, flags, quadLists, recordData, recordSize, recordCount);
+		} else {
+			replay(entry);
+		}
+	}
+
+	private static final int CACHE_FLAG_AO = 1 << ModelHelper.NULL_FACE_ID;
+
+	private void replay(BlockTesselationCache.Entry entry) {
+		final MutableQuadViewImpl editorQuad = this.editorQuad;
+		final int[] editorBuffer = this.editorBuffer;
+		final int[] quadData = entry.quadData;
+		final int limit = entry.quadCount;
+		int index = 0;
+
+		for (int i = 0; i < limit; ++i) {
+			final int stride = MeshEncodingHelper.stride(RenderMaterialImpl.byIndex(quadData[index]).spriteDepth());
+			System.arraycopy(quadData, index, editorBuffer, 0, stride);
+			index += stride;
+			editorQuad.load();
+			VertexEncoders.get(context.materialContext(), editorQuad.material()).encodeQuad(editorQuad, context);
+		}
+	}
+
+	private void record(MutableQuadViewImpl quad) {
+		final int stride = quad.stride();
+
+		if (recordSize + stride > recordData.length) {
+			final int[] newData = new int[recordData.length * 2];
+			System.arraycopy(recordData, 0, newData, 0, recordSize);
+			recordData = newData;
+		}
+
+		System.arraycopy(quad.data(), 0, recordData, recordSize, stride);
+		recordSize += stride;
+		++recordCount;
+	}
+
 	private void acceptFaceQuads(Direction face, boolean useAo, List<BakedQuad> quads) {
 		final int count = quads.size();
 		if (count != 0 && context.cullTest(face)) {
@@ -145,6 +239,12 @@ public class FallbackConsumer implements Consumer<BakedModel> {
 
 		final CompositeMaterial mat = editorQuad.material().forBlendMode(context.defaultBlendModeIndex());
 		editorQuad.material(mat);
+
+		// encoding modifies the quad, so copy must happen first
+		if (isRecording) {
+			record(editorQuad);
+		}
+
 		VertexEncoders.get(context.materialContext(), mat).encodeQuad(editorQuad, context);
 	}
 }
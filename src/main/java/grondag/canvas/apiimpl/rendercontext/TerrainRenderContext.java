@@ -16,6 +16,8 @@
 
 package grondag.canvas.apiimpl.rendercontext;
 
+import javax.annotation.Nullable;
+
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 
 import net.minecraft.block.Block;
@@ -40,6 +42,7 @@ import grondag.canvas.chunk.FastRenderRegion;
 import grondag.canvas.chunk.ProtoRenderRegion;
 import grondag.canvas.chunk.RenderRegionAddressHelper;
 import grondag.canvas.light.AoCalculator;
+import grondag.canvas.light.LightmapHd;
 import grondag.canvas.light.LightSmoother;
 import grondag.canvas.material.MaterialContext;
 import grondag.canvas.material.MaterialState;
@@ -68,6 +71,23 @@ public class TerrainRenderContext extends AbstractBlockRenderContext<FastRenderR
 		return backfaceCullFlags;
 	}
 
+	/** HD lightmaps used by the current build, null if HD lightmaps are disabled */
+	private LightmapHd.Refs lightmapRefs;
+
+	/**
+	 * Hands off HD lightmaps used by the current build. The caller becomes responsible for releasing them.
+	 */
+	public @Nullable LightmapHd.Refs takeLightmapRefs() {
+		final LightmapHd.Refs result = lightmapRefs;
+		lightmapRefs = null;
+		aoCalc.trackLightmaps(null);
+		return result;
+	}
+
+	public @Nullable LightmapHd.Refs lightmapRefs() {
+		return lightmapRefs;
+	}
+
 	public TerrainRenderContext() {
 		region = new FastRenderRegion(this);
 	}
@@ -96,11 +116,21 @@ public class TerrainRenderContext extends AbstractBlockRenderContext<FastRenderR
 		region.prepare(protoRegion);
 		backfaceCullFlags = protoRegion.backfaceCullFlags;
 
+		if (lightmapRefs != null) {
+			// prior build was abandoned
+			lightmapRefs.release();
+		}
+
+		lightmapRefs = Configurator.hdLightmaps ? new LightmapHd.Refs() : null;
+		aoCalc.trackLightmaps(lightmapRefs);
+
 		if(Configurator.lightSmoothing) {
 			//            final long start = counter.startRun();
 			LightSmoother.computeSmoothedBrightness(region);
 		}
 
+		aoCalc.prepareRegion();
+
 		return this;
 	}
 
@@ -133,6 +163,11 @@ public class TerrainRenderContext extends AbstractBlockRenderContext<FastRenderR
 		return collectors.get(MaterialState.get(MaterialContext.TERRAIN, mat));
 	}
 
+	@Override
+	protected boolean cacheTesselation() {
+		return Configurator.cacheBlockTesselation;
+	}
+
 	@Override
 	public int brightness() {
 		return 0;
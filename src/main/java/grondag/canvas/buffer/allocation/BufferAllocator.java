@@ -17,47 +17,243 @@
 package grondag.canvas.buffer.allocation;
 
 import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.system.MemoryUtil;
 
-import net.minecraft.util.math.MathHelper;
-
 import grondag.canvas.Configurator;
 
 /**
- * Tracks all allocations, ensures deallocation on render reload.
+ * Size-class slab allocator for native vertex staging buffers.
+ *
+ * Each size class carves large native arenas into equal slots. Size classes are
+ * four per power of two, so at most 20% of a slot is unused. Released slots go to
+ * lock-free per-class free lists and are reused. Buffers are claimed on worker threads
+ * but released on the render thread after upload, so there is no per-thread caching.
+ * Arenas are retained for reuse until {@link #freeUnusedArenas()} finds all their slots free.
+ *
+ * Requests larger than the largest size class are allocated and freed directly.
  * Implements configuration of allocation method.
  */
 public class BufferAllocator {
 	private static final IntFunction<ByteBuffer> SUPPLIER = Configurator.safeNativeMemoryAllocation ? BufferUtils::createByteBuffer : MemoryUtil::memAlloc;
 	private static final Consumer<ByteBuffer> CONSUMER = Configurator.safeNativeMemoryAllocation ? b -> {} : MemoryUtil::memFree;
-	private static final Set<ByteBuffer> OPEN = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
 
-	public static synchronized  ByteBuffer claim(int bytes) {
-		if(bytes < 4096) {
-			bytes = 4096;
+	private static final int MIN_CLASS_SHIFT = 12;
+	private static final int MIN_CLASS_BYTES = 1 << MIN_CLASS_SHIFT;
+	private static final int MAX_CLASS_BYTES = 1 << 22;
+	static final int CLASS_COUNT = sizeClass(MAX_CLASS_BYTES) + 1;
+
+	/** Arenas for small classes are sized to hold this many bytes, but never more than MAX_ARENA_SLOTS slots */
+	private static final int ARENA_TARGET_BYTES = 1 << 20;
+	private static final int MAX_ARENA_SLOTS = 64;
+
+	@SuppressWarnings("unchecked")
+	private static final ConcurrentLinkedQueue<ByteBuffer>[] FREE = new ConcurrentLinkedQueue[CLASS_COUNT];
+	private static final Object[] GROW_LOCKS = new Object[CLASS_COUNT];
+
+	/** Arenas of each class, guarded by the lock of the class */
+	@SuppressWarnings("unchecked")
+	private static final ArrayList<ByteBuffer>[] ARENAS = new ArrayList[CLASS_COUNT];
+
+	private static final AtomicLong arenaBytes = new AtomicLong();
+	private static final AtomicLong arenaCount = new AtomicLong();
+	private static final LongAdder slotBytesInUse = new LongAdder();
+	private static final LongAdder requestedBytesInUse = new LongAdder();
+	private static final LongAdder directBytesInUse = new LongAdder();
+
+	static {
+		for (int i = 0; i < CLASS_COUNT; ++i) {
+			FREE[i] = new ConcurrentLinkedQueue<>();
+			GROW_LOCKS[i] = new Object();
+			ARENAS[i] = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Smallest size class that can hold the given number of bytes.
+	 * Class zero is {@link #MIN_CLASS_BYTES} and each power of two after that is split into four classes.
+	 */
+	static int sizeClass(int bytes) {
+		if (bytes <= MIN_CLASS_BYTES) {
+			return 0;
+		}
+
+		final int shift = 31 - Integer.numberOfLeadingZeros(bytes - 1);
+		final int quarter = ((bytes - 1) >> (shift - 2)) & 3;
+		return (shift - MIN_CLASS_SHIFT) * 4 + quarter + 1;
+	}
+
+	static int classBytes(int sizeClass) {
+		if (sizeClass == 0) {
+			return MIN_CLASS_BYTES;
+		}
+
+		final int shift = MIN_CLASS_SHIFT + (sizeClass - 1) / 4;
+		final int quarter = (sizeClass - 1) & 3;
+		return (1 << shift) + ((quarter + 1) << (shift - 2));
+	}
+
+	/**
+	 * Buffer limit will be the requested size but capacity may be larger.
+	 * Buffers must be returned via {@link #release(ByteBuffer)}.
+	 */
+	public static ByteBuffer claim(int bytes) {
+		if (bytes > MAX_CLASS_BYTES) {
+			directBytesInUse.add(bytes);
+			return SUPPLIER.apply(bytes);
+		}
+
+		final int sizeClass = sizeClass(bytes);
+		ByteBuffer result = FREE[sizeClass].poll();
+
+		if (result == null) {
+			result = grow(sizeClass);
 		}
-		bytes = MathHelper.smallestEncompassingPowerOfTwo(bytes);
-		final ByteBuffer result =SUPPLIER.apply(bytes);
-		OPEN.add(result);
+
+		slotBytesInUse.add(result.capacity());
+		requestedBytesInUse.add(bytes);
+		result.clear();
+		result.limit(bytes);
 		return result;
 	}
 
-	public static synchronized void release(ByteBuffer uploadBuffer) {
-		if(OPEN.remove(uploadBuffer)) {
-			CONSUMER.accept(uploadBuffer);
+	public static void release(ByteBuffer buffer) {
+		final int capacity = buffer.capacity();
+
+		if (capacity > MAX_CLASS_BYTES) {
+			directBytesInUse.add(-capacity);
+			CONSUMER.accept(buffer);
+			return;
 		}
+
+		slotBytesInUse.add(-capacity);
+		requestedBytesInUse.add(-buffer.limit());
+
+		FREE[sizeClass(capacity)].offer(buffer);
 	}
 
-	public static synchronized void forceReload() {
-		OPEN.forEach(CONSUMER);
-		OPEN.clear();
+	/**
+	 * Adds a new arena for the given class and returns one of its slots.
+	 * Locks only the given class, and only when no free slot is available.
+	 */
+	private static ByteBuffer grow(int sizeClass) {
+		final ConcurrentLinkedQueue<ByteBuffer> free = FREE[sizeClass];
+
+		synchronized (GROW_LOCKS[sizeClass]) {
+			// another thread may have grown the class while we waited
+			final ByteBuffer result = free.poll();
+
+			if (result != null) {
+				return result;
+			}
+
+			final int slotBytes = classBytes(sizeClass);
+			final int slotCount = Math.max(1, Math.min(MAX_ARENA_SLOTS, ARENA_TARGET_BYTES / slotBytes));
+			final ByteBuffer arena = SUPPLIER.apply(slotBytes * slotCount);
+			ARENAS[sizeClass].add(arena);
+			arenaBytes.addAndGet(arena.capacity());
+			arenaCount.incrementAndGet();
+
+			for (int i = 1; i < slotCount; ++i) {
+				free.offer(MemoryUtil.memSlice(arena, i * slotBytes, slotBytes));
+			}
+
+			return MemoryUtil.memSlice(arena, 0, slotBytes);
+		}
 	}
 
+	/**
+	 * Frees arenas with no claimed slots, so that native memory doesn't stay at its peak
+	 * after a reload. Slots released while this runs may keep their arena for later reuse.
+	 */
+	public static void freeUnusedArenas() {
+		final ArrayList<ByteBuffer> slots = new ArrayList<>();
+
+		for (int sizeClass = 0; sizeClass < CLASS_COUNT; ++sizeClass) {
+			final ConcurrentLinkedQueue<ByteBuffer> free = FREE[sizeClass];
+
+			synchronized (GROW_LOCKS[sizeClass]) {
+				final ArrayList<ByteBuffer> arenas = ARENAS[sizeClass];
+
+				if (arenas.isEmpty()) {
+					continue;
+				}
+
+				ByteBuffer slot;
+
+				while ((slot = free.poll()) != null) {
+					slots.add(slot);
+				}
+
+				final int slotBytes = classBytes(sizeClass);
+				final int arenaLimit = arenas.size();
+				final int[] freeCounts = new int[arenaLimit];
+				final int[] owners = new int[slots.size()];
+
+				for (int i = 0; i < owners.length; ++i) {
+					final int owner = arenaIndex(arenas, MemoryUtil.memAddress0(slots.get(i)));
+					owners[i] = owner;
+					++freeCounts[owner];
+				}
+
+				for (int i = 0; i < owners.length; ++i) {
+					final int owner = owners[i];
+
+					if (freeCounts[owner] != arenas.get(owner).capacity() / slotBytes) {
+						free.offer(slots.get(i));
+					}
+				}
+
+				for (int i = arenaLimit - 1; i >= 0; --i) {
+					final ByteBuffer arena = arenas.get(i);
+
+					if (freeCounts[i] == arena.capacity() / slotBytes) {
+						arenas.remove(i);
+						arenaBytes.addAndGet(-arena.capacity());
+						arenaCount.decrementAndGet();
+						CONSUMER.accept(arena);
+					}
+				}
+
+				slots.clear();
+			}
+		}
+	}
+
+	private static int arenaIndex(ArrayList<ByteBuffer> arenas, long address) {
+		final int limit = arenas.size();
+
+		for (int i = 0; i < limit; ++i) {
+			final ByteBuffer arena = arenas.get(i);
+			final long start = MemoryUtil.memAddress0(arena);
+
+			if (address >= start && address < start + arena.capacity()) {
+				return i;
+			}
+		}
+
+		throw new IllegalStateException("Buffer slot is not part of any arena");
+	}
+
+	/**
+	 * Occupancy is share of arena memory in claimed slots.
+	 * Waste is share of claimed slot memory beyond the requested size.
+	 */
+	public static String debugReport() {
+		final long arenaBytes = BufferAllocator.arenaBytes.get();
+		final long slotBytes = slotBytesInUse.sum();
+		final long requestedBytes = requestedBytesInUse.sum();
+		final int occupancy = arenaBytes == 0 ? 0 : (int) (slotBytes * 100 / arenaBytes);
+		final int waste = slotBytes == 0 ? 0 : (int) ((slotBytes - requestedBytes) * 100 / slotBytes);
+
+		return String.format("%d arenas, %d MB, %d%% occupied, %d%% waste, %d MB direct",
+				arenaCount.get(), arenaBytes >> 20, occupancy, waste, directBytesInUse.sum() >> 20);
+	}
 }
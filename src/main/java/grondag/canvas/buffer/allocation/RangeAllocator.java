@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright 2019 grondag
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+
+package grondag.canvas.buffer.allocation;
+
+/**
+ * First-fit allocator for byte ranges within a fixed-size buffer.
+ * Free ranges are kept sorted by offset and are merged with their neighbors when
+ * released, so large ranges become available again as regions are unloaded.
+ *
+ * Holds no memory itself and makes no GL calls. Not thread-safe.
+ */
+public class RangeAllocator {
+	private final int capacity;
+
+	private int[] freeOffsets = new int[64];
+	private int[] freeLengths = new int[64];
+	private int freeCount;
+
+	private int usedBytes;
+
+	public RangeAllocator(int capacity) {
+		this.capacity = capacity;
+		freeOffsets[0] = 0;
+		freeLengths[0] = capacity;
+		freeCount = 1;
+	}
+
+	/**
+	 * Reserves a range of the given size starting at a multiple of the given alignment.
+	 * Alignment need not be a power of two - vertex strides are used so that the start
+	 * can be given as a vertex index.
+	 *
+	 * @return Start of the range, or -1 if no free range is large enough
+	 */
+	public int allocate(int bytes, int alignment) {
+		final int index = find(bytes, alignment);
+
+		if (index == -1) {
+			return -1;
+		}
+
+		final int offset = freeOffsets[index];
+		final int length = freeLengths[index];
+		final int start = align(offset, alignment);
+		final int end = start + bytes;
+		final int tail = offset + length - end;
+
+		if (start == offset) {
+			if (tail == 0) {
+				remove(index);
+			} else {
+				freeOffsets[index] = end;
+				freeLengths[index] = tail;
+			}
+		} else {
+			// bytes skipped for alignment stay free
+			freeLengths[index] = start - offset;
+
+			if (tail != 0) {
+				insert(index + 1, end, tail);
+			}
+		}
+
+		usedBytes += bytes;
+		return start;
+	}
+
+	/** True if {@link #allocate(int, int)} would succeed */
+	public boolean canAllocate(int bytes, int alignment) {
+		return find(bytes, alignment) != -1;
+	}
+
+	/**
+	 * Returns a range given by {@link #allocate(int, int)}. Size must match the original request.
+	 */
+	public void free(int offset, int bytes) {
+		assert offset >= 0 && offset + bytes <= capacity;
+
+		// first free range after the released range
+		int low = 0;
+		int high = freeCount;
+
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+
+			if (freeOffsets[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		final int next = low;
+		final int prev = next - 1;
+		final boolean joinPrev = prev >= 0 && freeOffsets[prev] + freeLengths[prev] == offset;
+		final boolean joinNext = next < freeCount && offset + bytes == freeOffsets[next];
+
+		assert prev < 0 || freeOffsets[prev] + freeLengths[prev] <= offset : "Range freed twice";
+		assert next >= freeCount || offset + bytes <= freeOffsets[next] : "Range freed twice";
+
+		if (joinPrev && joinNext) {
+			freeLengths[prev] += bytes + freeLengths[next];
+			remove(next);
+		} else if (joinPrev) {
+			freeLengths[prev] += bytes;
+		} else if (joinNext) {
+			freeOffsets[next] = offset;
+			freeLengths[next] += bytes;
+		} else {
+			insert(next, offset, bytes);
+		}
+
+		usedBytes -= bytes;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public int usedBytes() {
+		return usedBytes;
+	}
+
+	public boolean isEmpty() {
+		return usedBytes == 0;
+	}
+
+	/** Number of separate free ranges - higher values mean more fragmentation */
+	public int freeRangeCount() {
+		return freeCount;
+	}
+
+	public int largestFreeRange() {
+		int result = 0;
+
+		for (int i = 0; i < freeCount; ++i) {
+			result = Math.max(result, freeLengths[i]);
+		}
+
+		return result;
+	}
+
+	private int find(int bytes, int alignment) {
+		for (int i = 0; i < freeCount; ++i) {
+			final int offset = freeOffsets[i];
+
+			if (align(offset, alignment) + bytes <= offset + freeLengths[i]) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private static int align(int offset, int alignment) {
+		final int remainder = offset % alignment;
+		return remainder == 0 ? offset : offset + alignment - remainder;
+	}
+
+	private void insert(int index, int offset, int length) {
+		if (freeCount == freeOffsets.length) {
+			final int[] newOffsets = new int[freeCount * 2];
+			final int[] newLengths = new int[freeCount * 2];
+			System.arraycopy(freeOffsets, 0, newOffsets, 0, freeCount);
+			System.arraycopy(freeLengths, 0, newLengths, 0, freeCount);
+			freeOffsets = newOffsets;
+			freeLengths = newLengths;
+		}
+
+		System.arraycopy(freeOffsets, index, freeOffsets, index + 1, freeCount - index);
+		System.arraycopy(freeLengths, index, freeLengths, index + 1, freeCount - index);
+		freeOffsets[index] = offset;
+		freeLengths[index] = length;
+		++freeCount;
+	}
+
+	private void remove(int index) {
+		--freeCount;
+		System.arraycopy(freeOffsets, index + 1, freeOffsets, index, freeCount - index);
+		System.arraycopy(freeLengths, index + 1, freeLengths, index, freeCount - index);
+	}
+}
@@ -21,7 +21,6 @@ import java.util.function.Consumer;
 
 import com.mojang.blaze3d.systems.RenderSystem;
 import org.lwjgl.opengl.GL21;
-import org.lwjgl.system.MemoryUtil;
 
 import grondag.canvas.varia.GLBufferStore;
 
@@ -35,8 +34,7 @@ public class VboBuffer implements AllocationProvider, AutoCloseable {
 	private boolean isClosed = false;
 
 	public VboBuffer(int bytes) {
-		// TODO: get rid of BufferAllocator if it won't be faster
-		uploadBuffer = MemoryUtil.memAlloc(bytes); //BufferUtils.createByteBuffer(bytes); //BufferAllocator.claim(bytes);
+		uploadBuffer = BufferAllocator.claim(bytes);
 	}
 
 	public void upload() {
@@ -49,8 +47,20 @@ public class VboBuffer implements AllocationProvider, AutoCloseable {
 			uploadBuffer.rewind();
 			GL21.glBufferData(GL21.GL_ARRAY_BUFFER, uploadBuffer, GL21.GL_STATIC_DRAW);
 			unbind();
-			MemoryUtil.memFree(uploadBuffer);
-			//BufferAllocator.release(uploadBuffer);
+			BufferAllocator.release(uploadBuffer);
+			this.uploadBuffer = null;
+		}
+	}
+
+	/**
+	 * Releases staging memory without creating a GL buffer.
+	 * For data that has been copied to a different buffer.
+	 */
+	public void releaseUploadBuffer() {
+		final ByteBuffer uploadBuffer = this.uploadBuffer;
+
+		if(uploadBuffer != null) {
+			BufferAllocator.release(uploadBuffer);
 			this.uploadBuffer = null;
 		}
 	}
@@ -118,8 +128,7 @@ public class VboBuffer implements AllocationProvider, AutoCloseable {
 			final ByteBuffer uploadBuffer = this.uploadBuffer;
 
 			if(uploadBuffer != null) {
-				MemoryUtil.memFree(uploadBuffer);
-				//BufferUtils.BufferAllocator.release(uploadBuffer);
+				BufferAllocator.release(uploadBuffer);
 				this.uploadBuffer = null;
 			}
 		}
@@ -0,0 +1,128 @@
+package grondag.canvas.buffer.packing;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles the large arrays that region builds would otherwise allocate for every rebuild.
+ * Arrays are kept in buckets by power-of-two length, so a claimed array may be longer
+ * than requested. Arrays too large for any bucket are allocated and left to the collector.
+ *
+ * Safe for use from multiple threads. Callers must not use an array after releasing it.
+ */
+public class ArrayPool {
+	private static final int MIN_BITS = 8;
+	private static final int MAX_BITS = 20;
+
+	/** Limits memory held by any one bucket */
+	private static final int MAX_BUCKET_BYTES = 8 << 20;
+	private static final int MAX_BUCKET_ARRAYS = 64;
+
+	private static final ArrayBlockingQueue<int[]>[] INTS = createBuckets();
+	private static final ArrayBlockingQueue<float[]>[] FLOATS = createBuckets();
+
+	private static final AtomicLong ALLOCATED_BYTES = new AtomicLong();
+	private static final AtomicLong RECYCLED_BYTES = new AtomicLong();
+
+	@SuppressWarnings("unchecked")
+	private static <T> ArrayBlockingQueue<T>[] createBuckets() {
+		final ArrayBlockingQueue<T>[] result = new ArrayBlockingQueue[MAX_BITS + 1];
+
+		for (int bits = MIN_BITS; bits <= MAX_BITS; ++bits) {
+			result[bits] = new ArrayBlockingQueue<>(Math.max(2, Math.min(MAX_BUCKET_ARRAYS, MAX_BUCKET_BYTES >> (bits + 2))));
+		}
+
+		return result;
+	}
+
+	/** Bucket for arrays of at least the given length, or -1 if too large to pool */
+	private static int bucket(int minLength) {
+		final int bits = Math.max(MIN_BITS, 32 - Integer.numberOfLeadingZeros(minLength - 1));
+		return bits > MAX_BITS ? -1 : bits;
+	}
+
+	/** Bucket the array came from, or -1 if it was not pooled */
+	private static int bucketOf(int length) {
+		return length >= (1 << MIN_BITS) && length <= (1 << MAX_BITS) && Integer.bitCount(length) == 1
+				? Integer.numberOfTrailingZeros(length) : -1;
+	}
+
+	public static int[] claimInts(int minLength) {
+		final int bits = bucket(minLength);
+
+		if (bits == -1) {
+			ALLOCATED_BYTES.addAndGet(minLength * 4L);
+			return new int[minLength];
+		}
+
+		final int[] result = INTS[bits].poll();
+
+		if (result == null) {
+			ALLOCATED_BYTES.addAndGet(4L << bits);
+			return new int[1 << bits];
+		} else {
+			RECYCLED_BYTES.addAndGet(4L << bits);
+			return result;
+		}
+	}
+
+	public static float[] claimFloats(int minLength) {
+		final int bits = bucket(minLength);
+
+		if (bits == -1) {
+			ALLOCATED_BYTES.addAndGet(minLength * 4L);
+			return new float[minLength];
+		}
+
+		final float[] result = FLOATS[bits].poll();
+
+		if (result == null) {
+			ALLOCATED_BYTES.addAndGet(4L << bits);
+			return new float[1 << bits];
+		} else {
+			RECYCLED_BYTES.addAndGet(4L << bits);
+			return result;
+		}
+	}
+
+	public static void release(int[] array) {
+		final int bits = bucketOf(array.length);
+
+		if (bits != -1) {
+			INTS[bits].offer(array);
+		}
+	}
+
+	public static void release(float[] array) {
+		final int bits = bucketOf(array.length);
+
+		if (bits != -1) {
+			FLOATS[bits].offer(array);
+		}
+	}
+
+	private static long lastReportNanos;
+	private static long lastAllocatedBytes;
+	private static long lastRecycledBytes;
+	private static String lastReport = "";
+
+	/** Allocation and recycle rates, updated once per second. For the debug screen on the render thread. */
+	public static String debugReport() {
+		final long now = System.nanoTime();
+		final long elapsed = now - lastReportNanos;
+
+		if (elapsed >= 1000000000L) {
+			final long allocated = ALLOCATED_BYTES.get();
+			final long recycled = RECYCLED_BYTES.get();
+			final double seconds = elapsed / 1000000000.0;
+			lastReport = String.format("%d KB/s allocated, %d KB/s recycled",
+					(long) ((allocated - lastAllocatedBytes) / 1024 / seconds), (long) ((recycled - lastRecycledBytes) / 1024 / seconds));
+
+			lastReportNanos = now;
+			lastAllocatedBytes = allocated;
+			lastRecycledBytes = recycled;
+		}
+
+		return lastReport;
+	}
+}
@@ -0,0 +1,145 @@
+package grondag.canvas.buffer.packing;
+
+import java.util.Arrays;
+
+/**
+ * Sorts a permutation of quad indices by distance from the camera, farthest first.
+ *
+ * The permutation from the previous sort is the starting point. After small camera
+ * movements it is nearly sorted and an insertion sort finishes in close to linear time.
+ * If the insertion sort has to move too many quads it hands off to a radix sort on the
+ * float distance bits, which is linear regardless of the starting order.
+ *
+ * Holds scratch arrays only, so instances are kept per thread.
+ */
+class QuadSorter {
+	private static final ThreadLocal<QuadSorter> THREADLOCAL = ThreadLocal.withInitial(QuadSorter::new);
+
+	static QuadSorter get() {
+		return THREADLOCAL.get();
+	}
+
+	/** Below this many quads insertion sort is used even when many quads move */
+	private static final int MIN_RADIX_QUADS = 256;
+
+	/** Insertion sort gives up after this many moves per quad, on average */
+	private static final int MOVES_PER_QUAD = 4;
+
+	private static final int RADIX_BITS = 11;
+	private static final int RADIX_SIZE = 1 << RADIX_BITS;
+	private static final int RADIX_MASK = RADIX_SIZE - 1;
+
+	private float[] keys = new float[512];
+	private int[] radixKeys = new int[512];
+	private int[] swap = new int[512];
+	private final int[] counts = new int[RADIX_SIZE];
+
+	private QuadSorter() { }
+
+	/**
+	 * @param centroids		Center of each quad, three floats per quad
+	 * @param order			Quad indices in prior sort order, will be updated to new order
+	 * @param quadCount		Number of quads
+	 * @param x				Camera position, in same coordinate space as centroids
+	 */
+	void sort(float[] centroids, int[] order, int quadCount, float x, float y, float z) {
+		if (keys.length < quadCount) {
+			final int size = Integer.highestOneBit(quadCount) << 1;
+			keys = new float[size];
+			radixKeys = new int[size];
+			swap = new int[size];
+		}
+
+		final float[] keys = this.keys;
+
+		for (int q = 0; q < quadCount; ++q) {
+			final int i = q * 3;
+			final float dx = centroids[i] - x;
+			final float dy = centroids[i + 1] - y;
+			final float dz = centroids[i + 2] - z;
+			keys[q] = dx * dx + dy * dy + dz * dz;
+		}
+
+		if (!insertionSort(order, quadCount)) {
+			radixSort(order, quadCount);
+		}
+	}
+
+	/**
+	 * Sorts order array by key, descending.
+	 * @return false if sort was abandoned because the input was not nearly sorted.
+	 * Array is always a valid permutation when this returns.
+	 */
+	private boolean insertionSort(int[] order, int quadCount) {
+		final float[] keys = this.keys;
+		int budget = quadCount < MIN_RADIX_QUADS ? Integer.MAX_VALUE : quadCount * MOVES_PER_QUAD;
+
+		for (int i = 1; i < quadCount; ++i) {
+			final int quad = order[i];
+			final float key = keys[quad];
+			int j = i;
+
+			while (j > 0 && keys[order[j - 1]] < key) {
+				order[j] = order[j - 1];
+				--j;
+			}
+
+			order[j] = quad;
+			budget -= i - j;
+
+			if (budget < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Stable LSD radix sort of order array by key, descending.  Squared distances
+	 * are never negative, so their float bits have the same order as their values.
+	 */
+	private void radixSort(int[] order, int quadCount) {
+		final float[] keys = this.keys;
+		final int[] radixKeys = this.radixKeys;
+		final int[] counts = this.counts;
+
+		for (int q = 0; q < quadCount; ++q) {
+			// inverted so that ascending sort gives farthest first
+			radixKeys[q] = ~Float.floatToRawIntBits(keys[q]);
+		}
+
+		int[] from = order;
+		int[] to = swap;
+
+		for (int shift = 0; shift < 32; shift += RADIX_BITS) {
+			Arrays.fill(counts, 0);
+
+			for (int i = 0; i < quadCount; ++i) {
+				++counts[(radixKeys[from[i]] >>> shift) & RADIX_MASK];
+			}
+
+			int sum = 0;
+
+			for (int b = 0; b < RADIX_SIZE; ++b) {
+				final int c = counts[b];
+				counts[b] = sum;
+				sum += c;
+			}
+
+			for (int i = 0; i < quadCount; ++i) {
+				final int quad = from[i];
+				to[counts[(radixKeys[quad] >>> shift) & RADIX_MASK]++] = quad;
+			}
+
+			final int[] t = from;
+			from = to;
+			to = t;
+		}
+
+		// odd number of passes leaves result in swap array
+		if (from != order) {
+			System.arraycopy(from, 0, order, 0, quadCount);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package grondag.canvas.buffer.packing;
+
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import grondag.canvas.light.LightmapHd;
+import grondag.canvas.material.MaterialState;
+
+/**
+ * Copy of the vertex collector content of a completed region build, with the
+ * block that produced each quad. Lets a later build re-tesselate only changed
+ * blocks and keep the quads of all other blocks.
+ *
+ * Immutable after capture, so can be shared between threads.
+ */
+public class RetainedGeometry {
+	/** Sequence of the world snapshot this geometry was built from */
+	public final int sequence;
+
+	/** Back-face culling flags in effect for the build - retained quads are invalid if these change */
+	public final int backfaceCullFlags;
+
+	/** HD lightmaps referenced by the retained vertices, must be acquired again by the build that reuses them */
+	public final LightmapHd[] lightmaps;
+
+	/**
+	 * Blocks that were renderable in the build, one bit per interior block index. Blocks
+	 * that change visibility must be tesselated again even when the block itself did not change.
+	 */
+	public final long[] renderableBlocks;
+
+	private static final LightmapHd[] NO_LIGHTMAPS = new LightmapHd[0];
+
+	private final MaterialState[] materialStates;
+	private final int[][] vertexData;
+	private final int[][] quadBlocks;
+	private final int[] quadCounts;
+
+	private RetainedGeometry(int sequence, int backfaceCullFlags, LightmapHd[] lightmaps, long[] renderableBlocks, ObjectArrayList<VertexCollectorImpl> collectors) {
+		this.sequence = sequence;
+		this.backfaceCullFlags = backfaceCullFlags;
+		this.lightmaps = lightmaps;
+		this.renderableBlocks = renderableBlocks;
+
+		final int size = collectors.size();
+		materialStates = new MaterialState[size];
+		vertexData = new int[size][];
+		quadBlocks = new int[size][];
+		quadCounts = new int[size];
+
+		for (int i = 0; i < size; ++i) {
+			final VertexCollectorImpl collector = collectors.get(i);
+			final int quadCount = collector.quadCount();
+			materialStates[i] = collector.materialState();
+			quadCounts[i] = quadCount;
+
+			vertexData[i] = new int[collector.integerSize()];
+			collector.copyTo(vertexData[i]);
+
+			quadBlocks[i] = new int[quadCount];
+			collector.copyQuadBlocks(quadBlocks[i]);
+		}
+	}
+
+	/**
+	 * All quads in the collectors must have been tagged via {@link VertexCollectorList#tagQuads(int)}.
+	 * @param lightmapRefs	HD lightmaps used by the build, or null if HD lightmaps are disabled
+	 * @param renderableBlocks	Renderable flags used by the build, retained, not copied
+	 */
+	public static RetainedGeometry capture(VertexCollectorList collectors, int sequence, int backfaceCullFlags, @Nullable LightmapHd.Refs lightmapRefs, long[] renderableBlocks) {
+		final ObjectArrayList<VertexCollectorImpl> nonEmpty = new ObjectArrayList<>();
+
+		collectors.forEachExisting(c -> {
+			if (c.quadCount() > 0) {
+				nonEmpty.add(c);
+			}
+		});
+
+		return new RetainedGeometry(sequence, backfaceCullFlags, lightmapRefs == null ? NO_LIGHTMAPS : lightmapRefs.toArray(), renderableBlocks, nonEmpty);
+	}
+
+	/**
+	 * Loads retained quads into empty collectors, except quads from blocks
+	 * set in the given bits. Those blocks must be tesselated again.
+	 *
+	 * @param dirtyBlocks	One bit per interior block index
+	 */
+	public void loadInto(VertexCollectorList collectors, long[] dirtyBlocks) {
+		final int size = materialStates.length;
+
+		for (int i = 0; i < size; ++i) {
+			collectors.get(materialStates[i]).appendQuads(vertexData[i], quadBlocks[i], quadCounts[i], dirtyBlocks);
+		}
+	}
+}
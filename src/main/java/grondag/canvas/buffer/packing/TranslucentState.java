@@ -0,0 +1,130 @@
+package grondag.canvas.buffer.packing;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import grondag.canvas.buffer.allocation.VboBuffer;
+import grondag.canvas.chunk.draw.DelegateLists;
+import grondag.canvas.chunk.draw.DrawableDelegate;
+import grondag.canvas.material.MaterialState;
+
+/**
+ * Translucent quads of a region, retained for re-sorting when the camera moves.
+ *
+ * Vertex data stays in the order it was buffered. Quad centers are computed once
+ * and only the permutation of quad indices is sorted. Vertices are gathered in sorted
+ * order directly into the upload buffer by {@link #pack()}.
+ *
+ * Arrays come from {@link ArrayPool} and go back when the last reference is released.
+ * The region data that captured the state holds the first reference. Other users,
+ * such as a re-sort, must {@link #retain()} the state while they use it.
+ */
+public class TranslucentState {
+	public final MaterialState materialState;
+
+	private final int[] vertexData;
+	private final float[] centroids;
+	private final int[] order;
+	private final int quadCount;
+	private final int quadIntStride;
+	private final AtomicInteger refCount = new AtomicInteger(1);
+
+	private TranslucentState(VertexCollectorImpl collector) {
+		materialState = collector.materialState();
+		final int vertexIntStride = materialState.bufferFormat.vertexStrideInts;
+		quadIntStride = vertexIntStride * 4;
+		quadCount = collector.quadCount();
+		vertexData = ArrayPool.claimInts(quadCount * quadIntStride);
+		collector.copyTo(vertexData);
+
+		centroids = ArrayPool.claimFloats(quadCount * 3);
+		order = ArrayPool.claimInts(quadCount);
+
+		final int[] data = vertexData;
+
+		for (int q = 0; q < quadCount; ++q) {
+			final int v0 = q * quadIntStride;
+			final int v1 = v0 + vertexIntStride;
+			final int v2 = v1 + vertexIntStride;
+			final int v3 = v2 + vertexIntStride;
+			final int c = q * 3;
+
+			for (int axis = 0; axis < 3; ++axis) {
+				centroids[c + axis] = (Float.intBitsToFloat(data[v0 + axis]) + Float.intBitsToFloat(data[v1 + axis])
+				+ Float.intBitsToFloat(data[v2 + axis]) + Float.intBitsToFloat(data[v3 + axis])) * 0.25f;
+			}
+
+			order[q] = q;
+		}
+	}
+
+	/**
+	 * @return null if collector has no quads
+	 */
+	public static TranslucentState capture(VertexCollectorImpl collector) {
+		return collector == null || collector.quadCount() == 0 ? null : new TranslucentState(collector);
+	}
+
+	/**
+	 * @return false if the state was already released and must not be used
+	 */
+	public boolean retain() {
+		for (;;) {
+			final int count = refCount.get();
+
+			if (count == 0) {
+				return false;
+			}
+
+			if (refCount.compareAndSet(count, count + 1)) {
+				return true;
+			}
+		}
+	}
+
+	public void release() {
+		final int count = refCount.decrementAndGet();
+		assert count >= 0;
+
+		if (count == 0) {
+			ArrayPool.release(vertexData);
+			ArrayPool.release(centroids);
+			ArrayPool.release(order);
+		}
+	}
+
+	/**
+	 * Sorts quads farthest first. Coordinates are relative to region origin.
+	 * Synchronized because a re-sort may overlap a pack of the same region.
+	 */
+	public synchronized void sort(float x, float y, float z) {
+		QuadSorter.get().sort(centroids, order, quadCount, x, y, z);
+	}
+
+	public int byteCount() {
+		return quadCount * quadIntStride * 4;
+	}
+
+	/**
+	 * Copies vertex data in current sort order to a new upload buffer.
+	 */
+	public synchronized ObjectArrayList<DrawableDelegate> pack() {
+		final ObjectArrayList<DrawableDelegate> result = DelegateLists.getReadyDelegateList();
+		final int byteCount = byteCount();
+
+		new VboBuffer(byteCount).claimAllocation(byteCount, ref -> {
+			final IntBuffer intBuffer = ref.intBuffer();
+			intBuffer.position(ref.byteOffset() / 4);
+
+			for (int i = 0; i < quadCount; ++i) {
+				intBuffer.put(vertexData, order[i] * quadIntStride, quadIntStride);
+			}
+
+			result.add(DrawableDelegate.claim(ref, materialState, quadCount * 4, materialState.bufferFormat));
+		});
+
+		return result;
+	}
+}
@@ -1,23 +1,47 @@
 package grondag.canvas.buffer.packing;
 
+import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
 
-import com.google.common.primitives.Doubles;
-import it.unimi.dsi.fastutil.Swapper;
-import it.unimi.dsi.fastutil.ints.IntComparator;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryUtil;
 
 import net.minecraft.client.render.VertexConsumer;
-import net.minecraft.util.math.MathHelper;
 
 import grondag.canvas.buffer.encoding.VertexEncoder;
 import grondag.canvas.buffer.encoding.VertexEncoders;
 import grondag.canvas.material.MaterialState;
 import grondag.canvas.shader.ShaderContext;
-import grondag.fermion.intstream.IntStreamProvider;
-import grondag.fermion.intstream.IntStreamProvider.IntStreamImpl;
 
+/**
+ * Vertex data are written directly to native memory, so packing for upload is a single memory copy.
+ * Storage is one contiguous buffer per collector, retained between builds. New buffers are sized
+ * from the typical amount of data collectors receive, and grow by doubling.
+ *
+ * Buffers are garbage-collected direct buffers because collectors have no explicit end of life.
+ */
 public class VertexCollectorImpl implements VertexCollector {
-	private final IntStreamImpl data = INT_STREAM_PROVIDER.claim();
+	/** Smallest buffer capacity, in ints */
+	private static final int MIN_CAPACITY = 0x1000;
+
+	/** Buffers larger than this multiple of recent demand are replaced with smaller ones when cleared */
+	private static final int SHRINK_FACTOR = 8;
+
+	/**
+	 * Moving average of ints held by a collector when cleared, across all collectors.
+	 * Updates from different threads may race, which only makes the average less exact.
+	 */
+	private static volatile int typicalSize = MIN_CAPACITY;
+
+	private ByteBuffer buffer;
+	private IntBuffer intBuffer;
+	private long address;
+	private int capacity;
+
+	/** Moving average of ints held by this collector when cleared */
+	private int recentSize = MIN_CAPACITY;
+
 	private int integerSize = 0;
 	/**
 	 * Used for vanilla quads
@@ -29,263 +53,181 @@ public class VertexCollectorImpl implements VertexCollector {
 	public final VertexCollectorList parent;
 
 	/**
-	 * Holds per-quad distance after {@link #sortQuads(double, double, double)} is
-	 * called
+	 * Index of the block that produced each quad, for incremental rebuilds.
+	 * Only maintained when {@link #tagQuads(int)} is called.
 	 */
-	private double[] perQuadDistance;
-
-	/**
-	 * Pointer to next sorted quad in sort iteration methods.<br>
-	 * After {@link #sortQuads(float, float, float)} is called this will be zero.
-	 */
-	private int sortReadIndex = 0;
-
-	/**
-	 * Cached value of {@link #quadCount()}, set when quads are sorted by distance.
-	 */
-	private int sortMaxIndex = 0;
+	private int[] quadBlocks = new int[256];
+	private int taggedQuadCount = 0;
 
 	public VertexCollectorImpl(VertexCollectorList parent) {
 		this.parent = parent;
+		allocate(preferredCapacity(0));
 	}
 
-	public VertexCollectorImpl prepare(MaterialState materialState) {
-		defaultEncoder = VertexEncoders.getDefault(materialState.context, materialState.shaderType == ShaderContext.Type.TRANSLUCENT);
-		this.materialState = materialState;
-		return this;
+	private static int preferredCapacity(int minCapacity) {
+		final int size = Math.max(Math.max(MIN_CAPACITY, minCapacity), typicalSize);
+		return Integer.highestOneBit(size - 1) << 1;
 	}
 
-	public void clear() {
-		integerSize = 0;
-		data.reset();
+	private void allocate(int capacity) {
+		buffer = BufferUtils.createByteBuffer(capacity * 4);
+		intBuffer = buffer.asIntBuffer();
+		address = MemoryUtil.memAddress(buffer);
+		this.capacity = capacity;
 	}
 
-	public int integerSize() {
-		return integerSize;
+	private void grow(int minCapacity) {
+		final ByteBuffer oldBuffer = buffer;
+		allocate(Math.max(capacity * 2, preferredCapacity(minCapacity)));
+		oldBuffer.limit(integerSize * 4);
+		MemoryUtil.memCopy(oldBuffer, buffer);
 	}
 
-	public MaterialState materialState() {
-		return materialState;
+	public VertexCollectorImpl prepare(MaterialState materialState) {
+		defaultEncoder = VertexEncoders.getDefault(materialState.context, materialState.shaderType == ShaderContext.Type.TRANSLUCENT);
+		this.materialState = materialState;
+		return this;
 	}
 
-	public int vertexCount() {
-		return integerSize / materialState.bufferFormat.vertexStrideInts;
-	}
+	public void clear() {
+		final int size = integerSize;
 
-	public int quadCount() {
-		return vertexCount() / 4;
-	}
+		if (size > 0) {
+			final int typical = typicalSize;
+			typicalSize = typical + ((size - typical) >> 4);
+		}
 
-	@Override
-	public VertexCollectorImpl clone() {
-		throw new UnsupportedOperationException();
-	}
+		recentSize += (size - recentSize) >> 3;
 
-	public void sortQuads(double x, double y, double z) {
-		quadSorter.get().doSort(this, x, y, z);
-		sortReadIndex = 0;
-		sortMaxIndex = quadCount();
-	}
+		if (capacity > MIN_CAPACITY && capacity > recentSize * SHRINK_FACTOR) {
+			final int newCapacity = preferredCapacity(recentSize);
 
-	private double getDistanceSq(double x, double y, double z, int integerStride, int vertexIndex) {
-		// unpack vertex coordinates
-		int i = vertexIndex * integerStride * 4;
-		final double x0 = Float.intBitsToFloat(data.get(i));
-		final double y0 = Float.intBitsToFloat(data.get(i + 1));
-		final double z0 = Float.intBitsToFloat(data.get(i + 2));
-
-		i += integerStride;
-		final double x1 = Float.intBitsToFloat(data.get(i));
-		final double y1 = Float.intBitsToFloat(data.get(i + 1));
-		final double z1 = Float.intBitsToFloat(data.get(i + 2));
-
-		i += integerStride;
-		final double x2 = Float.intBitsToFloat(data.get(i));
-		final double y2 = Float.intBitsToFloat(data.get(i + 1));
-		final double z2 = Float.intBitsToFloat(data.get(i + 2));
-
-		i += integerStride;
-		final double x3 = Float.intBitsToFloat(data.get(i));
-		final double y3 = Float.intBitsToFloat(data.get(i + 1));
-		final double z3 = Float.intBitsToFloat(data.get(i + 2));
-
-		// compute average distance by component
-		final double dx = (x0 + x1 + x2 + x3) * 0.25 - x;
-		final double dy = (y0 + y1 + y2 + y3) * 0.25 - y;
-		final double dz = (z0 + z1 + z2 + z3) * 0.25 - z;
-
-		return dx * dx + dy * dy + dz * dz;
+			if (newCapacity < capacity) {
+				allocate(newCapacity);
+			}
+		}
+
+		integerSize = 0;
+		taggedQuadCount = 0;
 	}
 
 	/**
-	 * Index of first quad that will be referenced by {@link #unpackUntilDistance(double)}
+	 * Associates all quads added since the last call with the given block.
 	 */
-	public int sortReadIndex() {
-		return sortReadIndex;
-	}
+	public void tagQuads(int blockIndex) {
+		final int quadCount = quadCount();
+
+		if (quadCount > taggedQuadCount) {
+			if (quadBlocks.length < quadCount) {
+				final int[] newBlocks = new int[Integer.highestOneBit(quadCount) << 1];
+				System.arraycopy(quadBlocks, 0, newBlocks, 0, taggedQuadCount);
+				quadBlocks = newBlocks;
+			}
 
-	public boolean hasUnpackedSortedQuads() {
-		return perQuadDistance != null && sortReadIndex < sortMaxIndex;
+			Arrays.fill(quadBlocks, taggedQuadCount, quadCount, blockIndex);
+			taggedQuadCount = quadCount;
+		}
 	}
 
 	/**
-	 * Will return {@link Double#MIN_VALUE} if no unpacked quads remaining.
+	 * Copies block tags set by {@link #tagQuads(int)} to the start of the given array.
 	 */
-	public double firstUnpackedDistance() {
-		return hasUnpackedSortedQuads() ? perQuadDistance[sortReadIndex] : Double.MIN_VALUE;
+	public void copyQuadBlocks(int[] target) {
+		System.arraycopy(quadBlocks, 0, target, 0, taggedQuadCount);
 	}
 
 	/**
-	 * Returns the number of quads that are more or as distant than the distance
-	 * provided and advances the usage pointer so that
-	 * {@link #firstUnpackedDistance()} will return the distance to the next quad
-	 * after that.
-	 * <p>
-	 *
-	 * (All distances are actually squared distances, to be clear.)
+	 * Appends quads from a prior build, skipping quads of blocks set in the excluded bits.
+	 * Appended quads keep their block tags.
 	 */
-	public int unpackUntilDistance(double minDistanceSquared) {
-		if (!hasUnpackedSortedQuads()) {
-			return 0;
-		}
-
-		int result = 0;
-		final int limit = sortMaxIndex;
-		while (sortReadIndex < limit && minDistanceSquared <= perQuadDistance[sortReadIndex]) {
-			result++;
-			sortReadIndex++;
-		}
-		return result;
-	}
-
-	public int[] saveState(int[] priorState) {
-		if (integerSize == 0) {
-			return null;
-		}
+	public void appendQuads(int[] vertexData, int[] blocks, int quadCount, long[] excludedBlocks) {
+		assert taggedQuadCount == quadCount();
+		final int quadIntStride = materialState.bufferFormat.vertexStrideInts * 4;
 
-		final int outputSize = integerSize + 1;
-		int[] result = priorState;
+		for (int q = 0; q < quadCount; ++q) {
+			final int block = blocks[q];
 
-		if (result == null || result.length != outputSize) {
-			result = new int[outputSize];
+			if ((excludedBlocks[block >> 6] & (1L << (block & 63))) == 0) {
+				add(vertexData, q * quadIntStride, quadIntStride);
+				tagQuads(block);
+			}
 		}
+	}
 
-		result[0] = materialState.index;
-
-		if (integerSize > 0) {
-			data.copyTo(0, result, 1, integerSize);
-		}
+	public int integerSize() {
+		return integerSize;
+	}
 
-		return result;
+	public MaterialState materialState() {
+		return materialState;
 	}
 
-	public VertexCollectorImpl loadState(int[] stateData) {
-		if (stateData == null) {
-			clear();
-			return this;
-		}
+	public int vertexCount() {
+		return integerSize / materialState.bufferFormat.vertexStrideInts;
+	}
 
-		materialState = MaterialState.get(stateData[0]);
-		final int newSize = stateData.length - 1;
-		integerSize = 0;
+	public int quadCount() {
+		return vertexCount() / 4;
+	}
 
-		if (newSize > 0) {
-			integerSize = newSize;
-			data.copyFrom(0, stateData, 1, newSize);
-		}
+	@Override
+	public VertexCollectorImpl clone() {
+		throw new UnsupportedOperationException();
+	}
 
-		return this;
+	/**
+	 * Copies all vertex data to the start of the given array.
+	 */
+	public void copyTo(int[] target) {
+		final IntBuffer intBuffer = this.intBuffer;
+		intBuffer.position(0);
+		intBuffer.get(target, 0, integerSize);
 	}
 
 	/**
+	 * Copies vertex data to a direct buffer at its current position, and advances the position.
 	 * Offset was used when packing mixed translucency - should not be needed now
 	 */
-	public void toBuffer(IntBuffer intBuffer, int offset, int length) {
-		data.copyTo(offset, intBuffer, length);
+	public void toBuffer(IntBuffer target, int offset, int length) {
+		assert target.isDirect();
+		assert offset + length <= integerSize;
+		MemoryUtil.memCopy(address + offset * 4L, MemoryUtil.memAddress(target), length * 4L);
+		target.position(target.position() + length);
 	}
 
-	// TODO: make parameters dynamic based on system specs / config
-	private static IntStreamProvider INT_STREAM_PROVIDER = new IntStreamProvider(0x10000, 16, 4096);
-
-	private static class QuadSorter {
-		double[] perQuadDistance = new double[512];
-		int[] quadSwap = new int[128];
-
-		IntStreamImpl data;
-		int quadIntStride;
-
-		private final IntComparator comparator = new IntComparator() {
-			@Override
-			public int compare(int a, int b) {
-				return Doubles.compare(perQuadDistance[b], perQuadDistance[a]);
-			}
-		};
-
-		private final Swapper swapper = new Swapper() {
-			@Override
-			public void swap(int a, int b) {
-				final double distSwap = perQuadDistance[a];
-				perQuadDistance[a] = perQuadDistance[b];
-				perQuadDistance[b] = distSwap;
-
-				data.copyTo(a * quadIntStride, quadSwap, 0, quadIntStride);
-				data.copyFromDirect(a * quadIntStride, data, b * quadIntStride, quadIntStride);
-				data.copyFrom(b * quadIntStride, quadSwap, 0, quadIntStride);
-			}
-		};
-
-		private void doSort(VertexCollectorImpl caller, double x, double y, double z) {
-			data = caller.data;
-
-			// works because 4 bytes per int
-			quadIntStride = caller.materialState.bufferFormat.vertexStrideBytes;
-			final int vertexIntStride = quadIntStride / 4;
-			final int quadCount = caller.vertexCount() / 4;
-
-			if (perQuadDistance.length < quadCount) {
-				perQuadDistance = new double[MathHelper.smallestEncompassingPowerOfTwo(quadCount)];
-			}
-
-			if (quadSwap.length < quadIntStride) {
-				quadSwap = new int[MathHelper.smallestEncompassingPowerOfTwo(quadIntStride)];
-			}
-
-			for (int j = 0; j < quadCount; ++j) {
-				perQuadDistance[j] = caller.getDistanceSq(x, y, z, vertexIntStride, j);
-			}
-
-			// sort the indexes by distance - farthest first
-			it.unimi.dsi.fastutil.Arrays.quickSort(0, quadCount, comparator, swapper);
-
-			if (caller.perQuadDistance == null || caller.perQuadDistance.length < quadCount) {
-				caller.perQuadDistance = new double[perQuadDistance.length];
-			}
-
-			System.arraycopy(perQuadDistance, 0, caller.perQuadDistance, 0, quadCount);
-		}
-	}
+	@Override
+	public final void add(final int i) {
+		final int index = integerSize;
 
-	private static final ThreadLocal<QuadSorter> quadSorter = new ThreadLocal<QuadSorter>() {
-		@Override
-		protected QuadSorter initialValue() {
-			return new QuadSorter();
+		if (index == capacity) {
+			grow(index + 1);
 		}
-	};
 
-	@Override
-	public final void add(final int i) {
-		data.set(integerSize++, i);
+		MemoryUtil.memPutInt(address + index * 4L, i);
+		integerSize = index + 1;
 	}
 
 	@Override
 	public final void add(final float f) {
-		data.set(integerSize++, Float.floatToRawIntBits(f));
+		add(Float.floatToRawIntBits(f));
 	}
 
 	@Override
 	public final void add(int[] appendData, int length) {
-		data.copyFrom(integerSize, appendData, 0, length);
-		integerSize += length;
+		add(appendData, 0, length);
+	}
+
+	private void add(int[] appendData, int offset, int length) {
+		final int newSize = integerSize + length;
+
+		if (newSize > capacity) {
+			grow(newSize);
+		}
+
+		final IntBuffer intBuffer = this.intBuffer;
+		intBuffer.position(integerSize);
+		intBuffer.put(appendData, offset, length);
+		integerSize = newSize;
 	}
 
 	@Override
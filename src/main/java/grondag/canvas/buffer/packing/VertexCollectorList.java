@@ -80,6 +80,17 @@ public class VertexCollectorList {
 		return result;
 	}
 
+	/**
+	 * Associates quads added to any collector since the last call with the given block.
+	 */
+	public final void tagQuads(int blockIndex) {
+		final int usedCount = this.usedCount;
+
+		for(int i = 0; i < usedCount; i++) {
+			allCollectors.get(i).tagQuads(blockIndex);
+		}
+	}
+
 	public final void forEachExisting(Consumer<VertexCollectorImpl> consumer) {
 		final int usedCount = this.usedCount;
 		for(int i = 0; i < usedCount; i++) {
@@ -123,52 +134,6 @@ public class VertexCollectorList {
 		return packing.size() == 0 ? null : new UploadableChunk.Solid(packing, this);
 	}
 
-	/**
-	 * Assumes only a single translucent material state - sorting is done externally
-	 * DO NOT RETAIN A REFERENCE
-	 */
-	private final BufferPackingList packingListTranslucent(MaterialState translucentState) {
-		final BufferPackingList packing = packingList;
-		packing.clear();
-
-		final VertexCollectorImpl vertexCollector = collectors[translucentState.index];
-
-		if  (vertexCollector != null && vertexCollector.vertexCount() > 0) {
-			packing.addPacking(translucentState, 0, vertexCollector.vertexCount());
-		}
-
-		return packing;
-	}
-
-	public final UploadableChunk.Translucent packUploadTranslucent(MaterialState translucentState) {
-		final BufferPackingList packing = packingListTranslucent(translucentState);
-		return packing.size() == 0 ? null : new UploadableChunk.Translucent(packing, this);
-	}
-
-	public int[][] getCollectorState(int[][] priorState) {
-		int[][] result = priorState;
-
-		final int usedCount = this.usedCount;
-
-		if (result == null || result.length != usedCount) {
-			result = new int[usedCount][0];
-		}
-
-		for(int i = 0; i < usedCount; i++) {
-			result[i] = allCollectors.get(i).saveState(result[i]);
-		}
-
-		return result;
-	}
-
-	public void loadCollectorState(int[][] stateData) {
-		clear();
-		for (final int[] data : stateData) {
-			final VertexCollectorImpl vc = emptyCollector().loadState(data);
-			collectors[vc.materialState().index] = vc;
-		}
-	}
-
 	private static final Comparator<Object> solidComparator = new Comparator<Object>() {
 		@Override
 		public int compare(Object o1, Object o2) {
@@ -12,8 +12,9 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.Nullable;
+
 import com.mojang.blaze3d.systems.RenderSystem;
-import io.netty.util.internal.shaded.org.jctools.queues.MessagePassingQueue.Consumer;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
@@ -42,12 +43,16 @@ import grondag.canvas.Configurator;
 import grondag.canvas.apiimpl.RenderMaterialImpl.CompositeMaterial;
 import grondag.canvas.apiimpl.StandardMaterials;
 import grondag.canvas.apiimpl.rendercontext.TerrainRenderContext;
+import grondag.canvas.buffer.packing.RetainedGeometry;
+import grondag.canvas.buffer.packing.TranslucentState;
 import grondag.canvas.buffer.packing.VertexCollectorImpl;
 import grondag.canvas.buffer.packing.VertexCollectorList;
+import grondag.canvas.chunk.ChunkRenderExecutor.PrioritizedTask;
 import grondag.canvas.chunk.occlusion.TerrainOccluder;
 import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
 import grondag.canvas.chunk.occlusion.region.PackedBox;
 import grondag.canvas.draw.DrawHandlers;
+import grondag.canvas.light.LightmapHd;
 import grondag.canvas.material.MaterialContext;
 import grondag.canvas.material.MaterialState;
 import grondag.canvas.perf.ChunkRebuildCounters;
@@ -65,8 +70,31 @@ public class BuiltRenderRegion {
 	private boolean needsRebuild;
 	private final BlockPos.Mutable origin;
 	private boolean needsImportantRebuild;
+
+	/**
+	 * Interior blocks changed since last rebuild was scheduled, one bit per block index.
+	 * Null if the next rebuild must tesselate all blocks. Only meaningful if a rebuild is needed.
+	 */
+	private long[] dirtyBlocks;
+	private int dirtyBlockCount;
+
+	/** Incremented for each world snapshot and when existing geometry becomes invalid */
+	private int snapshotSequence;
+
+	/** Geometry of last completed build, for incremental rebuilds. Null if not enabled or not available. */
+	private volatile RetainedGeometry retainedGeometry;
 	private volatile RegionBuildState buildState = new RegionBuildState();
-	private final Consumer<TerrainRenderContext> buildTask = this::rebuildOnWorkerThread;
+	private final PrioritizedTask buildTask = new PrioritizedTask() {
+		@Override
+		public void accept(TerrainRenderContext context) {
+			rebuildOnWorkerThread(context);
+		}
+
+		@Override
+		public int priority() {
+			return buildPriority();
+		}
+	};
 	private final RegionChunkReference chunkReference;
 	private final boolean isBottom;
 	/**
@@ -76,10 +104,22 @@ public class BuiltRenderRegion {
 	private final int[] neighborIndices = new int[6];
 	private DrawableChunk translucentDrawable;
 	private DrawableChunk solidDrawable;
+
+	/** HD lightmaps used by the current drawables. Render thread only. */
+	private LightmapHd.Refs lightmapRefs;
 	private int frustumVersion;
 	private boolean frustumResult;
 	private int lastSeenFrameIndex;
 
+	/** Faces where the visibility search entered this region in the frame it was last seen, as 1 << face index */
+	private int entryFaceFlags;
+
+	/** Faces already followed out of this region in the frame it was last seen */
+	private int exitFaceFlags;
+
+	/** True if region was found visible and its neighbors followed in the frame it was last seen */
+	private boolean isExpanded;
+
 	int squaredCameraDistance;
 	public int occlusionRange;
 	public int occluderVersion;
@@ -240,8 +280,11 @@ public class BuiltRenderRegion {
 
 		cancel();
 		buildData.set(RegionData.EMPTY);
-		renderData.set(RegionData.EMPTY);
+		replaceRenderData(RegionData.EMPTY);
 		needsRebuild = true;
+		dirtyBlocks = null;
+		retainedGeometry = null;
+		++snapshotSequence;
 
 		if (solidDrawable != null) {
 			solidDrawable.clear();
@@ -252,6 +295,8 @@ public class BuiltRenderRegion {
 			translucentDrawable.clear();
 			translucentDrawable = null;
 		}
+
+		replaceLightmapRefs(null);
 	}
 
 	public void delete() {
@@ -266,11 +311,73 @@ public class BuiltRenderRegion {
 		final boolean neededRebuild = needsRebuild;
 		needsRebuild = true;
 		needsImportantRebuild = isImportant | (neededRebuild && needsImportantRebuild);
+		dirtyBlocks = null;
+	}
+
+	/**
+	 * Marks blocks for re-tesselation. The rebuild will keep geometry of all other
+	 * blocks unless a full rebuild is also needed. Coordinates are region-relative and inclusive.
+	 */
+	public void markBlocksForBuild(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, boolean isImportant) {
+		final boolean neededRebuild = needsRebuild;
+		needsImportantRebuild = isImportant | (neededRebuild && needsImportantRebuild);
+
+		if (neededRebuild && dirtyBlocks == null) {
+			// full rebuild already pending
+			return;
+		}
+
+		needsRebuild = true;
+		long[] dirtyBlocks = this.dirtyBlocks;
+
+		if (!neededRebuild || dirtyBlocks == null) {
+			dirtyBlocks = new long[RenderRegionAddressHelper.INTERIOR_CACHE_WORDS];
+			this.dirtyBlocks = dirtyBlocks;
+			dirtyBlockCount = 0;
+		}
+
+		for (int x = minX; x <= maxX; ++x) {
+			for (int y = minY; y <= maxY; ++y) {
+				for (int z = minZ; z <= maxZ; ++z) {
+					final int i = RenderRegionAddressHelper.interiorIndex(x, y, z);
+					final long mask = 1L << (i & 63);
+
+					if ((dirtyBlocks[i >> 6] & mask) == 0) {
+						dirtyBlocks[i >> 6] |= mask;
+						++dirtyBlockCount;
+					}
+				}
+			}
+		}
+
+		// many changes are cheaper to handle with a full rebuild
+		if (dirtyBlockCount > MAX_DIRTY_BLOCKS) {
+			this.dirtyBlocks = null;
+		}
 	}
 
+	private static final int MAX_DIRTY_BLOCKS = 512;
+
 	public void markBuilt() {
 		needsRebuild = false;
 		needsImportantRebuild = false;
+		dirtyBlocks = null;
+	}
+
+	/**
+	 * Copies world state for a rebuild, along with blocks that changed since the prior snapshot.
+	 */
+	private ProtoRenderRegion claimSnapshot() {
+		final ProtoRenderRegion region = ProtoRenderRegion.claim(renderRegionBuilder.world, origin, backfaceCullFlags);
+		final int sequence = ++snapshotSequence;
+
+		if (region != ProtoRenderRegion.EMPTY) {
+			region.sequence = sequence;
+			region.baseSequence = sequence - 1;
+			region.dirtyBlocks = Configurator.incrementalRegionRebuild && needsRebuild ? dirtyBlocks : null;
+		}
+
+		return region;
 	}
 
 	public boolean needsRebuild() {
@@ -282,11 +389,34 @@ public class BuiltRenderRegion {
 	}
 
 	public void scheduleRebuild() {
-		final ProtoRenderRegion region = ProtoRenderRegion.claim(renderRegionBuilder.world, origin, backfaceCullFlags);
+		final ProtoRenderRegion region = claimSnapshot();
+		final ProtoRenderRegion prior = buildState.protoRegion.getAndSet(region);
 
 		// null region is signal to reschedule
-		if(buildState.protoRegion.getAndSet(region) == ProtoRenderRegion.IDLE) {
+		if(prior == ProtoRenderRegion.IDLE) {
 			renderRegionBuilder.executor.execute(buildTask, squaredCameraDistance);
+		} else if (prior.sequence != 0) {
+			// prior snapshot will never be built, so its changes carry forward
+			if (region != ProtoRenderRegion.EMPTY) {
+				mergeSkippedSnapshot(region, prior);
+			}
+
+			prior.release();
+		}
+	}
+
+	private static void mergeSkippedSnapshot(ProtoRenderRegion region, ProtoRenderRegion skipped) {
+		region.baseSequence = skipped.baseSequence;
+
+		final long[] skippedBlocks = skipped.dirtyBlocks;
+		final long[] dirtyBlocks = region.dirtyBlocks;
+
+		if (skippedBlocks == null || dirtyBlocks == null) {
+			region.dirtyBlocks = null;
+		} else {
+			for (int i = 0; i < dirtyBlocks.length; ++i) {
+				dirtyBlocks[i] |= skippedBlocks[i];
+			}
 		}
 	}
 
@@ -311,6 +441,37 @@ public class BuiltRenderRegion {
 		buildState = new RegionBuildState();
 	}
 
+	/**
+	 * False if the region has been cleared since a build started with the given state.
+	 * Results of such builds are for discarded contents, or for a prior origin, and must not be uploaded.
+	 */
+	boolean isCurrentBuildState(RegionBuildState state) {
+		return state == buildState;
+	}
+
+	/**
+	 * Current priority of queued build work. Called from worker threads.
+	 */
+	private int buildPriority() {
+		final ProtoRenderRegion pending = buildState.protoRegion.get();
+
+		// cancelled, or already handled by another task
+		if (pending == ProtoRenderRegion.IDLE || pending == ProtoRenderRegion.INVALID) {
+			return PrioritizedTask.DISCARD;
+		}
+
+		// out of range tasks run first because they exit immediately and release their region
+		if (!shouldBuild()) {
+			return 0;
+		}
+
+		final Vec3d cameraPos = renderRegionBuilder.getCameraPosition();
+		final double dx = origin.getX() + 8 - cameraPos.x;
+		final double dy = origin.getY() + 8 - cameraPos.y;
+		final double dz = origin.getZ() + 8 - cameraPos.z;
+		return (int) (dx * dx + dy * dy + dz * dz);
+	}
+
 	private void rebuildOnWorkerThread(TerrainRenderContext context) {
 		final RegionBuildState runningState = buildState;
 		final ProtoRenderRegion region = runningState.protoRegion.getAndSet(ProtoRenderRegion.IDLE);
@@ -320,8 +481,9 @@ public class BuiltRenderRegion {
 		}
 
 		if (region == ProtoRenderRegion.EMPTY) {
+			retainedGeometry = null;
 			final RegionData chunkData = new RegionData();
-			chunkData.complete(OcclusionRegion.EMPTY_CULL_DATA, 0);
+			chunkData.complete(OcclusionRegion.EMPTY_CULL_DATA, OcclusionRegion.ALL_FACES_CONNECTED, 0);
 
 			final int[] oldData = buildData.getAndSet(chunkData).occlusionData;
 
@@ -332,7 +494,7 @@ public class BuiltRenderRegion {
 				CanvasWorldRenderer.instance().forceVisibilityUpdate();
 			}
 
-			renderData.set(chunkData);
+			replaceRenderData(chunkData);
 			return;
 		}
 
@@ -345,38 +507,30 @@ public class BuiltRenderRegion {
 
 		if(region == ProtoRenderRegion.RESORT_ONLY) {
 			final RegionData regionData = buildData.get();
-			final int[] state = regionData.translucentState;
+			final TranslucentState state = regionData.translucentState;
 
-			if (state != null) {
+			// may have been released if region data was replaced since lookup
+			if (state != null && state.retain()) {
 				final Vec3d cameraPos = renderRegionBuilder.getCameraPosition();
-				final VertexCollectorList collectors = context.collectors;
-				// FIX: won't work with multi-layer materials
-				final MaterialState translucentState = MaterialState.get(MaterialContext.TERRAIN, DrawHandlers.TRANSLUCENT);
-				final VertexCollectorImpl collector = collectors.get(translucentState);
-
-				collector.loadState(state);
-				collector.sortQuads((float)cameraPos.x - origin.getX(), (float)cameraPos.y - origin.getY(), (float)cameraPos.z - origin.getZ());
-				regionData.translucentState = collector.saveState(state);
+				state.sort((float) (cameraPos.x - origin.getX()), (float) (cameraPos.y - origin.getY()), (float) (cameraPos.z - origin.getZ()));
 
 				if(runningState.protoRegion.get() != ProtoRenderRegion.INVALID) {
-					final UploadableChunk upload = collectors.packUploadTranslucent(translucentState);
+					final UploadableChunk upload = new UploadableChunk.Translucent(state);
 
-					if (upload != null) {
-						renderRegionBuilder.scheduleUpload(() -> {
-							if (ChunkRebuildCounters.ENABLED) {
-								ChunkRebuildCounters.startUpload();
-							}
+					renderRegionBuilder.scheduleUpload(this, runningState, upload.byteCount(), () -> {
+						if (ChunkRebuildCounters.ENABLED) {
+							ChunkRebuildCounters.startUpload();
+						}
 
-							translucentDrawable = upload.produceDrawable();
+						translucentDrawable = upload.produceDrawable();
 
-							if (ChunkRebuildCounters.ENABLED) {
-								ChunkRebuildCounters.completeUpload();
-							}
-						});
-					}
+						if (ChunkRebuildCounters.ENABLED) {
+							ChunkRebuildCounters.completeUpload();
+						}
+					}, upload::cancel);
 				}
 
-				collectors.clear();
+				state.release();
 			}
 		} else {
 			context.prepareRegion(region);
@@ -396,29 +550,63 @@ public class BuiltRenderRegion {
 				return;
 			}
 
-			buildTerrain(context, chunkData);
+			buildTerrain(context, chunkData, region);
+			final LightmapHd.Refs buildLightmaps = context.takeLightmapRefs();
+			boolean isUploading = false;
 
 			if(runningState.protoRegion.get() != ProtoRenderRegion.INVALID) {
-				final UploadableChunk solidUpload = collectors.packUploadSolid();
-				final UploadableChunk translucentUpload = collectors.packUploadTranslucent(MaterialState.get(MaterialContext.TERRAIN, DrawHandlers.TRANSLUCENT));
+				final UploadableChunk.Solid solidUpload = collectors.packUploadSolid();
+
+				if (solidUpload != null && Configurator.terrainMegabuffer) {
+					solidUpload.prepareMegabuffer(origin);
+				}
+
+				final UploadableChunk translucentUpload = chunkData.translucentState == null ? null : new UploadableChunk.Translucent(chunkData.translucentState);
 
 				if (solidUpload != null || translucentUpload != null) {
-					renderRegionBuilder.scheduleUpload(() -> {
+					final int byteCount = UploadableChunk.byteCount(solidUpload) + UploadableChunk.byteCount(translucentUpload);
+					isUploading = true;
+
+					renderRegionBuilder.scheduleUpload(this, runningState, byteCount, () -> {
 						if (ChunkRebuildCounters.ENABLED) {
 							ChunkRebuildCounters.startUpload();
 						}
 
-						solidDrawable = solidUpload == null ? null : solidUpload.produceDrawable();
+						replaceSolidDrawable(solidUpload);
+						replaceLightmapRefs(buildLightmaps);
 						translucentDrawable = translucentUpload == null ? null : translucentUpload.produceDrawable();
-						renderData.set(chunkData);
+						replaceRenderData(chunkData);
 
 						if (ChunkRebuildCounters.ENABLED) {
 							ChunkRebuildCounters.completeUpload();
 						}
+					}, () -> {
+						if (solidUpload != null) {
+							solidUpload.cancel();
+						}
+
+						if (translucentUpload != null) {
+							translucentUpload.cancel();
+						}
+
+						if (buildLightmaps != null) {
+							buildLightmaps.release();
+						}
+
+						chunkData.release();
 					});
 				}
 			}
 
+			if (!isUploading) {
+				// never becomes render data, so release here
+				chunkData.release();
+
+				if (buildLightmaps != null) {
+					buildLightmaps.release();
+				}
+			}
+
 			collectors.clear();
 			region.release();
 		}
@@ -426,14 +614,22 @@ public class BuiltRenderRegion {
 
 	private RegionData buildRegionData(TerrainRenderContext context) {
 		final RegionData regionData = new RegionData();
+		final RegionData prior = buildData.get();
+		final OcclusionRegion occlusion = context.region.occlusion;
+		final int[] occlusionData = occlusion.build(prior.occlusionData);
+		regionData.complete(occlusionData, occlusion.faceConnectivity(), context.backfaceCullFlags());
+
+		if (prior.occlusionData != null && prior.faceConnectivity != regionData.faceConnectivity) {
+			// visibility search may now reach regions it could not before, even if nothing is uploaded
+			CanvasWorldRenderer.instance().forceVisibilityUpdate();
+		}
 
-		regionData.complete(context.region.occlusion.build(), context.backfaceCullFlags());
 		handleBlockEntities(regionData, context);
 		buildData.set(regionData);
 		return regionData;
 	}
 
-	private void buildTerrain(TerrainRenderContext context, RegionData regionData) {
+	private void buildTerrain(TerrainRenderContext context, RegionData regionData, ProtoRenderRegion snapshot) {
 		if(ChunkRebuildCounters.ENABLED) {
 			ChunkRebuildCounters.startChunk();
 		}
@@ -449,8 +645,33 @@ public class BuiltRenderRegion {
 		final MatrixStack matrixStack = new MatrixStack();
 		final BlockRenderManager blockRenderManager = MinecraftClient.getInstance().getBlockRenderManager();
 		final OcclusionRegion occlusionRegion = region.occlusion;
+		final boolean retain = Configurator.incrementalRegionRebuild;
+		final RetainedGeometry prior = retainedGeometry;
+		final long[] renderable = retain ? new long[RenderRegionAddressHelper.INTERIOR_CACHE_WORDS] : null;
+		long[] dirty = null;
+
+		final LightmapHd.Refs lightmapRefs = context.lightmapRefs();
+
+		if (retain) {
+			occlusionRegion.copyRenderable(renderable);
+
+			// quads of clean blocks are reused if they were built from the snapshot this one was based on
+			if (snapshot.dirtyBlocks != null && prior != null && prior.sequence == snapshot.baseSequence && prior.backfaceCullFlags == context.backfaceCullFlags()) {
+				dirty = dirtyWithVisibilityChanges(snapshot.dirtyBlocks, prior.renderableBlocks, renderable);
+
+				if (dirty != null && (lightmapRefs == null || lightmapRefs.addAll(prior.lightmaps))) {
+					prior.loadInto(collectors, dirty);
+				} else {
+					dirty = null;
+				}
+			}
+		}
 
 		for (int i = 0; i < RenderRegionAddressHelper.INTERIOR_CACHE_SIZE; i++) {
+			if (dirty != null && (dirty[i >> 6] & (1L << (i & 63))) == 0) {
+				continue;
+			}
+
 			if(occlusionRegion.shouldRender(i)) {
 				final BlockState blockState = region.getLocalBlockState(i);
 				final FluidState fluidState = blockState.getFluidState();
@@ -483,9 +704,15 @@ public class BuiltRenderRegion {
 
 					matrixStack.pop();
 				}
+
+				if (retain) {
+					collectors.tagQuads(i);
+				}
 			}
 		}
 
+		retainedGeometry = retain ? RetainedGeometry.capture(collectors, snapshot.sequence, context.backfaceCullFlags(), lightmapRefs, renderable) : null;
+
 		regionData.endBuffering((float) (cameraPos.x - xOrigin), (float) (cameraPos.y - yOrigin), (float) (cameraPos.z - zOrigin), collectors);
 
 		if(ChunkRebuildCounters.ENABLED) {
@@ -493,6 +720,25 @@ public class BuiltRenderRegion {
 		}
 	}
 
+	/**
+	 * Changed blocks plus blocks that became renderable or hidden, for example when a change opens
+	 * or seals a cavity far from the changed blocks.
+	 *
+	 * @return null if a full rebuild is cheaper
+	 */
+	private static long[] dirtyWithVisibilityChanges(long[] dirtyBlocks, long[] priorRenderable, long[] renderable) {
+		final long[] result = new long[RenderRegionAddressHelper.INTERIOR_CACHE_WORDS];
+		int count = 0;
+
+		for (int i = 0; i < RenderRegionAddressHelper.INTERIOR_CACHE_WORDS; ++i) {
+			final long word = dirtyBlocks[i] | (priorRenderable[i] ^ renderable[i]);
+			result[i] = word;
+			count += Long.bitCount(word);
+		}
+
+		return count > MAX_DIRTY_BLOCKS ? null : result;
+	}
+
 	private void handleBlockEntities(RegionData regionData, TerrainRenderContext context) {
 		final ObjectOpenHashSet<BlockEntity> nonCullBlockEntities = context.nonCullBlockEntities;
 		final ObjectArrayList<BlockEntity> regionDataBlockEntities = regionData.blockEntities;
@@ -535,11 +781,12 @@ public class BuiltRenderRegion {
 	}
 
 	public void rebuildOnMainThread() {
-		final ProtoRenderRegion region = ProtoRenderRegion.claim(renderRegionBuilder.world, origin, backfaceCullFlags);
+		final ProtoRenderRegion region = claimSnapshot();
 
 		if (region == ProtoRenderRegion.EMPTY) {
+			retainedGeometry = null;
 			final RegionData regionData = new RegionData();
-			regionData.complete(OcclusionRegion.EMPTY_CULL_DATA, 0);
+			regionData.complete(OcclusionRegion.EMPTY_CULL_DATA, OcclusionRegion.ALL_FACES_CONNECTED, 0);
 			final int[] oldData = buildData.getAndSet(regionData).occlusionData;
 
 			if (oldData != null && oldData != OcclusionRegion.EMPTY_CULL_DATA) {
@@ -560,27 +807,67 @@ public class BuiltRenderRegion {
 			TerrainOccluder.invalidate(occluderVersion);
 		}
 
-		buildTerrain(context, regionData);
+		buildTerrain(context, regionData, region);
+		replaceLightmapRefs(context.takeLightmapRefs());
 
 		if (ChunkRebuildCounters.ENABLED) {
 			ChunkRebuildCounters.startUpload();
 		}
 
 		final VertexCollectorList collectors = context.collectors;
-		final UploadableChunk solidUpload = collectors.packUploadSolid();
-		final UploadableChunk translucentUpload = collectors.packUploadTranslucent(MaterialState.get(MaterialContext.TERRAIN, DrawHandlers.TRANSLUCENT));
-		solidDrawable = solidUpload == null ? null : solidUpload.produceDrawable();
+		final UploadableChunk.Solid solidUpload = collectors.packUploadSolid();
+
+		if (solidUpload != null && Configurator.terrainMegabuffer) {
+			solidUpload.prepareMegabuffer(origin);
+		}
+
+		final UploadableChunk translucentUpload = regionData.translucentState == null ? null : new UploadableChunk.Translucent(regionData.translucentState);
+		replaceSolidDrawable(solidUpload);
 		translucentDrawable = translucentUpload == null ? null : translucentUpload.produceDrawable();
 
 		if (ChunkRebuildCounters.ENABLED) {
 			ChunkRebuildCounters.completeUpload();
 		}
 
-		renderData.set(regionData);
+		replaceRenderData(regionData);
 		collectors.clear();
 		region.release();
 	}
 
+	/**
+	 * Region data must be replaced via this method so that buffers of the prior data are recycled.
+	 * Region data become render data at most once.
+	 */
+	private void replaceRenderData(RegionData regionData) {
+		final RegionData prior = renderData.getAndSet(regionData);
+
+		if (prior != regionData) {
+			prior.release();
+		}
+	}
+
+	/**
+	 * Releases HD lightmaps of the prior build once its vertex data is no longer drawn.
+	 */
+	private void replaceLightmapRefs(@Nullable LightmapHd.Refs refs) {
+		if (lightmapRefs != null) {
+			lightmapRefs.release();
+		}
+
+		lightmapRefs = refs;
+	}
+
+	/**
+	 * Clears the prior solid drawable before replacing it, so that shared megabuffer space is reclaimed.
+	 */
+	private void replaceSolidDrawable(UploadableChunk.Solid solidUpload) {
+		if (solidDrawable != null) {
+			solidDrawable.clear();
+		}
+
+		solidDrawable = solidUpload == null ? null : solidUpload.produceDrawable();
+	}
+
 	public int[] getNeighborIndices() {
 		return neighborIndices;
 	}
@@ -619,21 +906,77 @@ public class BuiltRenderRegion {
 		++frameIndex;
 	}
 
+	/**
+	 * For regions where the visibility search starts. Region is entered through all faces
+	 * and neighbors will not enqueue it again this frame.
+	 */
+	public void enterAllFaces() {
+		lastSeenFrameIndex = frameIndex;
+		entryFaceFlags = OcclusionRegion.ALL_FACE_FLAGS;
+		exitFaceFlags = 0;
+		isExpanded = false;
+	}
+
+	/**
+	 * Enqueues the region the first time it is seen in a frame. When seen again through a new face
+	 * after its neighbors were followed, enqueues it again so that exits opened by that face are followed.
+	 */
+	private void enter(int faceFlags, SimpleUnorderedArrayList<BuiltRenderRegion> queue) {
+		if (lastSeenFrameIndex != frameIndex) {
+			lastSeenFrameIndex = frameIndex;
+			entryFaceFlags = faceFlags;
+			exitFaceFlags = 0;
+			isExpanded = false;
+			queue.add(this);
+		} else if ((faceFlags & ~entryFaceFlags) != 0) {
+			entryFaceFlags |= faceFlags;
+
+			if (isExpanded) {
+				queue.add(this);
+			}
+		}
+	}
+
+	/**
+	 * True if neighbors of this region were already followed this frame. Such regions
+	 * are in the queue again only because they were entered through a new face.
+	 */
+	public boolean isExpanded() {
+		return isExpanded;
+	}
+
+	/**
+	 * Enqueues neighbors that open space connects to the faces where this region was entered.
+	 */
 	public void enqueueUnvistedNeighbors(SimpleUnorderedArrayList<BuiltRenderRegion> queue) {
-		final int index = frameIndex;
-		lastSeenFrameIndex = index;
+		enqueueNeighbors(OcclusionRegion.connectedFaceFlags(buildData.get().faceConnectivity, entryFaceFlags), queue);
+	}
+
+	/**
+	 * Enqueues all neighbors, for the camera region and when chunk culling is disabled.
+	 */
+	public void enqueueAllNeighbors(SimpleUnorderedArrayList<BuiltRenderRegion> queue) {
+		enqueueNeighbors(OcclusionRegion.ALL_FACE_FLAGS, queue);
+	}
+
+	private void enqueueNeighbors(int faceFlags, SimpleUnorderedArrayList<BuiltRenderRegion> queue) {
+		isExpanded = true;
+		faceFlags &= ~exitFaceFlags;
+		exitFaceFlags |= faceFlags;
+
 		final BuiltRenderRegion regions[] = storage.regions();
+		final int[] neighborIndices = this.neighborIndices;
 
-		for (final int i : neighborIndices) {
-			if (i != -1) {
-				final BuiltRenderRegion r = regions[i];
-				final int ri = r.lastSeenFrameIndex;
+		while (faceFlags != 0) {
+			final int face = Integer.numberOfTrailingZeros(faceFlags);
+			final int i = neighborIndices[face];
 
-				if (ri != index) {
-					r.lastSeenFrameIndex = index;
-					queue.add(r);
-				}
+			if (i != -1) {
+				// face indices pair opposite faces as 2n and 2n + 1
+				regions[i].enter(1 << (face ^ 1), queue);
 			}
+
+			faceFlags &= faceFlags - 1;
 		}
 	}
 }
\ No newline at end of file
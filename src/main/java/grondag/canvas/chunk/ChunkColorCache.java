@@ -101,49 +101,46 @@ public class ChunkColorCache implements BiomeAccess.Storage {
 		}
 	}
 
+	/**
+	 * Colors for all columns of the chunk are computed at once and published
+	 * as immutable arrays. Concurrent build threads may occasionally compute the
+	 * same array twice, but never see a partially written one.
+	 */
 	private class BiomeColorCache {
 		private final ColorResolver colorResolver;
 		private final Function<ChunkColorCache, BiomeColorCache> cacheFunc;
-		private final int[] data = new int [512 + 16];
 
-		private static final int BASE_INDEX = 0;
-		private static final int BASE_CONTROL = BASE_INDEX + 256;
-		private static final int BLENDED_INDEX = BASE_CONTROL + 8;
-		private static final int BLENDED_CONTROL = BLENDED_INDEX + 256;
+		/** Unblended color of each column, indexed by x | (z << 4) */
+		private volatile int[] baseColors;
+
+		/** Blended color of each column, indexed by x | (z << 4) */
+		private volatile int[] blendedColors;
 
 		private BiomeColorCache (ColorResolver colorResolver, Function<ChunkColorCache, BiomeColorCache> cacheFunc) {
 			this.colorResolver = colorResolver;
 			this.cacheFunc = cacheFunc;
 		}
 
-		private int getBaseColor(int x, int y, int z) {
-			final int cx = x >> 4;
-			final int cz = z >> 4;
+		private int[] baseColors(int y) {
+			int[] result = baseColors;
 
-			if(cx == chunkX && cz == chunkZ) {
-				return getLocalBaseColor(x, y, z);
-			} else {
-				return cacheFunc.apply(get(world.getChunk(cx, cz))).getLocalBaseColor(x, y, z);
-			}
-		}
+			if (result == null) {
+				result = new int[256];
+				final int xOrigin = chunkX << 4;
+				final int zOrigin = chunkZ << 4;
 
-		private int getLocalBaseColor(int x, int y, int z) {
-			final int index = (x & 0xF) | ((z & 0xF) << 4);
-			final int controlIndex = BASE_CONTROL + (index >> 5);
-			final int controlMask = 1 << (index & 31);
+				for (int z = 0; z < 16; ++z) {
+					for (int x = 0; x < 16; ++x) {
+						final int worldX = xOrigin + x;
+						final int worldZ = zOrigin + z;
+						result[x | (z << 4)] = colorResolver.getColor(getBiome(worldX, y, worldZ), worldX, worldZ);
+					}
+				}
 
-			if ((data[controlIndex] & controlMask) == 0) {
-				final int result = computeLocalBaseColor(x, y, z);
-				data[controlIndex] |= controlMask;
-				data[index] = result;
-				return result;
-			} else {
-				return data[index];
+				baseColors = result;
 			}
-		}
 
-		private int computeLocalBaseColor(int x, int y, int z) {
-			return colorResolver.getColor(getBiome(x, y, z), x, z);
+			return result;
 		}
 
 		private int getColor(int x, int y, int z) {
@@ -158,45 +155,111 @@ public class ChunkColorCache implements BiomeAccess.Storage {
 		}
 
 		private int getLocalBlendedColor(int x, int y, int z) {
-			final int index = (x & 0xF) | ((z & 0xF) << 4);
-			final int controlIndex = BLENDED_CONTROL + (index >> 5);
-			final int controlMask = 1 << (index & 31);
-
-			if ((data[controlIndex] & controlMask) == 0) {
-				final int result = computeLocalBlendedColor(x, y, z);
-				data[controlIndex] |= controlMask;
-				data[index + BLENDED_INDEX] = result;
-				return result;
-			} else {
-				return data[index + BLENDED_INDEX];
+			int[] result = blendedColors;
+
+			if (result == null) {
+				result = computeBlendedColors(y);
+				blendedColors = result;
 			}
+
+			return result[(x & 0xF) | ((z & 0xF) << 4)];
 		}
 
-		private int computeLocalBlendedColor(int xIn, int yIn, int zIn) {
+		/**
+		 * Box filter of base colors in a (2r + 1)^2 square around each column.
+		 * Base colors of this chunk and its neighbors are copied once into a padded grid,
+		 * then summed with running sums along x and then z.
+		 */
+		private int[] computeBlendedColors(int y) {
 			final int radius = mc.options.biomeBlendRadius;
 
 			if (radius == 0) {
-				return getLocalBaseColor(xIn, yIn, zIn);
-			} else {
-				final int sampleCount = (radius * 2 + 1) * (radius * 2 + 1);
+				return baseColors(y);
+			}
+
+			final int size = 16 + radius * 2;
+			final int diameter = radius * 2 + 1;
+			final int[][] neighbors = new int[9][];
+
+			for (int dz = -1; dz <= 1; ++dz) {
+				for (int dx = -1; dx <= 1; ++dx) {
+					final BiomeColorCache cache = dx == 0 && dz == 0 ? this : cacheFunc.apply(get(world.getChunk(chunkX + dx, chunkZ + dz)));
+					neighbors[(dx + 1) + (dz + 1) * 3] = cache.baseColors(y);
+				}
+			}
+
+			// sums along x for every padded row, three channels
+			final int[] rowR = new int[size * 16];
+			final int[] rowG = new int[size * 16];
+			final int[] rowB = new int[size * 16];
+			final int[] row = new int[size];
+
+			for (int gz = 0; gz < size; ++gz) {
+				final int localZ = gz - radius;
+				final int neighborZ = ((localZ >> 4) + 1) * 3;
+				final int zBits = (localZ & 0xF) << 4;
+
+				for (int gx = 0; gx < size; ++gx) {
+					final int localX = gx - radius;
+					row[gx] = neighbors[neighborZ + (localX >> 4) + 1][zBits | (localX & 0xF)];
+				}
+
 				int r = 0;
 				int g = 0;
 				int b = 0;
 
-				final int xMax = xIn + radius;
-				final int zMax = zIn + radius;
+				for (int gx = 0; gx < diameter; ++gx) {
+					final int color = row[gx];
+					r += (color >> 16) & 255;
+					g += (color >> 8) & 255;
+					b += color & 255;
+				}
+
+				final int rowBase = gz * 16;
+
+				for (int x = 0; x < 16; ++x) {
+					rowR[rowBase + x] = r;
+					rowG[rowBase + x] = g;
+					rowB[rowBase + x] = b;
 
-				for(int x = xIn - radius; x <= xMax; x++) {
-					for(int z = zIn - radius; z <= zMax; z++) {
-						final int color = getBaseColor(x, yIn, z);
-						g += (color >> 8) & 255;
-						r += (color >> 16) & 255;
-						b += color & 255;
+					if (x < 15) {
+						final int out = row[x];
+						final int in = row[x + diameter];
+						r += ((in >> 16) & 255) - ((out >> 16) & 255);
+						g += ((in >> 8) & 255) - ((out >> 8) & 255);
+						b += (in & 255) - (out & 255);
 					}
 				}
+			}
+
+			final int[] result = new int[256];
+			final int sampleCount = diameter * diameter;
+
+			for (int x = 0; x < 16; ++x) {
+				int r = 0;
+				int g = 0;
+				int b = 0;
+
+				for (int gz = 0; gz < diameter; ++gz) {
+					r += rowR[gz * 16 + x];
+					g += rowG[gz * 16 + x];
+					b += rowB[gz * 16 + x];
+				}
+
+				for (int z = 0; z < 16; ++z) {
+					result[x | (z << 4)] = (r / sampleCount & 255) << 16 | (g / sampleCount & 255) << 8 | b / sampleCount & 255;
 
-				return (r / sampleCount & 255) << 16 | (g / sampleCount & 255) << 8 | b / sampleCount & 255;
+					if (z < 15) {
+						final int out = z * 16 + x;
+						final int in = (z + diameter) * 16 + x;
+						r += rowR[in] - rowR[out];
+						g += rowG[in] - rowG[out];
+						b += rowB[in] - rowB[out];
+					}
+				}
 			}
+
+			return result;
 		}
 	}
 
@@ -14,54 +14,170 @@
  ******************************************************************************/
 package grondag.canvas.chunk;
 
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import org.apache.commons.lang3.ObjectUtils;
+import static grondag.canvas.chunk.RenderRegionAddressHelper.INTERIOR_CACHE_SIZE;
 
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.util.collection.PackedIntegerArray;
 import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.IdListPalette;
 import net.minecraft.world.chunk.Palette;
 import net.minecraft.world.chunk.WorldChunk;
 
+import grondag.canvas.mixinterface.PackedIntegerArrayExt;
 import grondag.canvas.mixinterface.PalettedContainerExt;
 
+/**
+ * Captures block states of a chunk section on the main thread for decoding on a worker thread.
+ * Capture copies the raw packed storage and palette - unpacking happens in {@link PaletteCopy#decode(BlockState[])}.
+ */
 public class ChunkPaletteCopier {
 
-	@FunctionalInterface
 	public interface PaletteCopy {
-		BlockState apply(int index);
+		/**
+		 * Writes all block states of the section to the target array, in interior cache order.
+		 * See {@link RenderRegionAddressHelper#interiorIndex(int, int, int)}.
+		 */
+		void decode(BlockState[] target);
 
 		default void release() {  }
 	}
 
 	private static final BlockState AIR = Blocks.AIR.getDefaultState();
 
+	/** Maps section storage order (y, z, x) to interior cache order (z, y, x) */
+	private static final int[] SECTION_TO_INTERIOR = new int[INTERIOR_CACHE_SIZE];
+
+	static {
+		for (int i = 0; i < INTERIOR_CACHE_SIZE; ++i) {
+			SECTION_TO_INTERIOR[i] = RenderRegionAddressHelper.interiorIndex(i & 0xF, (i >> 8) & 0xF, (i >> 4) & 0xF);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static final ArrayBlockingQueue<PaletteCopyImpl>[] POOLS = new ArrayBlockingQueue[33];
+
+	static {
+		for (int i = 0; i < POOLS.length; ++i) {
+			POOLS[i] = new ArrayBlockingQueue<>(256);
+		}
+	}
+
+	/**
+	 * Global palette as an array, so that decoding is the same for all palette types. Built and replaced
+	 * on the main thread. Worker threads decode with arrays handed to them in captured copies, so an array
+	 * is never changed once built.
+	 */
+	private static BlockState[] globalPalette = new BlockState[0];
+
+	/** Size of the block state id list the global palette was built from */
+	private static int globalPaletteStateCount = -1;
+
+	/**
+	 * Forces the global palette to be built again. Block state ids change when registry sync
+	 * remaps them after joining a server, so call on reload.
+	 */
+	public static void clearGlobalPalette() {
+		globalPalette = new BlockState[0];
+		globalPaletteStateCount = -1;
+	}
+
+	private static BlockState[] globalPalette(int bits) {
+		BlockState[] result = globalPalette;
+		final int size = 1 << bits;
+		final int stateCount = Block.STATE_IDS.size();
+
+		// remapped ids usually also change the number of states
+		if (result.length < size || stateCount != globalPaletteStateCount) {
+			final int length = Math.max(size, result.length);
+			result = new BlockState[length];
+
+			for (int i = 0; i < length; ++i) {
+				final BlockState state = Block.STATE_IDS.get(i);
+				result[i] = state == null ? AIR : state;
+			}
+
+			globalPalette = result;
+			globalPaletteStateCount = stateCount;
+		}
+
+		return result;
+	}
+
 	private static class PaletteCopyImpl implements PaletteCopy {
-		private final IntArrayList data;
-		private final Palette<BlockState> palette;
-		public final BlockState emptyVal;
+		private final int bits;
+		private final long[] storage;
+		/** Null for widths that only occur with the global palette */
+		private final BlockState[] localPalette;
+		private BlockState[] palette;
 
-		private PaletteCopyImpl(Palette<BlockState> palette, PackedIntegerArray data, BlockState emptyVal) {
-			assert data != null;
-			assert palette != null;
-			this.palette = palette;
-			this.data = PackedIntegerStorageHelper.claim(data);
-			this.emptyVal = emptyVal;
+		private PaletteCopyImpl(int bits, int storageLength) {
+			this.bits = bits;
+			storage = new long[storageLength];
+			localPalette = bits <= 8 ? new BlockState[1 << bits] : null;
+		}
+
+		private PaletteCopyImpl prepare(Palette<BlockState> palette, long[] data, BlockState emptyVal) {
+			assert data.length == storage.length;
+			System.arraycopy(data, 0, storage, 0, data.length);
+
+			if (palette instanceof IdListPalette) {
+				this.palette = globalPalette(bits);
+			} else {
+				assert bits <= 8;
+				final BlockState[] localPalette = this.localPalette;
+				final int limit = localPalette.length;
+
+				for (int i = 0; i < limit; ++i) {
+					final BlockState state = palette.getByIndex(i);
+					localPalette[i] = state == null ? emptyVal : state;
+				}
+
+				this.palette = localPalette;
+			}
+
+			return this;
 		}
 
 		@Override
-		public BlockState apply(int index) {
-			return ObjectUtils.defaultIfNull(palette.getByIndex(data.getInt(index)), emptyVal);
+		public void decode(BlockState[] target) {
+			switch (bits) {
+			case 4:
+				decode4(storage, palette, target);
+				break;
+			case 5:
+				decode5(storage, palette, target);
+				break;
+			case 6:
+				decode6(storage, palette, target);
+				break;
+			case 7:
+				decode7(storage, palette, target);
+				break;
+			case 8:
+				decode8(storage, palette, target);
+				break;
+			default:
+				decodeGeneric(storage, palette, target, bits);
+			}
 		}
 
 		@Override
 		public void release() {
-			PackedIntegerStorageHelper.release(data);
+			palette = null;
+			POOLS[bits].offer(this);
 		}
 	}
 
-	public static final PaletteCopy AIR_COPY = i -> AIR;
+	private static PaletteCopy uniform(BlockState state) {
+		return target -> Arrays.fill(target, 0, INTERIOR_CACHE_SIZE, state);
+	}
+
+	public static final PaletteCopy AIR_COPY = uniform(AIR);
 
 	public static PaletteCopy captureCopy(WorldChunk chunk, int sectionIndex) {
 		if(chunk == null || sectionIndex < 0) {
@@ -81,7 +197,7 @@ public class ChunkPaletteCopier {
 
 		if(sec.isEmpty()) {
 			final BlockState filler = sec.getBlockState(0, 0, 0);
-			return filler == AIR ? AIR_COPY : i -> filler;
+			return filler == AIR ? AIR_COPY : uniform(filler);
 		}
 
 		return ((PalettedContainerExt)sec.getContainer()).canvas_paletteCopy();
@@ -92,9 +208,146 @@ public class ChunkPaletteCopier {
 	 */
 	public static PaletteCopy captureCopy(Palette<BlockState> palette, PackedIntegerArray data, BlockState emptyVal) {
 		if(palette == null || data == null) {
-			return emptyVal == null ? AIR_COPY : i -> emptyVal;
+			return emptyVal == null ? AIR_COPY : uniform(emptyVal);
+		}
+
+		final PackedIntegerArrayExt ext = (PackedIntegerArrayExt) data;
+		final int bits = ext.canvas_elementBits();
+		final long[] storage = ext.canvas_storage();
+		PaletteCopyImpl result = POOLS[bits].poll();
+
+		if (result == null) {
+			result = new PaletteCopyImpl(bits, storage.length);
+		}
+
+		return result.prepare(palette, storage, emptyVal == null ? AIR : emptyVal);
+	}
+
+	// Decoders are unrolled for the widths used by local palettes.
+	// Elements never span two words, so each word holds 64 / bits elements.
+
+	private static void decode4(long[] storage, BlockState[] palette, BlockState[] target) {
+		int s = 0;
+
+		for (int w = 0; w < 256; ++w) {
+			final long word = storage[w];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 4) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 8) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 12) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 16) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 20) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 24) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 28) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 32) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 36) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 40) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 44) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 48) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 52) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 56) & 0xF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 60) & 0xF];
+		}
+	}
+
+	private static void decode5(long[] storage, BlockState[] palette, BlockState[] target) {
+		int s = 0;
+
+		for (int w = 0; w < 341; ++w) {
+			final long word = storage[w];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 5) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 10) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 15) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 20) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 25) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 30) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 35) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 40) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 45) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 50) & 0x1F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 55) & 0x1F];
+		}
+
+		decodeTail(storage[341], palette, target, s, 5);
+	}
+
+	private static void decode6(long[] storage, BlockState[] palette, BlockState[] target) {
+		int s = 0;
+
+		for (int w = 0; w < 409; ++w) {
+			final long word = storage[w];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 6) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 12) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 18) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 24) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 30) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 36) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 42) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 48) & 0x3F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 54) & 0x3F];
+		}
+
+		decodeTail(storage[409], palette, target, s, 6);
+	}
+
+	private static void decode7(long[] storage, BlockState[] palette, BlockState[] target) {
+		int s = 0;
+
+		for (int w = 0; w < 455; ++w) {
+			final long word = storage[w];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 7) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 14) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 21) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 28) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 35) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 42) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 49) & 0x7F];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 56) & 0x7F];
 		}
 
-		return new PaletteCopyImpl(palette, data, emptyVal);
+		decodeTail(storage[455], palette, target, s, 7);
+	}
+
+	private static void decode8(long[] storage, BlockState[] palette, BlockState[] target) {
+		int s = 0;
+
+		for (int w = 0; w < 512; ++w) {
+			final long word = storage[w];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 8) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 16) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 24) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 32) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 40) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 48) & 0xFF];
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) (word >>> 56) & 0xFF];
+		}
+	}
+
+	private static void decodeTail(long word, BlockState[] palette, BlockState[] target, int s, int bits) {
+		final int mask = (1 << bits) - 1;
+
+		while (s < INTERIOR_CACHE_SIZE) {
+			target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & mask];
+			word >>>= bits;
+		}
+	}
+
+	private static void decodeGeneric(long[] storage, BlockState[] palette, BlockState[] target, int bits) {
+		final int elementsPerWord = 64 / bits;
+		final int mask = (1 << bits) - 1;
+		int s = 0;
+
+		for (int w = 0; s < INTERIOR_CACHE_SIZE; ++w) {
+			long word = storage[w];
+
+			for (int j = 0; j < elementsPerWord && s < INTERIOR_CACHE_SIZE; ++j) {
+				target[SECTION_TO_INTERIOR[s++]] = palette[(int) word & mask];
+				word >>>= bits;
+			}
+		}
 	}
 }
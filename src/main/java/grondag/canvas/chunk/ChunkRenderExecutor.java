@@ -1,7 +1,10 @@
 package grondag.canvas.chunk;
 
-import java.util.Comparator;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.ImmutableList;
 import io.netty.util.internal.shaded.org.jctools.queues.MessagePassingQueue.Consumer;
@@ -12,21 +15,46 @@ import grondag.canvas.apiimpl.rendercontext.TerrainRenderContext;
 import grondag.fermion.sc.Sc;
 
 /**
- * Simple executor service with ability to submit privileged tasks
+ * Executor service with ability to submit privileged tasks
  * that run before non-privileged tasks that have not yet started, plus
  * distance-sorted execution.  Privilege is indicated by distance == -1
  * and privileged tasks run in order of submission.
+ *
+ * Non-privileged tasks are spread over per-worker queues so that workers
+ * don't contend on a single lock. Workers with an empty queue steal from the others.
+ * Tasks implementing {@link PrioritizedTask} are re-sorted against the current camera
+ * position after the camera moves and are dropped without running when no longer needed.
  */
 public class ChunkRenderExecutor {
-	private final PriorityBlockingQueue<ChunkBuildTask> queue = new  PriorityBlockingQueue<>(1024, new Comparator<ChunkBuildTask>() {
-		@Override
-		public int compare(ChunkBuildTask o1, ChunkBuildTask o2) {
-			return Integer.compare(o1.priority, o2.priority);
-		}
-	});
+	/**
+	 * Task that can report its current priority, so that queued work stays ordered by
+	 * distance as the camera moves.
+	 */
+	public interface PrioritizedTask extends Consumer<TerrainRenderContext> {
+		/** Priority value for tasks that no longer need to run. Such tasks are dropped without running. */
+		int DISCARD = Integer.MIN_VALUE;
+
+		/**
+		 * Called by worker threads while the task is queued.
+		 * @return Current priority, normally squared distance from camera, or {@link #DISCARD}
+		 */
+		int priority();
+	}
+
+	private final ConcurrentLinkedQueue<ChunkBuildTask> privilegedQueue = new ConcurrentLinkedQueue<>();
+
+	/** One permit for each queued task */
+	private final Semaphore permits = new Semaphore(0);
+
+	private final AtomicInteger nextQueue = new AtomicInteger();
+
+	/** Incremented when camera has moved enough that queued tasks should be re-sorted */
+	private volatile int priorityVersion;
 
 	private final int poolSize = threadCount();
 
+	private final WorkerQueue[] queues = new WorkerQueue[poolSize];
+
 	/**
 	 * Keep references to worker threads for debugging.
 	 */
@@ -36,10 +64,14 @@ public class ChunkRenderExecutor {
 	public ChunkRenderExecutor() {
 		final ImmutableList.Builder<Thread> builder = ImmutableList.builder();
 
+		for(int i = 0; i < poolSize; i++) {
+			queues[i] = new WorkerQueue();
+		}
+
 		for(int i = 0; i < poolSize; i++)
 		{
 			final Thread thread = new Thread(
-					new Worker(),
+					new Worker(i),
 					"Canvas Render Thread - " + i);
 			thread.setDaemon(true);
 			builder.add(thread);
@@ -60,39 +92,145 @@ public class ChunkRenderExecutor {
 	}
 
 	public void execute(Consumer<TerrainRenderContext> task, int squaredDistance) {
-		queue.add(new ChunkBuildTask(task, squaredDistance));
+		final ChunkBuildTask t = new ChunkBuildTask(task, squaredDistance);
+
+		if (squaredDistance == -1) {
+			privilegedQueue.offer(t);
+		} else {
+			queues[(nextQueue.getAndIncrement() & Integer.MAX_VALUE) % poolSize].offer(t);
+		}
+
+		permits.release();
 	}
 
-	private class ChunkBuildTask {
+	/**
+	 * Signals that queued tasks should be re-sorted. Each worker re-sorts its own queue
+	 * before taking the next task.
+	 */
+	public void reprioritize() {
+		++priorityVersion;
+	}
+
+	private static class ChunkBuildTask implements Comparable<ChunkBuildTask> {
 		final Consumer<TerrainRenderContext> task;
 
 		/** Normally squared distance. Use -1 for privileged execution */
-		final int priority;
+		int priority;
 
 		ChunkBuildTask(Consumer<TerrainRenderContext> task, int priority) {
 			this.task = task;
 			this.priority = priority;
 		}
+
+		@Override
+		public int compareTo(ChunkBuildTask o) {
+			return Integer.compare(priority, o.priority);
+		}
+	}
+
+	private class WorkerQueue {
+		private PriorityQueue<ChunkBuildTask> tasks = new PriorityQueue<>(1024);
+		private int priorityVersion;
+
+		synchronized void offer(ChunkBuildTask task) {
+			tasks.offer(task);
+		}
+
+		synchronized ChunkBuildTask poll() {
+			return tasks.poll();
+		}
+
+		/**
+		 * Updates priority of prioritized tasks if camera has moved since last update.
+		 * Discarded tasks sort first so they are removed quickly.
+		 */
+		synchronized ChunkBuildTask pollPrioritized() {
+			final int version = ChunkRenderExecutor.this.priorityVersion;
+
+			if (priorityVersion != version && !tasks.isEmpty()) {
+				priorityVersion = version;
+				final ArrayList<ChunkBuildTask> list = new ArrayList<>(tasks);
+
+				for (final ChunkBuildTask t : list) {
+					if (t.task instanceof PrioritizedTask) {
+						t.priority = ((PrioritizedTask) t.task).priority();
+					}
+				}
+
+				tasks = new PriorityQueue<>(list);
+			}
+
+			return tasks.poll();
+		}
+
+		synchronized void clear() {
+			tasks.clear();
+		}
+
+		synchronized boolean isEmpty() {
+			return tasks.isEmpty();
+		}
 	}
 
 	public void clear() {
-		queue.clear();
+		privilegedQueue.clear();
+
+		for (final WorkerQueue q : queues) {
+			q.clear();
+		}
+
+		permits.drainPermits();
 	}
 
 	public boolean isEmpty() {
-		return queue.isEmpty();
+		if (!privilegedQueue.isEmpty()) {
+			return false;
+		}
+
+		for (final WorkerQueue q : queues) {
+			if (!q.isEmpty()) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	private class Worker implements Runnable {
 		private final TerrainRenderContext context = new TerrainRenderContext();
+		private final int index;
+
+		Worker(int index) {
+			this.index = index;
+		}
+
+		private ChunkBuildTask nextTask() {
+			ChunkBuildTask result = privilegedQueue.poll();
+
+			if (result == null) {
+				result = queues[index].pollPrioritized();
+			}
+
+			if (result == null) {
+				final int limit = poolSize;
+
+				for (int i = 1; i < limit && result == null; ++i) {
+					result = queues[(index + i) % limit].poll();
+				}
+			}
+
+			return result;
+		}
 
 		@Override
 		public void run()  {
 			while(true) {
 				try {
-					final ChunkBuildTask t = queue.take();
+					permits.acquire();
+					final ChunkBuildTask t = nextTask();
 
-					if(t != null) {
+					// null if queues were cleared after permit was taken
+					if(t != null && !(t.task instanceof PrioritizedTask && ((PrioritizedTask) t.task).priority() == PrioritizedTask.DISCARD)) {
 						t.task.accept(context);
 					}
 				} catch (final InterruptedException e)  {
@@ -82,6 +82,13 @@ public class DrawableChunk {
 		return result;
 	}
 
+	/**
+	 * True if vertex data is held in shared megabuffers, with positions relative to the megabuffer cell.
+	 */
+	public boolean isMegabuffer() {
+		return !delegates.isEmpty() && delegates.get(0).megabuffer() != null;
+	}
+
 	public boolean isEmpty() {
 		return isCleared && delegates != null && !delegates.isEmpty();
 	}
@@ -53,6 +53,9 @@ public class FastRenderRegion extends AbstractRenderRegion implements RenderAtta
 	private final float[] aoCache = new float[TOTAL_CACHE_SIZE];
 	private final int[] lightCache = new int[TOTAL_CACHE_SIZE];
 
+	/** Light levels captured with the region, sky light in high nibble and block light in low nibble */
+	private final byte[] lightLevels = new byte[TOTAL_CACHE_SIZE];
+
 
 	public final TerrainRenderContext terrainContext;
 
@@ -78,24 +81,35 @@ public class FastRenderRegion extends AbstractRenderRegion implements RenderAtta
 		chunkBaseZ = protoRegion.chunkBaseZ;
 
 		final PaletteCopy pc  = protoRegion.takePaletteCopy();
-
-		for (int x = 0; x < 16; x++) {
-			for (int y = 0; y < 16; y++) {
-				for (int z = 0; z < 16; z++) {
-					states[interiorIndex(x, y, z)] = pc.apply(x | (y << 8) | (z << 4));
-				}
-			}
-		}
-
+		pc.decode(states);
 		pc.release();
 
 		System.arraycopy(protoRegion.states, 0, states, INTERIOR_CACHE_SIZE, EXTERIOR_CACHE_SIZE);
 
+		copyLight(protoRegion);
 		copyBeData(protoRegion);
 
 		occlusion.prepare();
 	}
 
+	private void copyLight(ProtoRenderRegion protoRegion) {
+		final byte[] blockLight = protoRegion.blockLight;
+		final byte[] skyLight = protoRegion.skyLight;
+		final byte[] lightLevels = this.lightLevels;
+
+		for (int n = 0; n < 2048; ++n) {
+			// each byte holds two nibbles with adjacent x values - x is even for the low nibble
+			final int m = n << 1;
+			final int i = interiorIndex(m & 15, m >> 8, (m >> 4) & 15);
+			final int block = blockLight[n];
+			final int sky = skyLight[n];
+			lightLevels[i] = (byte) (((sky & 0xF) << 4) | (block & 0xF));
+			lightLevels[i + 1] = (byte) ((sky & 0xF0) | ((block >> 4) & 0xF));
+		}
+
+		System.arraycopy(protoRegion.exteriorLight, 0, lightLevels, INTERIOR_CACHE_SIZE, EXTERIOR_CACHE_SIZE);
+	}
+
 	private void copyBeData(ProtoRenderRegion protoRegion) {
 		final ShortArrayList blockEntityPos = protoRegion.blockEntityPos;
 
@@ -161,7 +175,14 @@ public class FastRenderRegion extends AbstractRenderRegion implements RenderAtta
 
 	@Override
 	public int getLightLevel(LightType type, BlockPos pos) {
-		return world.getLightLevel(type, pos);
+		final int i = blockIndex(pos.getX(), pos.getY(), pos.getZ());
+
+		if (i == -1) {
+			return world.getLightLevel(type, pos);
+		}
+
+		final int packed = lightLevels[i];
+		return type == LightType.SKY ? (packed >> 4) & 0xF : packed & 0xF;
 	}
 
 	@Override
@@ -182,7 +203,7 @@ public class FastRenderRegion extends AbstractRenderRegion implements RenderAtta
 			final int x = (packedXyz5 & 31) - 1 + originX;
 			final int y = ((packedXyz5 >> 5) & 31) - 1 + originY;
 			final int z = (packedXyz5 >> 10) - 1 + originZ;
-			result = WorldRenderer.getLightmapCoordinates(world, state, searchPos.set(x, y, z));
+			result = WorldRenderer.getLightmapCoordinates(this, state, searchPos.set(x, y, z));
 			lightCache[cacheIndex] = result;
 		}
 
@@ -197,7 +218,7 @@ public class FastRenderRegion extends AbstractRenderRegion implements RenderAtta
 	}
 
 	public int directBrightness(BlockPos pos) {
-		return WorldRenderer.getLightmapCoordinates(world, getBlockState(pos), pos);
+		return WorldRenderer.getLightmapCoordinates(this, getBlockState(pos), pos);
 	}
 
 	// TODO: do anything with this?
@@ -17,6 +17,7 @@ package grondag.canvas.chunk;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.AIR;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.EXTERIOR_CACHE_SIZE;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.INTERIOR_CACHE_SIZE;
+import static grondag.canvas.chunk.RenderRegionAddressHelper.cacheIndexToXyz5;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.interiorIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localCornerIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localXEdgeIndex;
@@ -26,6 +27,7 @@ import static grondag.canvas.chunk.RenderRegionAddressHelper.localYfaceIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localZEdgeIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localZfaceIndex;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -36,8 +38,13 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.LightType;
+import net.minecraft.world.chunk.ChunkNibbleArray;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.ChunkLightingView;
+import net.minecraft.world.chunk.light.LightingProvider;
 
 import net.fabricmc.fabric.api.rendering.data.v1.RenderAttachmentBlockEntity;
 
@@ -57,8 +64,35 @@ public class ProtoRenderRegion extends AbstractRenderRegion {
 	 */
 	public int backfaceCullFlags;
 
+	/**
+	 * Interior blocks changed since the snapshot given by {@link #baseSequence}, one bit per block index.
+	 * Null if all blocks must be tesselated.
+	 */
+	public long[] dirtyBlocks;
+
+	/** Identifies this snapshot among snapshots of the same region */
+	public int sequence;
+
+	/** Snapshot whose geometry can be updated with {@link #dirtyBlocks} */
+	public int baseSequence;
+
 	PaletteCopy mainSectionCopy;
 
+	/**
+	 * Block and sky light of the main section in nibble array layout:
+	 * index is y << 8 | z << 4 | x with two values per byte, low nibble first.
+	 */
+	final byte[] blockLight = new byte[2048];
+	final byte[] skyLight = new byte[2048];
+
+	/** Light of exterior blocks by exterior cache index, sky light in high nibble and block light in low nibble */
+	final byte[] exteriorLight = new byte[EXTERIOR_CACHE_SIZE];
+
+	/** Light arrays of the 27 sections around and including the main section, only used during capture */
+	private final ChunkNibbleArray[] blockSections = new ChunkNibbleArray[27];
+	private final ChunkNibbleArray[] skySections = new ChunkNibbleArray[27];
+	private final BlockPos.Mutable lightPos = new BlockPos.Mutable();
+
 	private ProtoRenderRegion prepare(ClientWorld world, BlockPos origin, int backfaceCullFlags) {
 		if(ChunkRebuildCounters.ENABLED) {
 			ChunkRebuildCounters.startCopy();
@@ -107,6 +141,7 @@ public class ProtoRenderRegion extends AbstractRenderRegion {
 			captureCorners();
 			captureEdges();
 			captureFaces();
+			captureLight();
 
 			result = this;
 		}
@@ -220,6 +255,78 @@ public class ProtoRenderRegion extends AbstractRenderRegion {
 		return section == null ? AIR : section.getBlockState(x == 0 ? 15 : 0, y == 0 ? 15 : 0, z == 0 ? 15 : 0);
 	}
 
+	/**
+	 * Copies light levels so that builds don't query the lighting provider from worker threads,
+	 * where it can be mid-update. Sections without a sky light array take their light from the
+	 * section above, which the lighting provider resolves for us.
+	 */
+	private void captureLight() {
+		final LightingProvider lighting = world.getLightingProvider();
+		final ChunkLightingView blockView = lighting.get(LightType.BLOCK);
+		final ChunkLightingView skyView = lighting.get(LightType.SKY);
+		final ChunkNibbleArray[] blockSections = this.blockSections;
+		final ChunkNibbleArray[] skySections = this.skySections;
+
+		for (int i = 0; i < 27; ++i) {
+			final ChunkSectionPos sectionPos = ChunkSectionPos.from(chunkBaseX + i % 3, chunkBaseY + (i / 3) % 3, chunkBaseZ + i / 9);
+			blockSections[i] = blockView.getLightSection(sectionPos);
+			skySections[i] = skyView.getLightSection(sectionPos);
+		}
+
+		final ChunkNibbleArray mainBlock = blockSections[MAIN_SECTION];
+
+		if (mainBlock == null) {
+			Arrays.fill(blockLight, (byte) 0);
+		} else {
+			System.arraycopy(mainBlock.asByteArray(), 0, blockLight, 0, 2048);
+		}
+
+		final ChunkNibbleArray mainSky = skySections[MAIN_SECTION];
+
+		if (mainSky == null) {
+			for (int x = 0; x < 16; ++x) {
+				for (int z = 0; z < 16; ++z) {
+					final int light = skyView.getLightLevel(lightPos.set(originX + x, originY, originZ + z));
+
+					for (int y = 0; y < 16; ++y) {
+						final int index = (y << 8) | (z << 4) | x;
+						final int shift = (index & 1) << 2;
+						final int b = index >> 1;
+						skyLight[b] = (byte) ((skyLight[b] & ~(0xF << shift)) | (light << shift));
+					}
+				}
+			}
+		} else {
+			System.arraycopy(mainSky.asByteArray(), 0, skyLight, 0, 2048);
+		}
+
+		for (int i = 0; i < EXTERIOR_CACHE_SIZE; ++i) {
+			final int packedXyz5 = cacheIndexToXyz5(i + INTERIOR_CACHE_SIZE);
+			final int x = (packedXyz5 & 31) - 1;
+			final int y = ((packedXyz5 >> 5) & 31) - 1;
+			final int z = (packedXyz5 >> 10) - 1;
+			final int section = sectionIndex(x) + sectionIndex(y) * 3 + sectionIndex(z) * 9;
+
+			final ChunkNibbleArray blockArray = blockSections[section];
+			final int block = blockArray == null ? 0 : blockArray.get(x & 15, y & 15, z & 15);
+
+			final ChunkNibbleArray skyArray = skySections[section];
+			final int sky = skyArray == null ? skyView.getLightLevel(lightPos.set(originX + x, originY + y, originZ + z)) : skyArray.get(x & 15, y & 15, z & 15);
+
+			exteriorLight[i] = (byte) ((sky << 4) | block);
+		}
+
+		Arrays.fill(blockSections, null);
+		Arrays.fill(skySections, null);
+	}
+
+	private static final int MAIN_SECTION = 1 + 3 + 9;
+
+	/** Section offset 0-2 for a relative coordinate -1 to 16 */
+	private static int sectionIndex(int relativeCoordinate) {
+		return (relativeCoordinate >> 4) + 1;
+	}
+
 	public void release() {
 		if (mainSectionCopy != null) {
 			mainSectionCopy.release();
@@ -234,6 +341,7 @@ public class ProtoRenderRegion extends AbstractRenderRegion {
 
 		blockEntities.clear();
 		renderData.clear();
+		dirtyBlocks = null;
 
 		release(this);
 	}
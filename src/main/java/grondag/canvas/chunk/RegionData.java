@@ -11,7 +11,7 @@ import net.minecraft.block.entity.BlockEntity;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
 
-import grondag.canvas.buffer.packing.VertexCollectorImpl;
+import grondag.canvas.buffer.packing.TranslucentState;
 import grondag.canvas.buffer.packing.VertexCollectorList;
 import grondag.canvas.draw.DrawHandlers;
 import grondag.canvas.material.MaterialContext;
@@ -23,20 +23,20 @@ public class RegionData {
 
 	final ObjectArrayList<BlockEntity> blockEntities = new ObjectArrayList<>();
 	int[] occlusionData = null;
+	long faceConnectivity;
 	int backfaceCullFlags;
 
-	@Nullable int[] translucentState;
+	@Nullable TranslucentState translucentState;
 
 	public List<BlockEntity> getBlockEntities() {
 		return blockEntities;
 	}
 
 	public void endBuffering(float x, float y, float z, VertexCollectorList buffers) {
-		final VertexCollectorImpl buffer = buffers.getIfExists(MaterialState.get(MaterialContext.TERRAIN, DrawHandlers.TRANSLUCENT));
+		translucentState = TranslucentState.capture(buffers.getIfExists(MaterialState.get(MaterialContext.TERRAIN, DrawHandlers.TRANSLUCENT)));
 
-		if (buffer != null) {
-			buffer.sortQuads(x, y, z);
-			translucentState = buffer.saveState(translucentState);
+		if (translucentState != null) {
+			translucentState.sort(x, y, z);
 		}
 	}
 
@@ -44,12 +44,29 @@ public class RegionData {
 		return occlusionData;
 	}
 
+	/**
+	 * See {@link grondag.canvas.chunk.occlusion.region.OcclusionRegion#connectedFaceFlags(long, int)}
+	 */
+	public long faceConnectivity() {
+		return faceConnectivity;
+	}
+
 	public int backfaceCullFlags() {
 		return backfaceCullFlags;
 	}
 
-	public void complete(int[] occlusionData, int backfaceCullFlags) {
+	public void complete(int[] occlusionData, long faceConnectivity, int backfaceCullFlags) {
 		this.occlusionData = occlusionData;
+		this.faceConnectivity = faceConnectivity;
 		this.backfaceCullFlags = backfaceCullFlags;
 	}
+
+	/**
+	 * Called once, when replaced as render data. Returns translucent buffers for reuse.
+	 */
+	void release() {
+		if (translucentState != null) {
+			translucentState.release();
+		}
+	}
 }
\ No newline at end of file
@@ -1,28 +1,44 @@
 package grondag.canvas.chunk;
 
+import java.util.Comparator;
 import java.util.Queue;
 
 import com.google.common.collect.Queues;
 import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.Vec3d;
 
+import grondag.canvas.Configurator;
 import grondag.canvas.apiimpl.rendercontext.TerrainRenderContext;
 
 public class RenderRegionBuilder {
-	private final Queue<Runnable> uploadQueue = Queues.newConcurrentLinkedQueue();
+	private final Queue<UploadTask> uploadQueue = Queues.newConcurrentLinkedQueue();
+
+	/**
+	 * Uploads waiting to run on the render thread, sorted farthest first so that the nearest
+	 * can be removed from the end. Render thread only.
+	 */
+	private final ObjectArrayList<UploadTask> pendingUploads = new ObjectArrayList<>();
+	private int nextUploadSequence;
 	public final ChunkRenderExecutor executor = new ChunkRenderExecutor();
 	public final WorldRenderer worldRenderer;
 	ClientWorld world;
-	private Vec3d cameraPosition;
+	private volatile Vec3d cameraPosition;
+	private Vec3d lastPrioritizedPosition;
+
+	/** Queued builds are re-sorted after the camera moves this far, squared */
+	private static final double REPRIORITIZE_SQUARED_DISTANCE = 8 * 8;
 
 	// for use by render thread rebuilds
 	final TerrainRenderContext mainThreadContext = new TerrainRenderContext();
 
 	public RenderRegionBuilder(ClientWorld world, WorldRenderer worldRenderer, boolean is64Bit) {
 		cameraPosition = Vec3d.ZERO;
+		lastPrioritizedPosition = Vec3d.ZERO;
 		this.world = world;
 		this.worldRenderer = worldRenderer;
 
@@ -44,42 +60,152 @@ public class RenderRegionBuilder {
 
 	public void setCameraPosition(Vec3d vec3d) {
 		cameraPosition = vec3d;
+
+		if (vec3d.squaredDistanceTo(lastPrioritizedPosition) > REPRIORITIZE_SQUARED_DISTANCE) {
+			lastPrioritizedPosition = vec3d;
+			executor.reprioritize();
+		}
 	}
 
 	public Vec3d getCameraPosition() {
 		return cameraPosition;
 	}
 
-	public boolean upload() {
+	/**
+	 * Runs scheduled uploads, nearest regions first, until the deadline or the per-frame
+	 * byte budget is reached. At least one upload runs each frame so that loading always progresses.
+	 * Remaining uploads are kept for the next frame.
+	 *
+	 * @param endNanos  Deadline, but will be extended to allow at least {@link Configurator#minChunkBudgetNanos}
+	 * @return true if any upload ran
+	 */
+	public boolean upload(long endNanos) {
 		assert RenderSystem.isOnRenderThread();
 
-		Runnable task = uploadQueue.poll();
-
-		final boolean didRun = task != null;
+		final ObjectArrayList<UploadTask> pendingUploads = this.pendingUploads;
+		UploadTask task = uploadQueue.poll();
 
 		while (task != null) {
-			task.run();
+			// sequence keeps uploads for the same region in order because they always have equal distance
+			task.sequence = nextUploadSequence++;
+			pendingUploads.add(task);
 			task = uploadQueue.poll();
 		}
 
-		return didRun;
+		if (pendingUploads.isEmpty()) {
+			return false;
+		}
+
+		final long maxBytes = Configurator.maxUploadKilobytes * 1024L;
+
+		if (maxBytes <= 0) {
+			for (final UploadTask t : pendingUploads) {
+				t.run();
+			}
+
+			pendingUploads.clear();
+			return true;
+		}
+
+		// distance can change between frames, so always re-sort
+		for (final UploadTask t : pendingUploads) {
+			t.squaredDistance = t.region.squaredCameraDistance;
+		}
+
+		pendingUploads.sort(UPLOAD_COMPARATOR);
+
+		final long deadline = Math.max(endNanos, Util.getMeasuringTimeNano() + Configurator.minChunkBudgetNanos);
+		long byteCount = 0;
+
+		do {
+			task = pendingUploads.pop();
+
+			// cancelled uploads don't count against the budget
+			if (task.run()) {
+				byteCount += task.byteCount;
+			}
+		} while (!pendingUploads.isEmpty() && byteCount < maxBytes && Util.getMeasuringTimeNano() < deadline);
+
+		return true;
 	}
 
 	public void reset() {
 		clear();
 	}
 
-	public void scheduleUpload(Runnable task) {
-		uploadQueue.offer(task);
+	/**
+	 * @param region  Region being uploaded, for distance sorting
+	 * @param buildState  Build state of the region when the build started, upload is cancelled if the region is cleared after
+	 * @param byteCount  Estimated size of upload, for metering
+	 * @param cancel  Releases what the task holds, run instead of the task if uploads are cleared first
+	 */
+	void scheduleUpload(BuiltRenderRegion region, RegionBuildState buildState, int byteCount, Runnable task, Runnable cancel) {
+		uploadQueue.offer(new UploadTask(region, buildState, byteCount, task, cancel));
 	}
 
+	private static class UploadTask {
+		final BuiltRenderRegion region;
+		final RegionBuildState buildState;
+		final int byteCount;
+		final Runnable task;
+		final Runnable cancel;
+		int squaredDistance;
+		int sequence;
+
+		UploadTask(BuiltRenderRegion region, RegionBuildState buildState, int byteCount, Runnable task, Runnable cancel) {
+			this.region = region;
+			this.buildState = buildState;
+			this.byteCount = byteCount;
+			this.task = task;
+			this.cancel = cancel;
+		}
+
+		/**
+		 * Runs the upload unless the region was cleared after the build started, so that
+		 * stale geometry is never restored to a region that is empty or has a new origin.
+		 * @return true if the upload ran
+		 */
+		boolean run() {
+			if (region.isCurrentBuildState(buildState)) {
+				task.run();
+				return true;
+			} else {
+				cancel.run();
+				return false;
+			}
+		}
+	}
+
+	/** Farthest and then latest first */
+	private static final Comparator<UploadTask> UPLOAD_COMPARATOR = (a, b) -> {
+		final int result = Integer.compare(b.squaredDistance, a.squaredDistance);
+		return result == 0 ? Integer.compare(b.sequence, a.sequence) : result;
+	};
+
 
+	/**
+	 * Uploads can wait many frames when metered, so they are cancelled here
+	 * instead of running against regions that have been discarded.
+	 */
 	private void clear() {
+		assert RenderSystem.isOnRenderThread();
+
 		executor.clear();
+
+		for (final UploadTask t : pendingUploads) {
+			t.cancel.run();
+		}
+
+		pendingUploads.clear();
+		UploadTask task;
+
+		while ((task = uploadQueue.poll()) != null) {
+			task.cancel.run();
+		}
 	}
 
 	public boolean isEmpty() {
-		return executor.isEmpty() && uploadQueue.isEmpty();
+		return executor.isEmpty() && uploadQueue.isEmpty() && pendingUploads.isEmpty();
 	}
 
 	public void stop() {
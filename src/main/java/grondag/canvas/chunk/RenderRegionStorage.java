@@ -130,6 +130,32 @@ public class RenderRegionStorage {
 		}
 	}
 
+	/**
+	 * Marks a changed block and its neighbors for re-tesselation, so that
+	 * regions can keep geometry of blocks that did not change.
+	 * Coordinates are block coordinates.
+	 */
+	public void scheduleBlockRebuild(int x, int y, int z, boolean urgent) {
+		final int minY = Math.max(0, y - 1);
+		final int maxY = Math.min(255, y + 1);
+
+		for (int rx = (x - 1) >> 4; rx <= (x + 1) >> 4; ++rx) {
+			final int x0 = Math.max(x - 1, rx << 4) & 0xF;
+			final int x1 = Math.min(x + 1, (rx << 4) + 15) & 0xF;
+
+			for (int rz = (z - 1) >> 4; rz <= (z + 1) >> 4; ++rz) {
+				final int z0 = Math.max(z - 1, rz << 4) & 0xF;
+				final int z1 = Math.min(z + 1, (rz << 4) + 15) & 0xF;
+
+				for (int ry = minY >> 4; ry <= maxY >> 4; ++ry) {
+					final int y0 = Math.max(minY, ry << 4) & 0xF;
+					final int y1 = Math.min(maxY, (ry << 4) + 15) & 0xF;
+					regions[getRegionIndex(modFunc.applyAsInt(rx), ry, modFunc.applyAsInt(rz))].markBlocksForBuild(x0, y0, z0, x1, y1, z1, urgent);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Used when coordinates may be out of view.
 	 *
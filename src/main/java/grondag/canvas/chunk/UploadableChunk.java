@@ -16,20 +16,45 @@
 
 package grondag.canvas.chunk;
 
+import java.nio.ByteBuffer;
+
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import net.minecraft.util.math.BlockPos;
+
 import grondag.canvas.buffer.allocation.VboBuffer;
 import grondag.canvas.buffer.packing.BufferPacker;
 import grondag.canvas.buffer.packing.BufferPackingList;
+import grondag.canvas.buffer.packing.TranslucentState;
 import grondag.canvas.buffer.packing.VertexCollectorList;
 import grondag.canvas.chunk.draw.DrawableDelegate;
+import grondag.canvas.chunk.draw.Megabuffer;
 
 public abstract class UploadableChunk {
 	protected final ObjectArrayList<DrawableDelegate> delegates;
+	private final int byteCount;
 
 	/** Does not retain packing list reference */
 	protected UploadableChunk(BufferPackingList packingList, VertexCollectorList collectorList) {
-		delegates = BufferPacker.pack(packingList, collectorList, new VboBuffer(packingList.totalBytes()));
+		byteCount = packingList.totalBytes();
+		delegates = BufferPacker.pack(packingList, collectorList, new VboBuffer(byteCount));
+	}
+
+	protected UploadableChunk(int byteCount, ObjectArrayList<DrawableDelegate> delegates) {
+		this.byteCount = byteCount;
+		this.delegates = delegates;
+	}
+
+	/**
+	 * Size of vertex data that will be sent to the GPU by {@link #produceDrawable()}.
+	 * Used to meter uploads each frame.
+	 */
+	public int byteCount() {
+		return byteCount;
+	}
+
+	public static int byteCount(UploadableChunk chunk) {
+		return chunk == null ? 0 : chunk.byteCount;
 	}
 
 	/**
@@ -39,28 +64,73 @@ public abstract class UploadableChunk {
 
 	/**
 	 * Called if {@link #produceDrawable()} will not be called, so can release
-	 * MappedBuffer(s).
+	 * MappedBuffer(s) and their staging memory.
 	 */
 	public final void cancel() {
 		final int limit = delegates.size();
 		for (int i = 0; i < limit; i++) {
-			delegates.get(i).release();
+			final DrawableDelegate d = delegates.get(i);
+			// delegates can share a buffer, release is a no-op after the first
+			d.bufferDelegate().buffer().releaseUploadBuffer();
+			d.release();
 		}
 
 		delegates.clear();
 	}
 
 	public static class Solid extends UploadableChunk {
+		private boolean isMegabuffer = false;
+		private int cellX;
+		private int cellZ;
+
 		public Solid(BufferPackingList packing, VertexCollectorList collectorList) {
 			super(packing, collectorList);
 		}
 
+		/**
+		 * Makes vertex positions relative to the megabuffer cell that contains the region
+		 * instead of the region origin, and marks the chunk for megabuffer storage.
+		 * Called from the thread that packed the chunk.
+		 */
+		public void prepareMegabuffer(BlockPos origin) {
+			isMegabuffer = true;
+			cellX = Megabuffer.cellOrigin(origin.getX());
+			cellZ = Megabuffer.cellOrigin(origin.getZ());
+
+			final float dx = origin.getX() - cellX;
+			final float dy = origin.getY();
+			final float dz = origin.getZ() - cellZ;
+			final int limit = delegates.size();
+
+			for (int i = 0; i < limit; i++) {
+				final DrawableDelegate d = delegates.get(i);
+				final ByteBuffer buffer = d.bufferDelegate().buffer().byteBuffer();
+				final int stride = d.format().vertexStrideBytes;
+				final int end = d.byteOffset() + d.bufferDelegate().byteCount();
+
+				for (int pos = d.byteOffset(); pos < end; pos += stride) {
+					buffer.putFloat(pos, buffer.getFloat(pos) + dx);
+					buffer.putFloat(pos + 4, buffer.getFloat(pos + 4) + dy);
+					buffer.putFloat(pos + 8, buffer.getFloat(pos + 8) + dz);
+				}
+			}
+		}
+
 		@Override
 		public DrawableChunk produceDrawable() {
 			final int limit = delegates.size();
 
-			for (int i = 0; i < limit; i++) {
-				delegates.get(i).flush();
+			if (isMegabuffer) {
+				for (int i = 0; i < limit; i++) {
+					delegates.get(i).flushToMegabuffer(cellX, cellZ);
+				}
+
+				// all delegates share one staging buffer
+				delegates.get(0).bufferDelegate().buffer().releaseUploadBuffer();
+			} else {
+				for (int i = 0; i < limit; i++) {
+					delegates.get(i).flush();
+				}
 			}
 
 			return new DrawableChunk(delegates);
@@ -68,8 +138,9 @@ public abstract class UploadableChunk {
 	}
 
 	public static class Translucent extends UploadableChunk {
-		public Translucent(BufferPackingList packing, VertexCollectorList collectorList) {
-			super(packing, collectorList);
+		/** Packs quads in the current sort order of the state */
+		public Translucent(TranslucentState state) {
+			super(state.byteCount(), state.pack());
 		}
 
 		@Override
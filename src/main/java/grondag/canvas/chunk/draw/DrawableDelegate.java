@@ -71,6 +71,7 @@ public class DrawableDelegate {
 		result.isReleased = false;
 		result.vertexBinder = CanvasGlHelper.isVaoEnabled() ? result::bindVao : result::bindVbo;
 		result.format = format;
+		result.megabuffer = null;
 
 		return result;
 	}
@@ -94,6 +95,12 @@ public class DrawableDelegate {
 	 */
 	private int vaoBufferId = -1;
 
+	/**
+	 * Shared buffer holding vertex data when terrain megabuffers are enabled, null otherwise.
+	 */
+	private Megabuffer megabuffer;
+	private int megabufferOffset;
+
 	private DrawableDelegate() {
 		super();
 	}
@@ -118,6 +125,25 @@ public class DrawableDelegate {
 		return materialState;
 	}
 
+	public MaterialVertexFormat format() {
+		return format;
+	}
+
+	public Megabuffer megabuffer() {
+		return megabuffer;
+	}
+
+	/**
+	 * Index of first vertex in megabuffer.  Only valid if {@link #megabuffer()} is non-null.
+	 */
+	public int megabufferFirstVertex() {
+		return megabufferOffset / format.vertexStrideBytes;
+	}
+
+	public int vertexCount() {
+		return vertexCount;
+	}
+
 	/**
 	 * Won't bind buffer if this buffer same as last - will only do vertex
 	 * attributes.
@@ -148,6 +174,12 @@ public class DrawableDelegate {
 	public void release() {
 		if (!isReleased) {
 			isReleased = true;
+
+			if (megabuffer != null) {
+				megabuffer.release(megabufferOffset, bufferDelegate.byteCount());
+				megabuffer = null;
+			}
+
 			bufferDelegate = null;
 
 			if (vaoBufferId != -1) {
@@ -165,6 +197,19 @@ public class DrawableDelegate {
 		bufferDelegate.buffer().upload();
 	}
 
+	/**
+	 * Alternative to {@link #flush()} that copies vertex data into a megabuffer for the given cell.
+	 * Vertex positions must already be relative to the cell origin.
+	 * Does not release the staging buffer, which may be shared with other delegates.
+	 */
+	public void flushToMegabuffer(int cellX, int cellZ) {
+		assert !isReleased;
+		final int byteCount = bufferDelegate.byteCount();
+		final int stride = format.vertexStrideBytes;
+		megabuffer = Megabuffer.find(cellX, cellZ, byteCount, stride);
+		megabufferOffset = megabuffer.upload(bufferDelegate.buffer().byteBuffer(), bufferDelegate.byteOffset(), byteCount, stride);
+	}
+
 	void bindVao(boolean isNewBuffer) {
 		final MaterialVertexFormat format = this.format;
 
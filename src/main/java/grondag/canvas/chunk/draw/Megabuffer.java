@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright 2019 grondag
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+
+package grondag.canvas.chunk.draw;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL14;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.system.MemoryUtil;
+
+import net.minecraft.client.render.VertexFormatElement;
+
+import grondag.canvas.buffer.allocation.BindStateManager;
+import grondag.canvas.buffer.allocation.RangeAllocator;
+import grondag.canvas.material.MaterialVertexFormat;
+import grondag.canvas.varia.CanvasGlHelper;
+
+/**
+ * Large GL buffer shared by the solid terrain of all regions in one horizontal cell.
+ * Vertex positions in a megabuffer are relative to the cell origin instead of the
+ * region origin, so every range in the buffer can be drawn with the same transform
+ * and ranges with the same material can be drawn with one call.
+ *
+ * Cells keep float precision of vertex positions close to that of region-relative positions.
+ * A cell holds as many megabuffers as needed. Megabuffers are deleted when empty.
+ *
+ * All methods are for the render thread only.
+ */
+public class Megabuffer {
+	private static final int CELL_SHIFT = 8;
+	private static final int CELL_MASK = ~((1 << CELL_SHIFT) - 1);
+
+	public static final int CAPACITY_BYTES = 1 << 24;
+
+	private static final Long2ObjectOpenHashMap<ObjectArrayList<Megabuffer>> CELLS = new Long2ObjectOpenHashMap<>();
+
+	/** Indexed by buffer index. Null entries are free indices */
+	private static final ObjectArrayList<Megabuffer> BUFFERS = new ObjectArrayList<>();
+
+	private static IntBuffer firsts = MemoryUtil.memAllocInt(1024);
+	private static IntBuffer counts = MemoryUtil.memAllocInt(1024);
+
+	/** Origin of the cell that contains the given block coordinate */
+	public static int cellOrigin(int blockCoordinate) {
+		return blockCoordinate & CELL_MASK;
+	}
+
+	public static Megabuffer get(int index) {
+		return BUFFERS.get(index);
+	}
+
+	/**
+	 * Finds or creates a buffer for the given cell with room for the given range.
+	 * Vertex data of a single region is always much smaller than a megabuffer.
+	 */
+	public static Megabuffer find(int cellX, int cellZ, int bytes, int stride) {
+		assert RenderSystem.isOnRenderThread();
+		assert bytes <= CAPACITY_BYTES;
+
+		final long key = cellKey(cellX, cellZ);
+		ObjectArrayList<Megabuffer> list = CELLS.get(key);
+
+		if (list == null) {
+			list = new ObjectArrayList<>();
+			CELLS.put(key, list);
+		} else {
+			final int limit = list.size();
+
+			for (int i = 0; i < limit; ++i) {
+				final Megabuffer b = list.get(i);
+
+				if (b.allocator.canAllocate(bytes, stride)) {
+					return b;
+				}
+			}
+		}
+
+		int index = BUFFERS.indexOf(null);
+
+		if (index == -1) {
+			index = BUFFERS.size();
+			assert index < MultiDrawList.MAX_BUFFERS;
+			BUFFERS.add(null);
+		}
+
+		final Megabuffer result = new Megabuffer(index, cellX, cellZ);
+		BUFFERS.set(index, result);
+		list.add(result);
+		return result;
+	}
+
+	private static long cellKey(int cellX, int cellZ) {
+		return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+	}
+
+	public final int index;
+	public final int cellX;
+	public final int cellZ;
+
+	private final RangeAllocator allocator = new RangeAllocator(CAPACITY_BYTES);
+	private int glBufferId;
+
+	private Megabuffer(int index, int cellX, int cellZ) {
+		this.index = index;
+		this.cellX = cellX;
+		this.cellZ = cellZ;
+
+		glBufferId = GL21.glGenBuffers();
+		BindStateManager.bind(glBufferId);
+		GL21.glBufferData(GL21.GL_ARRAY_BUFFER, CAPACITY_BYTES, GL21.GL_STATIC_DRAW);
+	}
+
+	/**
+	 * Copies vertex data into the buffer.
+	 * @return Byte offset of the data in this buffer, always a multiple of stride
+	 */
+	public int upload(ByteBuffer source, int byteOffset, int byteCount, int stride) {
+		final int result = allocator.allocate(byteCount, stride);
+		assert result != -1;
+
+		BindStateManager.bind(glBufferId);
+		GL21.glBufferSubData(GL21.GL_ARRAY_BUFFER, result, MemoryUtil.memSlice(source, byteOffset, byteCount));
+		return result;
+	}
+
+	/** Releases a range given by {@link #upload(ByteBuffer, int, int, int)}. Deletes the buffer if it becomes empty. */
+	public void release(int byteOffset, int byteCount) {
+		assert RenderSystem.isOnRenderThread();
+
+		allocator.free(byteOffset, byteCount);
+
+		if (allocator.isEmpty()) {
+			final long key = cellKey(cellX, cellZ);
+			final ObjectArrayList<Megabuffer> list = CELLS.get(key);
+			list.remove(this);
+
+			if (list.isEmpty()) {
+				CELLS.remove(key);
+			}
+
+			BUFFERS.set(index, null);
+
+			// deleted name may be reused by a new buffer
+			BindStateManager.unbind();
+			GL21.glDeleteBuffers(glBufferId);
+			glBufferId = 0;
+		}
+	}
+
+	/**
+	 * Binds this buffer and vertex attributes for the given format at buffer start.
+	 * Assumes default vertex array object is bound if VAOs are enabled.
+	 */
+	public void bind(MaterialVertexFormat format) {
+		BindStateManager.bind(glBufferId);
+		GlStateManager.enableClientState(GL11.GL_VERTEX_ARRAY);
+		GlStateManager.vertexPointer(3, VertexFormatElement.Format.FLOAT.getGlId(), format.vertexStrideBytes, 0);
+		format.enableAndBindAttributes(0);
+	}
+
+	/** Draws all ranges in the batch. Buffer must already be bound via {@link #bind(MaterialVertexFormat)} */
+	public static void draw(MultiDrawList.Batch batch) {
+		final int size = batch.size();
+
+		if (firsts.capacity() < size) {
+			MemoryUtil.memFree(firsts);
+			MemoryUtil.memFree(counts);
+			final int capacity = Integer.highestOneBit(size) << 1;
+			firsts = MemoryUtil.memAllocInt(capacity);
+			counts = MemoryUtil.memAllocInt(capacity);
+		}
+
+		firsts.clear();
+		counts.clear();
+
+		for (int i = 0; i < size; ++i) {
+			firsts.put(batch.first(i));
+			counts.put(batch.count(i));
+		}
+
+		firsts.flip();
+		counts.flip();
+		GL14.glMultiDrawArrays(GL11.GL_QUADS, firsts, counts);
+	}
+
+	/** Unbinds vertex array object if VAOs are enabled, so that attribute bindings in {@link #bind(MaterialVertexFormat)} do not affect region VAOs */
+	public static void prepareBind() {
+		if (CanvasGlHelper.isVaoEnabled()) {
+			CanvasGlHelper.glBindVertexArray(0);
+		}
+	}
+
+	public static String debugReport() {
+		long used = 0;
+		int count = 0;
+		int fragments = 0;
+
+		for (final Megabuffer b : BUFFERS) {
+			if (b != null) {
+				++count;
+				used += b.allocator.usedBytes();
+				fragments += b.allocator.freeRangeCount();
+			}
+		}
+
+		final long capacity = (long) count * CAPACITY_BYTES;
+		return String.format("%d buffers, %d MB, %d%% used, %d free ranges", count, capacity >> 20, capacity == 0 ? 0 : (int) (used * 100 / capacity), fragments);
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright 2019 grondag
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+
+package grondag.canvas.chunk.draw;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Groups vertex ranges by material and buffer so that each group can be
+ * drawn with a single glMultiDrawArrays call. Ranges added in buffer order that
+ * touch each other are merged into one range.
+ *
+ * Makes no GL calls. Batches are reused from frame to frame.
+ */
+public class MultiDrawList {
+	private static final int BUFFER_BITS = 12;
+	public static final int MAX_BUFFERS = 1 << BUFFER_BITS;
+
+	private final Int2IntOpenHashMap batchIndex = new Int2IntOpenHashMap();
+	private final ObjectArrayList<Batch> batches = new ObjectArrayList<>();
+	private final ObjectArrayList<Batch> pool = new ObjectArrayList<>();
+
+	public MultiDrawList() {
+		batchIndex.defaultReturnValue(-1);
+	}
+
+	/**
+	 * @param materialIndex	Index of material state, determines draw handler and vertex format
+	 * @param bufferIndex	Index of the buffer holding the vertices, less than {@link #MAX_BUFFERS}
+	 * @param first		Index of first vertex in buffer
+	 * @param count		Number of vertices
+	 */
+	public void add(int materialIndex, int bufferIndex, int first, int count) {
+		assert bufferIndex >= 0 && bufferIndex < MAX_BUFFERS;
+
+		final int key = (materialIndex << BUFFER_BITS) | bufferIndex;
+		int index = batchIndex.get(key);
+
+		if (index == -1) {
+			index = batches.size();
+			batchIndex.put(key, index);
+			final Batch batch = pool.isEmpty() ? new Batch() : pool.pop();
+			batch.key = key;
+			batches.add(batch);
+		}
+
+		batches.get(index).add(first, count);
+	}
+
+	/**
+	 * Sorts batches by material and then by buffer, so that draw handler
+	 * changes happen once per material.
+	 */
+	public void sort() {
+		batches.sort((a, b) -> Integer.compare(a.key, b.key));
+	}
+
+	public int size() {
+		return batches.size();
+	}
+
+	public Batch get(int index) {
+		return batches.get(index);
+	}
+
+	public void clear() {
+		final int limit = batches.size();
+
+		for (int i = 0; i < limit; ++i) {
+			final Batch batch = batches.get(i);
+			batch.size = 0;
+			pool.add(batch);
+		}
+
+		batches.clear();
+		batchIndex.clear();
+	}
+
+	public static class Batch {
+		private int key;
+		private int[] firsts = new int[64];
+		private int[] counts = new int[64];
+		private int size;
+
+		private Batch() { }
+
+		void add(int first, int count) {
+			final int last = size - 1;
+
+			if (last >= 0 && firsts[last] + counts[last] == first) {
+				counts[last] += count;
+				return;
+			}
+
+			if (size == firsts.length) {
+				final int[] newFirsts = new int[size * 2];
+				final int[] newCounts = new int[size * 2];
+				System.arraycopy(firsts, 0, newFirsts, 0, size);
+				System.arraycopy(counts, 0, newCounts, 0, size);
+				firsts = newFirsts;
+				counts = newCounts;
+			}
+
+			firsts[size] = first;
+			counts[size] = count;
+			++size;
+		}
+
+		public int materialIndex() {
+			return key >>> BUFFER_BITS;
+		}
+
+		public int bufferIndex() {
+			return key & (MAX_BUFFERS - 1);
+		}
+
+		/** Number of draw ranges after merging */
+		public int size() {
+			return size;
+		}
+
+		public int first(int index) {
+			return firsts[index];
+		}
+
+		public int count(int index) {
+			return counts[index];
+		}
+	}
+}
@@ -60,6 +60,14 @@ public class Constants {
 
 	static final long[] EMPTY_BITS = new long[TILE_COUNT];
 
+	/** Tiles are indexed so that each 8x8 group of tiles occupies 64 consecutive words */
+	static final int GROUP_AXIS_SHIFT = TILE_AXIS_SHIFT;
+	static final int GROUP_WIDTH = TILE_WIDTH >> GROUP_AXIS_SHIFT;
+	static final int GROUP_HEIGHT = TILE_HEIGHT >> GROUP_AXIS_SHIFT;
+	static final int GROUP_COUNT = GROUP_WIDTH * GROUP_HEIGHT;
+	static final int GROUP_ROW_SHIFT = Integer.bitCount(GROUP_WIDTH - 1);
+	static final int GROUP_PIXEL_DIAMETER = TILE_PIXEL_DIAMETER << GROUP_AXIS_SHIFT;
+
 	static final int CAMERA_PRECISION_BITS = 12;
 	static final int CAMERA_PRECISION_UNITY = 1 << CAMERA_PRECISION_BITS;
 	static final int CAMERA_PRECISION_CHUNK_MAX = 18 * CAMERA_PRECISION_UNITY;
@@ -1,83 +1,115 @@
 package grondag.canvas.chunk.occlusion;
 
+import static grondag.canvas.chunk.occlusion.Constants.EMPTY_BITS;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_COUNT;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_HEIGHT;
 import static grondag.canvas.chunk.occlusion.Constants.PIXEL_HEIGHT;
 import static grondag.canvas.chunk.occlusion.Constants.TILE_COUNT;
 import static grondag.canvas.chunk.occlusion.Constants.VERTEX_DATA_LENGTH;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
-public class Data {
-	static final Matrix4L baseMvpMatrix = new Matrix4L();
-	static final Matrix4L mvpMatrix = new Matrix4L();
+abstract class Data {
+	final Matrix4L baseMvpMatrix = new Matrix4L();
+	final Matrix4L mvpMatrix = new Matrix4L();
 
-	static final int[] events = new int[PIXEL_HEIGHT * 2];
-	static final int[] vertexData = new int[VERTEX_DATA_LENGTH];
-	static final long[] tiles = new long[TILE_COUNT];
+	final int[] events = new int[PIXEL_HEIGHT * 2];
+	final int[] vertexData = new int[VERTEX_DATA_LENGTH];
+	final long[] tiles;
 
-	static long viewX;
-	static long viewY;
-	static long viewZ;
+	/** One bit per tile, set when tile is fully occluded. One word per 8x8 group of tiles */
+	final long[] fullTiles;
 
-	static int offsetX;
-	static int offsetY;
-	static int offsetZ;
+	/** One bit per 8x8 tile group, set when all tiles in group are fully occluded. One word per row of groups. */
+	final long[] fullGroups;
 
-	static int occlusionRange;
+	Data() {
+		tiles = new long[TILE_COUNT];
+		fullTiles = new long[GROUP_COUNT];
+		fullGroups = new long[GROUP_HEIGHT];
+	}
 
-	static int positionVersion = -1;
-	static int viewVersion = -1;
-	static int regionVersion = -1;
+	/**
+	 * Allows more than one instance to share the same tile bitmap.
+	 * Caller is responsible for ensuring instances don't write the same tile groups concurrently.
+	 */
+	Data(Data shared) {
+		tiles = shared.tiles;
+		fullTiles = shared.fullTiles;
+		fullGroups = shared.fullGroups;
+	}
 
-	static AtomicInteger occluderVersion = new AtomicInteger();
-	static boolean forceRedraw = false;
-	static boolean needsRedraw = false;
+	void clearTiles() {
+		System.arraycopy(EMPTY_BITS, 0, tiles, 0, TILE_COUNT);
+		Arrays.fill(fullTiles, 0);
+		Arrays.fill(fullGroups, 0);
+	}
+
+	long viewX;
+	long viewY;
+	long viewZ;
+
+	int offsetX;
+	int offsetY;
+	int offsetZ;
+
+	int occlusionRange;
+
+	int positionVersion = -1;
+	int viewVersion = -1;
+	int regionVersion = -1;
+
+	final AtomicInteger occluderVersion = new AtomicInteger();
+	boolean forceRedraw = false;
+	boolean needsRedraw = false;
 
 	// Boumds of current triangle - pixel coordinates
-	static int minPixelX;
-	static int minPixelY;
-	static int maxPixelX;
-	static int maxPixelY;
-
-	static int clipX0;
-	static int clipY0;
-	static int clipX1;
-	static int clipY1;
-
-	static int position0;
-	static int position1;
-	static int position2;
-	static int position3;
-
-	static int ax0;
-	static int ay0;
-	static int ax1;
-	static int ay1;
-
-	static int bx0;
-	static int by0;
-	static int bx1;
-	static int by1;
-
-	static int cx0;
-	static int cy0;
-	static int cx1;
-	static int cy1;
-
-	static int dx0;
-	static int dy0;
-	static int dx1;
-	static int dy1;
-
-	static int minTileOriginX;
-	static int maxTileOriginX;
-	static int maxTileOriginY;
-
-	static int tileIndex;
-	static int tileOriginX;
-	static int tileOriginY;
-	static int save_tileIndex;
-	static int save_tileOriginX;
-	static int save_tileOriginY;
+	int minPixelX;
+	int minPixelY;
+	int maxPixelX;
+	int maxPixelY;
+
+	int clipX0;
+	int clipY0;
+	int clipX1;
+	int clipY1;
+
+	int position0;
+	int position1;
+	int position2;
+	int position3;
+
+	int ax0;
+	int ay0;
+	int ax1;
+	int ay1;
+
+	int bx0;
+	int by0;
+	int bx1;
+	int by1;
+
+	int cx0;
+	int cy0;
+	int cx1;
+	int cy1;
+
+	int dx0;
+	int dy0;
+	int dx1;
+	int dy1;
+
+	int minTileOriginX;
+	int maxTileOriginX;
+	int maxTileOriginY;
+
+	int tileIndex;
+	int tileOriginX;
+	int tileOriginY;
+	int save_tileIndex;
+	int save_tileOriginX;
+	int save_tileOriginY;
 
 	// For abandoned traversal scheme
 	//	static final int[] tileEvents = new int[TILE_HEIGHT * 2];
@@ -1,5 +1,8 @@
 package grondag.canvas.chunk.occlusion;
 
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_AXIS_SHIFT;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_ROW_SHIFT;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_WIDTH;
 import static grondag.canvas.chunk.occlusion.Constants.HALF_PIXEL_HEIGHT;
 import static grondag.canvas.chunk.occlusion.Constants.HALF_PIXEL_WIDTH;
 import static grondag.canvas.chunk.occlusion.Constants.PIXEL_HEIGHT;
@@ -15,8 +18,12 @@ import com.google.common.base.Strings;
 
 import grondag.canvas.chunk.occlusion.region.OcclusionBitPrinter;
 
-abstract class Indexer {
-	private  Indexer() {}
+abstract class Indexer extends Data {
+	Indexer() {}
+
+	Indexer(Data shared) {
+		super(shared);
+	}
 
 	/**
 	 * For early exit testing
@@ -25,8 +32,8 @@ abstract class Indexer {
 	 * @param z
 	 * @return
 	 */
-	static boolean isPointVisible(int x, int y, int z) {
-		final Matrix4L mvpMatrix = Data.mvpMatrix;
+	boolean isPointVisible(int x, int y, int z) {
+		final Matrix4L mvpMatrix = this.mvpMatrix;
 
 		final long w = mvpMatrix.transformVec4W(x, y, z);
 		final long tz = mvpMatrix.transformVec4Z(x, y, z);
@@ -45,12 +52,88 @@ abstract class Indexer {
 		return false;
 	}
 
-	static boolean testPixel(int x, int y) {
-		return (Data.tiles[lowIndexFromPixelXY(x, y)] & (1L << (pixelIndex(x, y)))) == 0;
+	boolean testPixel(int x, int y) {
+		return (this.tiles[lowIndexFromPixelXY(x, y)] & (1L << (pixelIndex(x, y)))) == 0;
+	}
+
+	void drawPixel(int x, int y) {
+		final int tileIndex = lowIndexFromPixelXY(x, y);
+		final long word = tiles[tileIndex] | (1L << (pixelIndex(x, y)));
+		tiles[tileIndex] = word;
+
+		if (word == -1L) {
+			markTileFull(tileIndex);
+		}
+	}
+
+	/**
+	 * Call when tile at the given index becomes fully occluded to maintain coarse occlusion masks.
+	 */
+	void markTileFull(int tileIndex) {
+		setTileBit(fullTiles, fullGroups, tileIndex);
+	}
+
+	/**
+	 * Sets the bit for the given tile in a coarse tile mask laid out like {@link Data#fullTiles}
+	 * and sets the group bit in the matching group mask when all tiles in the group are set.
+	 */
+	static void setTileBit(long[] tileMask, long[] groupMask, int tileIndex) {
+		final int groupIndex = tileIndex >> 6;
+		final long word = tileMask[groupIndex] | (1L << (tileIndex & 63));
+		tileMask[groupIndex] = word;
+
+		if (word == -1L) {
+			groupMask[groupIndex >> GROUP_ROW_SHIFT] |= 1L << (groupIndex & (GROUP_WIDTH - 1));
+		}
+	}
+
+	/**
+	 * True when every tile in the given inclusive range of tile coordinates is fully occluded.
+	 * Checks whole groups of 8x8 tiles first and then individual tiles, one word per group.
+	 */
+	boolean isTileRectFull(int tileX0, int tileY0, int tileX1, int tileY1) {
+		return isTileRectSet(fullTiles, fullGroups, tileX0, tileY0, tileX1, tileY1);
 	}
 
-	static void drawPixel(int x, int y) {
-		Data.tiles[lowIndexFromPixelXY(x, y)] |= (1L << (pixelIndex(x, y)));
+	/**
+	 * True when every tile in the given inclusive range of tile coordinates is set in the
+	 * given coarse tile mask and group mask, laid out like {@link Data#fullTiles} and {@link Data#fullGroups}.
+	 */
+	static boolean isTileRectSet(long[] fullTiles, long[] fullGroups, int tileX0, int tileY0, int tileX1, int tileY1) {
+		final int gx0 = tileX0 >> GROUP_AXIS_SHIFT;
+		final int gx1 = tileX1 >> GROUP_AXIS_SHIFT;
+		final int gy0 = tileY0 >> GROUP_AXIS_SHIFT;
+		final int gy1 = tileY1 >> GROUP_AXIS_SHIFT;
+		final long groupRowMask = (-1L >>> (63 - gx1)) & (-1L << gx0);
+
+		for (int gy = gy0; gy <= gy1; ++gy) {
+			final long groupRow = fullGroups[gy];
+
+			if ((groupRow & groupRowMask) == groupRowMask) {
+				continue;
+			}
+
+			final int rowLow = gy == gy0 ? (tileY0 & TILE_PIXEL_INDEX_MASK) : 0;
+			final int rowHigh = gy == gy1 ? (tileY1 & TILE_PIXEL_INDEX_MASK) : TILE_PIXEL_INDEX_MASK;
+			final long rowMask = (-1L >>> (56 - (rowHigh << TILE_AXIS_SHIFT))) & (-1L << (rowLow << TILE_AXIS_SHIFT));
+			final int baseIndex = gy << GROUP_ROW_SHIFT;
+
+			for (int gx = gx0; gx <= gx1; ++gx) {
+				if ((groupRow & (1L << gx)) != 0) {
+					continue;
+				}
+
+				final int colLow = gx == gx0 ? (tileX0 & TILE_PIXEL_INDEX_MASK) : 0;
+				final int colHigh = gx == gx1 ? (tileX1 & TILE_PIXEL_INDEX_MASK) : TILE_PIXEL_INDEX_MASK;
+				final long mask = rowMask & (((0xFF >> (TILE_PIXEL_INDEX_MASK - colHigh)) & (0xFF << colLow)) * 0x0101010101010101L);
+
+				if ((fullTiles[baseIndex | gx] & mask) != mask) {
+					return false;
+				}
+			}
+		}
+
+		return true;
 	}
 
 	static long nextRasterOutputTime;
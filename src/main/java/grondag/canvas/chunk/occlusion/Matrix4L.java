@@ -54,6 +54,31 @@ public class Matrix4L {
 		a33 = Math.round(ext.a33() * MATRIX_PRECISION_UNITY);
 	}
 
+	/**
+	 * Values are in row-major order: a00, a01, a02, a03, a10...
+	 */
+	public void copyFrom(float[] values) {
+		a00 = Math.round(values[0] * MATRIX_PRECISION_UNITY);
+		a01 = Math.round(values[1] * MATRIX_PRECISION_UNITY);
+		a02 = Math.round(values[2] * MATRIX_PRECISION_UNITY);
+		a03 = Math.round(values[3] * MATRIX_PRECISION_UNITY);
+
+		a10 = Math.round(values[4] * MATRIX_PRECISION_UNITY);
+		a11 = Math.round(values[5] * MATRIX_PRECISION_UNITY);
+		a12 = Math.round(values[6] * MATRIX_PRECISION_UNITY);
+		a13 = Math.round(values[7] * MATRIX_PRECISION_UNITY);
+
+		a20 = Math.round(values[8] * MATRIX_PRECISION_UNITY);
+		a21 = Math.round(values[9] * MATRIX_PRECISION_UNITY);
+		a22 = Math.round(values[10] * MATRIX_PRECISION_UNITY);
+		a23 = Math.round(values[11] * MATRIX_PRECISION_UNITY);
+
+		a30 = Math.round(values[12] * MATRIX_PRECISION_UNITY);
+		a31 = Math.round(values[13] * MATRIX_PRECISION_UNITY);
+		a32 = Math.round(values[14] * MATRIX_PRECISION_UNITY);
+		a33 = Math.round(values[15] * MATRIX_PRECISION_UNITY);
+	}
+
 	public void copyFrom(Matrix4L other) {
 		a00 = other.a00;
 		a01 = other.a01;
@@ -0,0 +1,1085 @@
+package grondag.canvas.chunk.occlusion;
+
+import static grondag.canvas.chunk.occlusion.Constants.CAMERA_PRECISION_BITS;
+import static grondag.canvas.chunk.occlusion.Constants.CAMERA_PRECISION_UNITY;
+import static grondag.canvas.chunk.occlusion.Constants.DOWN;
+import static grondag.canvas.chunk.occlusion.Constants.EAST;
+import static grondag.canvas.chunk.occlusion.Constants.MAX_PIXEL_X;
+import static grondag.canvas.chunk.occlusion.Constants.MAX_PIXEL_Y;
+import static grondag.canvas.chunk.occlusion.Constants.NORTH;
+import static grondag.canvas.chunk.occlusion.Constants.PIXEL_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.PIXEL_WIDTH;
+import static grondag.canvas.chunk.occlusion.Constants.PRECISION_BITS;
+import static grondag.canvas.chunk.occlusion.Constants.PV_PX;
+import static grondag.canvas.chunk.occlusion.Constants.PV_PY;
+import static grondag.canvas.chunk.occlusion.Constants.SOUTH;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_AXIS_SHIFT;
+import static grondag.canvas.chunk.occlusion.Constants.UP;
+import static grondag.canvas.chunk.occlusion.Constants.V000;
+import static grondag.canvas.chunk.occlusion.Constants.V001;
+import static grondag.canvas.chunk.occlusion.Constants.V010;
+import static grondag.canvas.chunk.occlusion.Constants.V011;
+import static grondag.canvas.chunk.occlusion.Constants.V100;
+import static grondag.canvas.chunk.occlusion.Constants.V101;
+import static grondag.canvas.chunk.occlusion.Constants.V110;
+import static grondag.canvas.chunk.occlusion.Constants.V111;
+import static grondag.canvas.chunk.occlusion.Constants.WEST;
+
+import java.io.File;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import grondag.canvas.CanvasMod;
+import grondag.canvas.Configurator;
+import grondag.canvas.chunk.BuiltRenderRegion;
+import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
+import grondag.canvas.chunk.occlusion.region.PackedBox;
+import grondag.canvas.mixinterface.Matrix4fExt;
+import grondag.canvas.render.CanvasFrustum;
+
+/**
+ * Owns all state needed to rasterize occluders and test visibility for a single
+ * visibility search. Instances are not thread-safe, but separate instances can be
+ * used concurrently - one per search.
+ */
+public class OcclusionContext extends Rasterizer {
+	private TileBand[] bands;
+	private Reprojection reprojection;
+
+	public OcclusionContext() {
+		super();
+	}
+
+	OcclusionContext(Data shared) {
+		super(shared);
+	}
+	/**
+	 * Previously tested regions can reuse test results if their version matches.
+	 * However, they must still be drawn (if visible) if indicated by {@link #clearSceneIfNeeded(int, int)}.
+	 */
+	public int version() {
+		return occluderVersion.get();
+	}
+
+	/**
+	 * Force update to new version if provided version matches current
+	 * @param occluderVersion
+	 */
+	public void invalidate(int invalidVersion) {
+		if (occluderVersion.compareAndSet(invalidVersion, invalidVersion + 1))  {
+			forceRedraw = true;
+		}
+	}
+
+	/**
+	 * Force update to new version
+	 */
+	public void invalidate() {
+		occluderVersion.incrementAndGet();
+		forceRedraw = true;
+	}
+
+	public void prepareRegion(BlockPos origin, int occlusionRange) {
+		prepareRegion(origin.getX(), origin.getY(), origin.getZ(), occlusionRange);
+	}
+
+	public void prepareRegion(int originX, int originY, int originZ, int occlusionRange) {
+		this.occlusionRange = occlusionRange;
+
+		// PERF: could perhaps reuse CameraRelativeCenter values in BuildRenderRegion that are used by Frustum
+		offsetX = (int) ((originX << CAMERA_PRECISION_BITS) - viewX);
+		offsetY = (int) ((originY << CAMERA_PRECISION_BITS) - viewY);
+		offsetZ = (int) ((originZ << CAMERA_PRECISION_BITS) - viewZ);
+
+		final Matrix4L mvpMatrix = this.mvpMatrix;
+		mvpMatrix.copyFrom(this.baseMvpMatrix);
+		mvpMatrix.translate(offsetX, offsetY, offsetZ, CAMERA_PRECISION_BITS);
+	}
+
+	public void outputRaster() {
+		final long t = System.currentTimeMillis();
+
+		if (t >= Indexer.nextRasterOutputTime) {
+			Indexer.nextRasterOutputTime = t + 1000;
+
+			final NativeImage nativeImage = new NativeImage(PIXEL_WIDTH, PIXEL_HEIGHT, false);
+
+			for (int x = 0; x < PIXEL_WIDTH; x++) {
+				for (int y = 0; y < PIXEL_HEIGHT; y++) {
+					nativeImage.setPixelColor(x, y, testPixel(x, y) ? -1 :0xFF000000);
+				}
+			}
+
+			nativeImage.mirrorVertically();
+
+			@SuppressWarnings("resource")
+			final File file = new File(MinecraftClient.getInstance().runDirectory, "canvas_occlusion_raster.png");
+
+			Util.method_27958().execute(() -> {
+				try {
+					nativeImage.writeFile(file);
+				} catch (final Exception e) {
+					CanvasMod.LOG.warn("Couldn't save occluder image", e);
+				} finally {
+					nativeImage.close();
+				}
+
+			});
+		}
+	}
+
+
+	/**
+	 * Check if needs redrawn and prep for redraw if  so.
+	 * When false, regions should be drawn only if their occluder version is not current.
+	 *
+	 * Also checks for invalidation of occluder version using positionVersion.
+	 *
+	 * @param projectionMatrix
+	 * @param modelMatrix
+	 * @param camera
+	 * @param frustum
+	 * @param regionVersion  Needed because chunk camera position update whenever a chunk boundary is crossed by Frustum doesn't care.
+	 */
+	public void prepareScene(Camera camera, CanvasFrustum frustum, int regionVersion) {
+		final int viewVersion = frustum.viewVersion();
+
+		if (this.viewVersion != viewVersion) {
+			final Matrix4L tempMatrix = this.mvpMatrix;
+			final Matrix4fExt projectionMatrix = frustum.projectionMatrix();
+			final Matrix4fExt modelMatrix = frustum.modelMatrix();
+			final Vec3d vec3d = camera.getPos();
+
+			beginView(vec3d.getX(), vec3d.getY(), vec3d.getZ());
+			tempMatrix.copyFrom(projectionMatrix);
+			baseMvpMatrix.multiply(tempMatrix);
+			tempMatrix.copyFrom(modelMatrix);
+			baseMvpMatrix.multiply(tempMatrix);
+		}
+
+		updateScene(viewVersion, frustum.positionVersion(), regionVersion);
+	}
+
+	/**
+	 * Same as {@link #prepareScene(Camera, CanvasFrustum, int)} but with view state given directly
+	 * instead of taken from game objects. Allows scenes to be replayed without a running client.
+	 * Matrices are only read if view version has changed.
+	 */
+	public void prepareScene(Matrix4L projectionMatrix, Matrix4L modelMatrix, double cameraX, double cameraY, double cameraZ, int viewVersion, int positionVersion, int regionVersion) {
+		if (this.viewVersion != viewVersion) {
+			beginView(cameraX, cameraY, cameraZ);
+			baseMvpMatrix.multiply(projectionMatrix);
+			baseMvpMatrix.multiply(modelMatrix);
+		}
+
+		updateScene(viewVersion, positionVersion, regionVersion);
+	}
+
+	/**
+	 * Sets camera position and resets base matrix to identity.
+	 * Caller must then multiply by projection and model matrix.
+	 */
+	private void beginView(double cameraX, double cameraY, double cameraZ) {
+		if (Configurator.occlusionReprojection) {
+			reprojection().capture(this);
+		}
+
+		baseMvpMatrix.loadIdentity();
+		viewX = Math.round(cameraX * CAMERA_PRECISION_UNITY);
+		viewY = Math.round(cameraY * CAMERA_PRECISION_UNITY);
+		viewZ = Math.round(cameraZ * CAMERA_PRECISION_UNITY);
+	}
+
+	private void updateScene(int viewVersion, int positionVersion, int regionVersion) {
+		if (forceRedraw) {
+			this.viewVersion = viewVersion;
+			this.positionVersion = positionVersion;
+			this.regionVersion = regionVersion;
+			clearTiles();
+			endReprojection();
+			forceRedraw = false;
+			needsRedraw = true;
+		} else if (this.positionVersion != positionVersion || this.regionVersion != regionVersion) {
+			occluderVersion.incrementAndGet();
+			this.viewVersion = viewVersion;
+			this.positionVersion = positionVersion;
+			this.regionVersion = regionVersion;
+			clearTiles();
+			endReprojection();
+			needsRedraw = true;
+		} else if (this.viewVersion != viewVersion) {
+			this.viewVersion = viewVersion;
+
+			if (!Configurator.occlusionReprojection || !reprojection().apply(this)) {
+				clearTiles();
+				endReprojection();
+			}
+
+			needsRedraw = true;
+		} else {
+			needsRedraw = false;
+		}
+	}
+
+	private Reprojection reprojection() {
+		Reprojection result = reprojection;
+
+		if (result == null) {
+			result = new Reprojection();
+			reprojection = result;
+		}
+
+		return result;
+	}
+
+	private void endReprojection() {
+		if (reprojection != null) {
+			reprojection.deactivate();
+		}
+	}
+
+	public boolean needsRedraw() {
+		return needsRedraw;
+	}
+
+	/**
+	 * Does not rely on winding order but instead the distance from
+	 * plane with known facing to camera position.
+	 */
+	public boolean isBoxVisible(int packedBox) {
+		final int x0  = PackedBox.x0(packedBox) - 1;
+		final int y0  = PackedBox.y0(packedBox) - 1;
+		final int z0  = PackedBox.z0(packedBox) - 1;
+		final int x1  = PackedBox.x1(packedBox) + 1;
+		final int y1  = PackedBox.y1(packedBox) + 1;
+		final int z1  = PackedBox.z1(packedBox) + 1;
+
+		final int offsetX = this.offsetX;
+		final int offsetY = this.offsetY;
+		final int offsetZ = this.offsetZ;
+
+		int outcome = 0;
+
+		// if camera below top face can't be seen
+		if (offsetY < -(y1 << CAMERA_PRECISION_BITS)) {
+			outcome |= UP;
+		} else if (offsetY > -(y0 << CAMERA_PRECISION_BITS)) {
+			outcome |= DOWN;
+		}
+
+		if (offsetX < -(x1 << CAMERA_PRECISION_BITS)) {
+			outcome |= EAST;
+		} else if (offsetX > -(x0 << CAMERA_PRECISION_BITS)) {
+			outcome |= WEST;
+		}
+
+		if (offsetZ < -(z1 << CAMERA_PRECISION_BITS)) {
+			outcome |= SOUTH;
+		} else if (offsetZ > -(z0 << CAMERA_PRECISION_BITS)) {
+			outcome |= NORTH;
+		}
+
+		return BOX_TESTS[outcome].apply(this, x0, y0, z0, x1, y1, z1);
+	}
+
+	/**
+	 * Does not rely on winding order but instead the distance from
+	 * plane with known facing to camera position.
+	 */
+	void occludeInner(int packedBox) {
+		final int x0  = PackedBox.x0(packedBox);
+		final int y0  = PackedBox.y0(packedBox);
+		final int z0  = PackedBox.z0(packedBox);
+		final int x1  = PackedBox.x1(packedBox);
+		final int y1  = PackedBox.y1(packedBox);
+		final int z1  = PackedBox.z1(packedBox);
+
+		final int offsetX = this.offsetX;
+		final int offsetY = this.offsetY;
+		final int offsetZ = this.offsetZ;
+
+		int outcome = 0;
+
+		// if camera below top face can't be seen
+		if (offsetY < -(y1 << CAMERA_PRECISION_BITS)) {
+			outcome |= UP;
+		} else if (offsetY > -(y0 << CAMERA_PRECISION_BITS)) {
+			outcome |= DOWN;
+		}
+
+		if (offsetX < -(x1 << CAMERA_PRECISION_BITS)) {
+			outcome |= EAST;
+		} else if (offsetX > -(x0 << CAMERA_PRECISION_BITS)) {
+			outcome |= WEST;
+		}
+
+		if (offsetZ < -(z1 << CAMERA_PRECISION_BITS)) {
+			outcome |= SOUTH;
+		} else if (offsetZ > -(z0 << CAMERA_PRECISION_BITS)) {
+			outcome |= NORTH;
+		}
+
+		BOX_DRAWS[outcome].apply(this, x0, y0, z0, x1, y1, z1);
+	}
+
+	public void occlude(int[] visData) {
+		if (Configurator.binnedOcclusionRaster && visData.length > TileBand.MIN_BINNED_BOX_COUNT) {
+			TileBand[] bands = this.bands;
+
+			if (bands == null) {
+				bands = TileBand.create(this);
+				this.bands = bands;
+			}
+
+			TileBand.occlude(bands, visData);
+		} else {
+			occludeSerial(visData);
+		}
+	}
+
+	/**
+	 * Use instead of {@link #occlude(int[])} for regions that reuse a prior test result and are drawn only
+	 * because {@link #needsRedraw()} is true. Skips the region when its occluders were drawn in the prior
+	 * frame and carried into the current raster by reprojection.  Region must already be prepared via
+	 * {@link #prepareRegion(BlockPos, int)}.
+	 */
+	public void redraw(int[] visData) {
+		final Reprojection reprojection = this.reprojection;
+
+		if (reprojection == null || !reprojection.isActive || !isBoxReprojected(reprojection, visData[OcclusionRegion.CULL_DATA_REGION_BOUNDS])) {
+			occlude(visData);
+		}
+	}
+
+	/**
+	 * True when the projected bounds of the given box lie entirely within clean reprojected tiles.
+	 * Boxes that cross the near plane are never considered reprojected.
+	 */
+	private boolean isBoxReprojected(Reprojection reprojection, int packedBox) {
+		if (!projectBox(packedBox)) {
+			return false;
+		}
+
+		final int[] data = vertexData;
+		final int minX = Math.min(Math.min(Math.min(data[V000 + PV_PX], data[V001 + PV_PX]), Math.min(data[V010 + PV_PX], data[V011 + PV_PX])),
+				Math.min(Math.min(data[V100 + PV_PX], data[V101 + PV_PX]), Math.min(data[V110 + PV_PX], data[V111 + PV_PX]))) >> PRECISION_BITS;
+		final int maxX = Math.max(Math.max(Math.max(data[V000 + PV_PX], data[V001 + PV_PX]), Math.max(data[V010 + PV_PX], data[V011 + PV_PX])),
+				Math.max(Math.max(data[V100 + PV_PX], data[V101 + PV_PX]), Math.max(data[V110 + PV_PX], data[V111 + PV_PX]))) >> PRECISION_BITS;
+		final int minY = projectedBoxMinY();
+		final int maxY = projectedBoxMaxY();
+
+		if (maxX < 0 || maxY < 0 || minX > MAX_PIXEL_X || minY > MAX_PIXEL_Y) {
+			// nothing on screen to draw
+			return true;
+		}
+
+		// pad by a pixel to allow for rounding differences with the rasterizer
+		return Indexer.isTileRectSet(reprojection.cleanTiles, reprojection.cleanGroups,
+				Math.max(0, minX - 1) >> TILE_AXIS_SHIFT, Math.max(0, minY - 1) >> TILE_AXIS_SHIFT,
+				Math.min(MAX_PIXEL_X, maxX + 1) >> TILE_AXIS_SHIFT, Math.min(MAX_PIXEL_Y, maxY + 1) >> TILE_AXIS_SHIFT);
+	}
+
+	/**
+	 * Projects all corners of the given box into vertex data.
+	 * Returns false if any corner crosses the near plane, in which case the
+	 * projected bounds are not meaningful.
+	 */
+	boolean projectBox(int packedBox) {
+		final int x0  = PackedBox.x0(packedBox);
+		final int y0  = PackedBox.y0(packedBox);
+		final int z0  = PackedBox.z0(packedBox);
+		final int x1  = PackedBox.x1(packedBox);
+		final int y1  = PackedBox.y1(packedBox);
+		final int z1  = PackedBox.z1(packedBox);
+
+		setupVertex(V000, x0, y0, z0);
+		setupVertex(V001, x0, y0, z1);
+		setupVertex(V010, x0, y1, z0);
+		setupVertex(V011, x0, y1, z1);
+		setupVertex(V100, x1, y0, z0);
+		setupVertex(V101, x1, y0, z1);
+		setupVertex(V110, x1, y1, z0);
+		setupVertex(V111, x1, y1, z1);
+
+		return (needsNearClip(V000) | needsNearClip(V001) | needsNearClip(V010) | needsNearClip(V011)
+				| needsNearClip(V100) | needsNearClip(V101) | needsNearClip(V110) | needsNearClip(V111)) == 0;
+	}
+
+	/** Lowest pixel row of the box last passed to {@link #projectBox(int)}, not clamped to the screen */
+	int projectedBoxMinY() {
+		final int[] data = vertexData;
+		return Math.min(Math.min(Math.min(data[V000 + PV_PY], data[V001 + PV_PY]), Math.min(data[V010 + PV_PY], data[V011 + PV_PY])),
+				Math.min(Math.min(data[V100 + PV_PY], data[V101 + PV_PY]), Math.min(data[V110 + PV_PY], data[V111 + PV_PY]))) >> PRECISION_BITS;
+	}
+
+	/** Highest pixel row of the box last passed to {@link #projectBox(int)}, not clamped to the screen */
+	int projectedBoxMaxY() {
+		final int[] data = vertexData;
+		return Math.max(Math.max(Math.max(data[V000 + PV_PY], data[V001 + PV_PY]), Math.max(data[V010 + PV_PY], data[V011 + PV_PY])),
+				Math.max(Math.max(data[V100 + PV_PY], data[V101 + PV_PY]), Math.max(data[V110 + PV_PY], data[V111 + PV_PY]))) >> PRECISION_BITS;
+	}
+
+	void occludeSerial(int[] visData) {
+		final int occlusionRange = this.occlusionRange;
+		final int limit= visData.length;
+
+		if (limit > 1) {
+			for (int i = 1; i < limit; i++) {
+				final int box  = visData[i];
+				if (occlusionRange > PackedBox.range(box)) {
+					break;
+				}
+
+				occludeInner(box);
+			}
+		}
+	}
+
+	/**
+	 * Returns value with face flags set when all such
+	 * faces in the region are at least 64 blocks away camera.
+	 * @param region
+	 * @return
+	 */
+	int backfaceVisibilityFlags(BuiltRenderRegion region) {
+		final int offsetX = this.offsetX;
+		final int offsetY = this.offsetY;
+		final int offsetZ = this.offsetZ;
+
+		int outcome = 0;
+
+		// if offsetY is positive, chunk origin is above camera
+		// if offsetY is negative, chunk origin is below camera;
+		/**
+		 * offsets are origin - camera
+		 * if looking directly at chunk center, two values will be -8
+		 *
+		 * pos face check: -8 < -(16) == false
+		 * neg face check: -8 > -(0) == false
+		 *
+		 * if 32 blocks above/positive to origin two values will be -32
+		 *
+		 * pos face check: -32 < -(16) == true
+		 * neg face check: -32 > -(0) == false
+		 *
+		 * if 32 blocks below/positive to origin two values will be 32
+		 *
+		 * pos face check: 32 < -(16) == false
+		 * neg face check: 32 > -(0) == true
+		 *
+		 *
+		 * if looking directly at chunk center, two values will be -8
+		 *
+		 * pos face check: -8 < -(16) == false
+		 * neg face check: -8 > -(0) == false
+		 *
+		 * if 64 blocks above/positive to origin two values will be -64
+		 * neg face check: -64 > -(16) == false
+		 *
+		 * neg face > -64
+		 *
+		 * if 64 blocks below/positive to origin two values will be 64
+		 *
+		 * pos face check: 64 < -16 == false
+		 *
+		 * pos face culled when offset > 48
+		 * neg face culled when offset < -72
+		 *
+		 *
+		 * pos face visible when offset <= 48
+		 * neg face visible when offset >= -72
+		 */
+		if (offsetY < (48 << CAMERA_PRECISION_BITS)) {
+			outcome |= UP;
+		} else if (offsetY > -(72 << CAMERA_PRECISION_BITS)) {
+			outcome |= DOWN;
+		}
+
+		if (offsetX < (48 << CAMERA_PRECISION_BITS)) {
+			outcome |= EAST;
+		} else if (offsetX > -(72 << CAMERA_PRECISION_BITS)) {
+			outcome |= WEST;
+		}
+
+		if (offsetZ < (48 << CAMERA_PRECISION_BITS)) {
+			outcome |= SOUTH;
+		} else if (offsetZ > -(72 << CAMERA_PRECISION_BITS)) {
+			outcome |= NORTH;
+		}
+
+		return outcome;
+	}
+
+	@FunctionalInterface interface BoxTest {
+		boolean apply(OcclusionContext ctx, int x0, int y0, int z0, int x1, int y1, int z1);
+	}
+
+	@FunctionalInterface interface BoxDraw {
+		void apply(OcclusionContext ctx, int x0, int y0, int z0, int x1, int y1, int z1);
+	}
+
+	private static BoxTest[] BOX_TESTS = new BoxTest[128];
+	private static BoxDraw[] BOX_DRAWS = new BoxDraw[128];
+
+	static {
+		BOX_TESTS[0] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			return false;
+		};
+
+		BOX_TESTS[UP] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V110, V010, V011, V111);
+		};
+
+		BOX_TESTS[DOWN] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			return ctx.testQuad(V000, V100, V101, V001);
+		};
+
+		BOX_TESTS[EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V101, V100, V110, V111);
+		};
+
+		BOX_TESTS[WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			return ctx.testQuad(V000, V001, V011, V010);
+		};
+
+		BOX_TESTS[NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			return ctx.testQuad(V100, V000, V010, V110);
+		};
+
+		BOX_TESTS[SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V001, V101, V111, V011);
+		};
+
+		// NB: Split across two quads to give more evenly-sized test regions vs potentially one big and one very small
+		BOX_TESTS[UP | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V010, V011, V111, V101) ||
+					ctx.testQuad(V101, V100, V110, V010);
+		};
+
+		BOX_TESTS[UP | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V111, V110, V010, V000) ||
+					ctx.testQuad(V000, V001, V011, V111);
+		};
+
+		BOX_TESTS[UP | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V011, V111, V110, V100) ||
+					ctx.testQuad(V100, V000, V010, V011);
+		};
+
+		BOX_TESTS[UP | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V110, V010, V011, V001) ||
+					ctx.testQuad(V001, V101, V111, V110);
+		};
+
+		BOX_TESTS[DOWN | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V001, V000, V100, V110) ||
+					ctx.testQuad(V110, V111, V101, V001);
+		};
+
+		BOX_TESTS[DOWN | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			return ctx.testQuad(V100, V101, V001, V011) ||
+					ctx.testQuad(V011, V010, V000, V100);
+		};
+
+		BOX_TESTS[DOWN | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			return ctx.testQuad(V101, V001, V000, V010) ||
+					ctx.testQuad(V010, V110, V100, V101);
+		};
+
+		BOX_TESTS[DOWN | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V000, V100, V101, V111) ||
+					ctx.testQuad(V111, V011, V001, V000);
+		};
+
+		BOX_TESTS[NORTH | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V000, V010, V110, V111) ||
+					ctx.testQuad(V111, V101, V100, V000);
+		};
+
+		BOX_TESTS[NORTH | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			return ctx.testQuad(V110, V100, V000, V001) ||
+					ctx.testQuad(V001, V011, V010, V110);
+		};
+
+		BOX_TESTS[SOUTH | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V011, V001, V101, V100) ||
+					ctx.testQuad(V100, V110, V111, V011);
+		};
+
+		BOX_TESTS[SOUTH | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V101, V111, V011, V010) ||
+					ctx.testQuad(V010, V000, V001, V101);
+		};
+
+		// NB: When three faces are visible, omit nearest vertex and draw two quads instead of three.
+
+		BOX_TESTS[UP | EAST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V011, V111, V101, V100 ) ||
+					ctx.testQuad(V100, V000, V010, V011);
+		};
+
+		BOX_TESTS[UP | WEST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V111, V110, V100, V000) ||
+					ctx.testQuad(V000, V001, V011, V111);
+
+
+		};
+
+		BOX_TESTS[UP | EAST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			return ctx.testQuad(V010, V011, V001, V101) ||
+					ctx.testQuad(V101, V100, V110, V010);
+		};
+
+		BOX_TESTS[UP | WEST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V110, V010, V000, V001) ||
+					ctx.testQuad(V001, V101, V111, V110);
+		};
+
+		BOX_TESTS[DOWN | EAST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V001, V000, V010, V110) ||
+					ctx.testQuad(V110, V111, V101, V001);
+		};
+
+		BOX_TESTS[DOWN | WEST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			return ctx.testQuad(V101, V001, V011, V010) ||
+					ctx.testQuad(V010, V110, V100, V101);
+		};
+
+		BOX_TESTS[DOWN | EAST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V000, V100, V110, V111) ||
+					ctx.testQuad(V111, V011, V001, V000);
+		};
+
+		BOX_TESTS[DOWN | WEST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			return ctx.testQuad(V100, V101, V111, V011) ||
+					ctx.testQuad(V011, V010, V000, V100);
+		};
+
+		////
+
+		BOX_DRAWS[0] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			// NOOP
+		};
+
+		BOX_DRAWS[UP] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V110, V010, V011, V111);
+		};
+
+		BOX_DRAWS[DOWN] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.drawQuad(V000, V100, V101, V001);
+		};
+
+		BOX_DRAWS[EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V101, V100, V110, V111);
+		};
+
+		BOX_DRAWS[WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.drawQuad(V000, V001, V011, V010);
+		};
+
+		BOX_DRAWS[NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.drawQuad(V100, V000, V010, V110);
+		};
+
+		BOX_DRAWS[SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V001, V101, V111, V011);
+		};
+
+		// NB: Split across two quads to give more evenly-sized test regions vs potentially one big and one very small
+		BOX_DRAWS[UP | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V010, V011, V111, V101); ctx.drawQuad(V101, V100, V110, V010);
+		};
+
+		BOX_DRAWS[UP | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V111, V110, V010, V000);
+			ctx.drawQuad(V000, V001, V011, V111);
+		};
+
+		BOX_DRAWS[UP | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V011, V111, V110, V100);
+			ctx.drawQuad(V100, V000, V010, V011);
+		};
+
+		BOX_DRAWS[UP | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V110, V010, V011, V001);
+			ctx.drawQuad(V001, V101, V111, V110);
+		};
+
+		BOX_DRAWS[DOWN | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V001, V000, V100, V110);
+			ctx.drawQuad(V110, V111, V101, V001);
+		};
+
+		BOX_DRAWS[DOWN | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.drawQuad(V100, V101, V001, V011);
+			ctx.drawQuad(V011, V010, V000, V100);
+		};
+
+		BOX_DRAWS[DOWN | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.drawQuad(V101, V001, V000, V010);
+			ctx.drawQuad(V010, V110, V100, V101);
+		};
+
+		BOX_DRAWS[DOWN | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V000, V100, V101, V111);
+			ctx.drawQuad(V111, V011, V001, V000);
+		};
+
+		BOX_DRAWS[NORTH | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V000, V010, V110, V111);
+			ctx.drawQuad(V111, V101, V100, V000);
+		};
+
+		BOX_DRAWS[NORTH | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.drawQuad(V110, V100, V000, V001);
+			ctx.drawQuad(V001, V011, V010, V110);
+		};
+
+		BOX_DRAWS[SOUTH | EAST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V011, V001, V101, V100);
+			ctx.drawQuad(V100, V110, V111, V011);
+		};
+
+		BOX_DRAWS[SOUTH | WEST] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V101, V111, V011, V010);
+			ctx.drawQuad(V010, V000, V001, V101);
+		};
+
+		// NB: When three faces are visible, omit nearest vertex and draw two quads instead of three.
+
+		BOX_DRAWS[UP | EAST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V011, V111, V101, V100 );
+			ctx.drawQuad(V100, V000, V010, V011);
+		};
+
+		BOX_DRAWS[UP | WEST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V111, V110, V100, V000);
+			ctx.drawQuad(V000, V001, V011, V111);
+
+
+		};
+
+		BOX_DRAWS[UP | EAST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.drawQuad(V010, V011, V001, V101);
+			ctx.drawQuad(V101, V100, V110, V010);
+		};
+
+		BOX_DRAWS[UP | WEST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V110, V010, V000, V001);
+			ctx.drawQuad(V001, V101, V111, V110);
+		};
+
+		BOX_DRAWS[DOWN | EAST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V001, V000, V010, V110);
+			ctx.drawQuad(V110, V111, V101, V001);
+		};
+
+		BOX_DRAWS[DOWN | WEST | NORTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.drawQuad(V101, V001, V011, V010);
+			ctx.drawQuad(V010, V110, V100, V101);
+		};
+
+		BOX_DRAWS[DOWN | EAST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V001, x0, y0, z1);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V110, x1, y1, z0);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V000, V100, V110, V111);
+			ctx.drawQuad(V111, V011, V001, V000);
+		};
+
+		BOX_DRAWS[DOWN | WEST | SOUTH] = (ctx, x0, y0, z0, x1, y1, z1) -> {
+			ctx.setupVertex(V000, x0, y0, z0);
+			ctx.setupVertex(V010, x0, y1, z0);
+			ctx.setupVertex(V011, x0, y1, z1);
+			ctx.setupVertex(V100, x1, y0, z0);
+			ctx.setupVertex(V101, x1, y0, z1);
+			ctx.setupVertex(V111, x1, y1, z1);
+			ctx.drawQuad(V100, V101, V111, V011);
+			ctx.drawQuad(V011, V010, V000, V100);
+		};
+	}
+}
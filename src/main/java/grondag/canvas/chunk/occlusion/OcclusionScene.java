@@ -0,0 +1,537 @@
+package grondag.canvas.chunk.occlusion;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
+import grondag.canvas.chunk.occlusion.region.PackedBox;
+
+/**
+ * Everything one terrain visibility pass consumes: view matrices, frustum planes, camera position,
+ * the regions where iteration starts and the origin, occlusion range, neighbors, cull data and
+ * face connectivity of each region in the order it was visited. Captured passes also retain the resulting visible set.
+ *
+ * Can be written to and read from a compact binary form so that passes can be replayed
+ * without a running client, for benchmarks and regression tests.
+ */
+public final class OcclusionScene {
+	/** "CVOS" */
+	public static final int MAGIC = 0x43564F53;
+	public static final int VERSION = 3;
+
+	/** Region is near the camera or inside render distance with neighbors loaded */
+	public static final int FLAG_SHOULD_BUILD = 1;
+	/** Region is close enough to the camera to be drawn without testing */
+	public static final int FLAG_NEAR = 2;
+	/** Region center is inside the view frustum */
+	public static final int FLAG_IN_FRUSTUM = 4;
+
+	private static final int FLAG_MASK = FLAG_SHOULD_BUILD | FLAG_NEAR | FLAG_IN_FRUSTUM;
+
+	private static final int REGION_ID = 0;
+	private static final int REGION_X = 1;
+	private static final int REGION_Y = 2;
+	private static final int REGION_Z = 3;
+	private static final int REGION_RANGE = 4;
+	private static final int REGION_FLAGS = 5;
+	private static final int REGION_NEIGHBORS = 6;
+	private static final int REGION_STRIDE = 12;
+
+	private static final int PLANE_COUNT = 5;
+
+	private final float[] projectionMatrix = new float[16];
+	private final float[] modelMatrix = new float[16];
+	private final float[] frustumPlanes = new float[PLANE_COUNT * 4];
+	private final float[] frustumRegionExtents = new float[PLANE_COUNT];
+	private final double cameraX;
+	private final double cameraY;
+	private final double cameraZ;
+	private final int cameraRegionId;
+	private final boolean chunkCullingEnabled;
+
+	private final IntArrayList startRegionIds = new IntArrayList();
+	private final IntArrayList visibleRegionIds = new IntArrayList();
+
+	/** See REGION_ constants for layout */
+	private final IntArrayList regions = new IntArrayList();
+	private final ObjectArrayList<int[]> occlusionData = new ObjectArrayList<>();
+	private final LongArrayList faceConnectivity = new LongArrayList();
+	private final Int2IntOpenHashMap regionIndexMap = new Int2IntOpenHashMap();
+
+	private final Matrix4L projection = new Matrix4L();
+	private final Matrix4L model = new Matrix4L();
+
+	// iteration state
+	private IntArrayList currentLevel = new IntArrayList();
+	private IntArrayList nextLevel = new IntArrayList();
+	private int[] lastSeenFrameIndex = new int[64];
+	private int[] entryFaceFlags = new int[64];
+	private int[] exitFaceFlags = new int[64];
+	private boolean[] isExpanded = new boolean[64];
+	private int frameIndex;
+
+	/**
+	 * Matrix values are in row-major order: a00, a01, a02, a03, a10...
+	 * Frustum planes are normalized x, y, z, w coefficients for the left, right, near, top and bottom planes,
+	 * in that order, with normals pointing away from the visible volume.
+	 *
+	 * @param cameraRegionId  Id of the region containing the camera, or -1 if camera is outside the world
+	 */
+	public OcclusionScene(float[] projectionMatrix, float[] modelMatrix, float[] frustumPlanes, double cameraX, double cameraY, double cameraZ, int cameraRegionId, boolean chunkCullingEnabled) {
+		System.arraycopy(projectionMatrix, 0, this.projectionMatrix, 0, 16);
+		System.arraycopy(modelMatrix, 0, this.modelMatrix, 0, 16);
+		System.arraycopy(frustumPlanes, 0, this.frustumPlanes, 0, PLANE_COUNT * 4);
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.cameraZ = cameraZ;
+		this.cameraRegionId = cameraRegionId;
+		this.chunkCullingEnabled = chunkCullingEnabled;
+		projection.copyFrom(projectionMatrix);
+		model.copyFrom(modelMatrix);
+		regionIndexMap.defaultReturnValue(-1);
+
+		for (int i = 0; i < PLANE_COUNT; ++i) {
+			final int base = i << 2;
+			// same computation as CanvasFrustum so that results match
+			frustumRegionExtents[i] = frustumPlanes[base + 3] - 8 * (Math.abs(frustumPlanes[base]) + Math.abs(frustumPlanes[base + 1]) + Math.abs(frustumPlanes[base + 2]));
+		}
+	}
+
+	/**
+	 * Adds a region where iteration starts. Usually only the camera region, but when the
+	 * camera is outside the world iteration starts with all regions in the top or bottom layer.
+	 */
+	public void addStartRegion(int regionId) {
+		startRegionIds.add(regionId);
+	}
+
+	/**
+	 * Adds a region in the order visited. Regions are identified by an arbitrary unique id, usually
+	 * the region storage index. Neighbors not added to the scene are treated as not loaded.
+	 *
+	 * @param flags  Combination of FLAG_ constants
+	 * @param neighborIds  Six neighbor ids in face order, -1 if none
+	 * @param occlusionData  Retained, not copied. Callers must not modify it afterwards. Null if region is not yet built.
+	 * @param faceConnectivity  See {@link OcclusionRegion#connectedFaceFlags(long, int)}
+	 */
+	public void addRegion(int regionId, int originX, int originY, int originZ, int occlusionRange, int flags, int[] neighborIds, int[] occlusionData, long faceConnectivity) {
+		regionIndexMap.put(regionId, regionCount());
+		regions.add(regionId);
+		regions.add(originX);
+		regions.add(originY);
+		regions.add(originZ);
+		regions.add(occlusionRange);
+		regions.add(flags & FLAG_MASK);
+
+		for (int i = 0; i < 6; ++i) {
+			regions.add(neighborIds[i]);
+		}
+
+		this.occlusionData.add(occlusionData);
+		this.faceConnectivity.add(faceConnectivity);
+	}
+
+	public boolean containsRegion(int regionId) {
+		return regionIndexMap.containsKey(regionId);
+	}
+
+	public int regionCount() {
+		return occlusionData.size();
+	}
+
+	/**
+	 * Records a region found visible by the pass being captured, in the order found.
+	 */
+	public void addVisibleRegion(int regionId) {
+		visibleRegionIds.add(regionId);
+	}
+
+	/**
+	 * @return Ids of visible regions recorded when the scene was captured, in the order found
+	 */
+	public int[] visibleRegionIds() {
+		return visibleRegionIds.toIntArray();
+	}
+
+	/**
+	 * Same test as CanvasFrustum uses for regions, for callers that build scenes without a frustum.
+	 */
+	public boolean isRegionInFrustum(int originX, int originY, int originZ) {
+		final float cx = (float) (originX + 8 - cameraX);
+		final float cy = (float) (originY + 8 - cameraY);
+		final float cz = (float) (originZ + 8 - cameraZ);
+		final float[] planes = frustumPlanes;
+
+		for (int i = 0; i < PLANE_COUNT; ++i) {
+			final int base = i << 2;
+
+			if (cx * planes[base] + cy * planes[base + 1] + cz * planes[base + 2] + frustumRegionExtents[i] > 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Forces a full redraw and repeats the breadth-first terrain iteration from the start regions,
+	 * following neighbor links and testing and drawing regions the same way as TerrainIterator
+	 * does after occluder invalidation. Reproduces the captured visible set.
+	 *
+	 * @param visibleRegionIds  Receives ids of visible regions in the order found
+	 * @return number of visible regions
+	 */
+	public int iterate(OcclusionContext context, IntArrayList visibleRegionIds) {
+		prepare(context);
+		visibleRegionIds.clear();
+
+		final int[] regions = this.regions.elements();
+		final boolean chunkCullingEnabled = this.chunkCullingEnabled;
+		final int cameraRegionId = this.cameraRegionId;
+		final int frameIndex = ++this.frameIndex;
+
+		if (lastSeenFrameIndex.length < regionCount()) {
+			lastSeenFrameIndex = new int[regionCount()];
+			entryFaceFlags = new int[regionCount()];
+			exitFaceFlags = new int[regionCount()];
+			isExpanded = new boolean[regionCount()];
+		}
+
+		final int[] lastSeenFrameIndex = this.lastSeenFrameIndex;
+
+		IntArrayList currentLevel = this.currentLevel;
+		currentLevel.clear();
+		IntArrayList nextLevel = this.nextLevel;
+		nextLevel.clear();
+
+		for (final int id : startRegionIds) {
+			final int index = regionIndexMap.get(id);
+
+			if (index != -1) {
+				lastSeenFrameIndex[index] = frameIndex;
+				entryFaceFlags[index] = OcclusionRegion.ALL_FACE_FLAGS;
+				exitFaceFlags[index] = 0;
+				isExpanded[index] = false;
+				currentLevel.add(index);
+			}
+		}
+
+		while (true) {
+			if (currentLevel.isEmpty()) {
+				if(nextLevel.isEmpty()) {
+					break;
+				} else {
+					final IntArrayList swapLevel = currentLevel;
+					currentLevel  = nextLevel;
+					nextLevel = swapLevel;
+					nextLevel.clear();
+				}
+			}
+
+			final int index = currentLevel.popInt();
+
+			if (isExpanded[index]) {
+				enqueueConnectedNeighbors(index, frameIndex, nextLevel);
+				continue;
+			}
+
+			final int base = index * REGION_STRIDE;
+			final int flags = regions[base + REGION_FLAGS];
+
+			if ((flags & FLAG_IN_FRUSTUM) == 0 || (flags & FLAG_SHOULD_BUILD) == 0) {
+				continue;
+			}
+
+			final int[] visData = occlusionData.get(index);
+
+			if (visData == null) {
+				continue;
+			}
+
+			if (visData == OcclusionRegion.EMPTY_CULL_DATA) {
+				enqueueConnectedNeighbors(index, frameIndex, nextLevel);
+				continue;
+			}
+
+			final int id = regions[base + REGION_ID];
+			context.prepareRegion(regions[base + REGION_X], regions[base + REGION_Y], regions[base + REGION_Z], regions[base + REGION_RANGE]);
+
+			if (!chunkCullingEnabled || id == cameraRegionId || (flags & FLAG_NEAR) != 0 || context.isBoxVisible(visData[OcclusionRegion.CULL_DATA_REGION_BOUNDS])) {
+				if (!chunkCullingEnabled || id == cameraRegionId) {
+					enqueueNeighbors(index, OcclusionRegion.ALL_FACE_FLAGS, frameIndex, nextLevel);
+				} else {
+					enqueueConnectedNeighbors(index, frameIndex, nextLevel);
+				}
+
+				visibleRegionIds.add(id);
+				context.occlude(visData);
+			}
+		}
+
+		this.currentLevel = currentLevel;
+		this.nextLevel = nextLevel;
+
+		return visibleRegionIds.size();
+	}
+
+	private void enqueueConnectedNeighbors(int index, int frameIndex, IntArrayList queue) {
+		enqueueNeighbors(index, OcclusionRegion.connectedFaceFlags(faceConnectivity.getLong(index), entryFaceFlags[index]), frameIndex, queue);
+	}
+
+	/** Same as BuiltRenderRegion, including regions entered again through new faces */
+	private void enqueueNeighbors(int index, int faceFlags, int frameIndex, IntArrayList queue) {
+		final int[] regions = this.regions.elements();
+		final int[] lastSeenFrameIndex = this.lastSeenFrameIndex;
+		final int[] entryFaceFlags = this.entryFaceFlags;
+		final int base = index * REGION_STRIDE + REGION_NEIGHBORS;
+		isExpanded[index] = true;
+		faceFlags &= ~exitFaceFlags[index];
+		exitFaceFlags[index] |= faceFlags;
+
+		while (faceFlags != 0) {
+			final int face = Integer.numberOfTrailingZeros(faceFlags);
+			final int id = regions[base + face];
+			faceFlags &= faceFlags - 1;
+
+			if (id != -1) {
+				final int neighborIndex = regionIndexMap.get(id);
+
+				if (neighborIndex != -1) {
+					final int entryFace = 1 << (face ^ 1);
+
+					if (lastSeenFrameIndex[neighborIndex] != frameIndex) {
+						lastSeenFrameIndex[neighborIndex] = frameIndex;
+						entryFaceFlags[neighborIndex] = entryFace;
+						exitFaceFlags[neighborIndex] = 0;
+						isExpanded[neighborIndex] = false;
+						queue.add(neighborIndex);
+					} else if ((entryFace & ~entryFaceFlags[neighborIndex]) != 0) {
+						entryFaceFlags[neighborIndex] |= entryFace;
+
+						if (isExpanded[neighborIndex]) {
+							queue.add(neighborIndex);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forces a full redraw and replays all regions in visit order, testing each region against
+	 * occluders drawn so far and drawing the region's occluders if it is visible.
+	 * Regions skipped by terrain iteration are skipped. Unlike {@link #iterate(OcclusionContext, IntArrayList)}
+	 * all regions are tested and neighbor links are ignored.
+	 *
+	 * @return number of visible regions
+	 */
+	public int replay(OcclusionContext context) {
+		prepare(context);
+		return visit(context, true, true);
+	}
+
+	/**
+	 * Forces a full redraw and draws occluders for all non-empty regions without testing them.
+	 */
+	public void drawAll(OcclusionContext context) {
+		prepare(context);
+		visit(context, false, true);
+	}
+
+	/**
+	 * Tests all non-empty regions against occluders already in the given context without drawing.
+	 * Context must already be prepared for this scene, usually by a prior call to {@link #replay(OcclusionContext)}.
+	 *
+	 * @return number of visible regions
+	 */
+	public int testAll(OcclusionContext context) {
+		return visit(context, true, false);
+	}
+
+	private void prepare(OcclusionContext context) {
+		context.invalidate();
+		context.prepareScene(projection, model, cameraX, cameraY, cameraZ, context.viewVersion + 1, context.positionVersion, context.regionVersion);
+	}
+
+	private int visit(OcclusionContext context, boolean test, boolean draw) {
+		final int[] regions = this.regions.elements();
+		final int limit = regionCount();
+		int visibleCount = 0;
+
+		for (int i = 0; i < limit; ++i) {
+			final int base = i * REGION_STRIDE;
+			final int[] visData = occlusionData.get(i);
+
+			if (visData == null || visData == OcclusionRegion.EMPTY_CULL_DATA || (regions[base + REGION_FLAGS] & (FLAG_IN_FRUSTUM | FLAG_SHOULD_BUILD)) != (FLAG_IN_FRUSTUM | FLAG_SHOULD_BUILD)) {
+				continue;
+			}
+
+			context.prepareRegion(regions[base + REGION_X], regions[base + REGION_Y], regions[base + REGION_Z], regions[base + REGION_RANGE]);
+
+			if (!test || context.isBoxVisible(visData[OcclusionRegion.CULL_DATA_REGION_BOUNDS])) {
+				if (draw) {
+					context.occlude(visData);
+				}
+
+				++visibleCount;
+			}
+		}
+
+		return visibleCount;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		for (int i = 0; i < 16; ++i) {
+			out.writeFloat(projectionMatrix[i]);
+		}
+
+		for (int i = 0; i < 16; ++i) {
+			out.writeFloat(modelMatrix[i]);
+		}
+
+		for (int i = 0; i < PLANE_COUNT * 4; ++i) {
+			out.writeFloat(frustumPlanes[i]);
+		}
+
+		out.writeDouble(cameraX);
+		out.writeDouble(cameraY);
+		out.writeDouble(cameraZ);
+		out.writeInt(cameraRegionId);
+		out.writeBoolean(chunkCullingEnabled);
+
+		writeIds(out, startRegionIds);
+
+		final int limit = regionCount();
+		final int[] regions = this.regions.elements();
+		out.writeInt(limit);
+
+		for (int i = 0; i < limit; ++i) {
+			final int base = i * REGION_STRIDE;
+			out.writeInt(regions[base + REGION_ID]);
+			out.writeInt(regions[base + REGION_X]);
+			out.writeInt(regions[base + REGION_Y]);
+			out.writeInt(regions[base + REGION_Z]);
+			out.writeByte(regions[base + REGION_RANGE]);
+			out.writeByte(regions[base + REGION_FLAGS]);
+
+			for (int j = 0; j < 6; ++j) {
+				out.writeInt(regions[base + REGION_NEIGHBORS + j]);
+			}
+
+			final int[] visData = occlusionData.get(i);
+
+			// valid cull data always has at least one value, so zero length marks unbuilt regions
+			if (visData == null) {
+				out.writeShort(0);
+			} else {
+				out.writeShort(visData.length);
+
+				for (final int v : visData) {
+					out.writeInt(v);
+				}
+			}
+
+			out.writeLong(faceConnectivity.getLong(i));
+		}
+
+		writeIds(out, visibleRegionIds);
+	}
+
+	private static void writeIds(DataOutputStream out, IntArrayList ids) throws IOException {
+		out.writeInt(ids.size());
+
+		for (final int id : ids) {
+			out.writeInt(id);
+		}
+	}
+
+	public static OcclusionScene read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not an occlusion scene");
+		}
+
+		final int version = in.readInt();
+
+		if (version != VERSION) {
+			throw new IOException("Unsupported occlusion scene version " + version);
+		}
+
+		final float[] projectionMatrix = new float[16];
+		final float[] modelMatrix = new float[16];
+		final float[] frustumPlanes = new float[PLANE_COUNT * 4];
+
+		for (int i = 0; i < 16; ++i) {
+			projectionMatrix[i] = in.readFloat();
+		}
+
+		for (int i = 0; i < 16; ++i) {
+			modelMatrix[i] = in.readFloat();
+		}
+
+		for (int i = 0; i < PLANE_COUNT * 4; ++i) {
+			frustumPlanes[i] = in.readFloat();
+		}
+
+		final double cameraX = in.readDouble();
+		final double cameraY = in.readDouble();
+		final double cameraZ = in.readDouble();
+		final OcclusionScene result = new OcclusionScene(projectionMatrix, modelMatrix, frustumPlanes, cameraX, cameraY, cameraZ, in.readInt(), in.readBoolean());
+
+		readIds(in, result.startRegionIds);
+
+		final int limit = in.readInt();
+		final int[] neighborIds = new int[6];
+
+		for (int i = 0; i < limit; ++i) {
+			final int id = in.readInt();
+			final int x = in.readInt();
+			final int y = in.readInt();
+			final int z = in.readInt();
+			final int range = in.readByte();
+			final int flags = in.readByte();
+
+			for (int j = 0; j < 6; ++j) {
+				neighborIds[j] = in.readInt();
+			}
+
+			final int length = in.readUnsignedShort();
+			int[] visData = null;
+
+			if (length > 0) {
+				visData = new int[length];
+
+				for (int j = 0; j < length; ++j) {
+					visData[j] = in.readInt();
+				}
+
+				// iteration checks for empty regions by identity
+				if (length == 1 && visData[0] == PackedBox.EMPTY_BOX) {
+					visData = OcclusionRegion.EMPTY_CULL_DATA;
+				}
+			}
+
+			result.addRegion(id, x, y, z, range, flags, neighborIds, visData, in.readLong());
+		}
+
+		readIds(in, result.visibleRegionIds);
+
+		return result;
+	}
+
+	private static void readIds(DataInputStream in, IntArrayList ids) throws IOException {
+		final int limit = in.readInt();
+
+		for (int i = 0; i < limit; ++i) {
+			ids.add(in.readInt());
+		}
+	}
+}
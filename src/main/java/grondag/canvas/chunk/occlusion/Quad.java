@@ -1,44 +1,20 @@
 package grondag.canvas.chunk.occlusion;
 
 import static grondag.canvas.chunk.occlusion.Constants.*;
-import static grondag.canvas.chunk.occlusion.Data.ax0;
-import static grondag.canvas.chunk.occlusion.Data.ax1;
-import static grondag.canvas.chunk.occlusion.Data.ay0;
-import static grondag.canvas.chunk.occlusion.Data.ay1;
-import static grondag.canvas.chunk.occlusion.Data.bx0;
-import static grondag.canvas.chunk.occlusion.Data.bx1;
-import static grondag.canvas.chunk.occlusion.Data.by0;
-import static grondag.canvas.chunk.occlusion.Data.by1;
-import static grondag.canvas.chunk.occlusion.Data.clipX0;
-import static grondag.canvas.chunk.occlusion.Data.clipY0;
-import static grondag.canvas.chunk.occlusion.Data.cx0;
-import static grondag.canvas.chunk.occlusion.Data.cx1;
-import static grondag.canvas.chunk.occlusion.Data.cy0;
-import static grondag.canvas.chunk.occlusion.Data.cy1;
-import static grondag.canvas.chunk.occlusion.Data.dx0;
-import static grondag.canvas.chunk.occlusion.Data.dx1;
-import static grondag.canvas.chunk.occlusion.Data.dy0;
-import static grondag.canvas.chunk.occlusion.Data.dy1;
-import static grondag.canvas.chunk.occlusion.Data.events;
-import static grondag.canvas.chunk.occlusion.Data.maxTileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.maxTileOriginY;
-import static grondag.canvas.chunk.occlusion.Data.minPixelY;
-import static grondag.canvas.chunk.occlusion.Data.minTileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.position0;
-import static grondag.canvas.chunk.occlusion.Data.position1;
-import static grondag.canvas.chunk.occlusion.Data.position2;
-import static grondag.canvas.chunk.occlusion.Data.position3;
-import static grondag.canvas.chunk.occlusion.Data.tileIndex;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginY;
 import static grondag.canvas.chunk.occlusion.Indexer.tileIndex;
 
 import grondag.canvas.CanvasMod;
 
 
-public final class Quad {
-	private static void clipNear(int internal, int external) {
-		final int[] vertexData = Data.vertexData;
+abstract class Quad extends Tile {
+	Quad() {}
+
+	Quad(Data shared) {
+		super(shared);
+	}
+
+	private void clipNear(int internal, int external) {
+		final int[] vertexData = this.vertexData;
 
 		final float intX = Float.intBitsToFloat(vertexData[internal + PV_X]);
 		final float intY = Float.intBitsToFloat(vertexData[internal + PV_Y]);
@@ -66,7 +42,7 @@ public final class Quad {
 		clipY0 = Math.round(iw * y * HALF_PRECISE_HEIGHT) + HALF_PRECISE_HEIGHT;
 	}
 
-	static int prepareBounds(int v0, int v1, int v2, int v3) {
+	int prepareBounds(int v0, int v1, int v2, int v3) {
 		// puts bits in lexical order
 		final int split = needsNearClip(v3) | (needsNearClip(v2) << 1) | (needsNearClip(v1) << 2) | (needsNearClip(v0) << 3);
 
@@ -124,8 +100,8 @@ public final class Quad {
 		return BOUNDS_OUTSIDE_OR_TOO_SMALL;
 	}
 
-	private static int prepareBounds0000(int v0, int v1, int v2, int v3) {
-		final int[] vertexData = Data.vertexData;
+	private int prepareBounds0000(int v0, int v1, int v2, int v3) {
+		final int[] vertexData = this.vertexData;
 		int ax0, ay0, ax1, ay1;
 		int bx0, by0, bx1, by1;
 		int cx0, cy0, cx1, cy1;
@@ -218,43 +194,43 @@ public final class Quad {
 		final int position2 = edgePosition(cx0, cy0, cx1, cy1);
 		final int position3 = edgePosition(dx0, dy0, dx1, dy1);
 
-		Data.minPixelX = minPixelX;
-		Data.minPixelY = minPixelY;
-		Data.maxPixelX = maxPixelX;
-		Data.maxPixelY = maxPixelY;
-		Data.ax0 = ax0;
-		Data.ay0 = ay0;
-		Data.ax1 = ax1;
-		Data.ay1 = ay1;
-		Data.bx0 = bx0;
-		Data.by0 = by0;
-		Data.bx1 = bx1;
-		Data.by1 = by1;
-		Data.cx0 = cx0;
-		Data.cy0 = cy0;
-		Data.cx1 = cx1;
-		Data.cy1 = cy1;
-		Data.dx0 = dx0;
-		Data.dy0 = dy0;
-		Data.dx1 = dx1;
-		Data.dy1 = dy1;
-		Data.position0 = position0;
-		Data.position1 = position1;
-		Data.position2 = position2;
-		Data.position3 = position3;
+		this.minPixelX = minPixelX;
+		this.minPixelY = minPixelY;
+		this.maxPixelX = maxPixelX;
+		this.maxPixelY = maxPixelY;
+		this.ax0 = ax0;
+		this.ay0 = ay0;
+		this.ax1 = ax1;
+		this.ay1 = ay1;
+		this.bx0 = bx0;
+		this.by0 = by0;
+		this.bx1 = bx1;
+		this.by1 = by1;
+		this.cx0 = cx0;
+		this.cy0 = cy0;
+		this.cx1 = cx1;
+		this.cy1 = cy1;
+		this.dx0 = dx0;
+		this.dy0 = dy0;
+		this.dx1 = dx1;
+		this.dy1 = dy1;
+		this.position0 = position0;
+		this.position1 = position1;
+		this.position2 = position2;
+		this.position3 = position3;
 
 		final int eventKey = (position0 - 1) & EVENT_POSITION_MASK
 				| (((position1 - 1) & EVENT_POSITION_MASK) << 2)
 				| (((position2 - 1) & EVENT_POSITION_MASK) << 4)
 				| (((position3 - 1) & EVENT_POSITION_MASK) << 6);
 
-		EVENT_FILLERS[eventKey].apply();
+		EVENT_FILLERS[eventKey].apply(this);
 
 		return BOUNDS_IN;
 	}
 
 
-	//	private static void clipToGuards() {
+	//	private void clipToGuards() {
 	//		if ((((ax0 + GUARD_SIZE) | (ay0 + GUARD_SIZE) | (ax1 + GUARD_SIZE) | (ay1 + GUARD_SIZE)) & CLIP_MASK) != 0) {
 	//			clipLine(ax0, ay0, ax1, ay1);
 	//			ax0 = clipX0;
@@ -288,8 +264,8 @@ public final class Quad {
 	//		}
 	//	}
 
-	private static int prepareBounds0001(int v0, int v1, int v2, int ext3) {
-		final int[] vertexData = Data.vertexData;
+	private int prepareBounds0001(int v0, int v1, int v2, int ext3) {
+		final int[] vertexData = this.vertexData;
 		int ax0, ay0, ax1, ay1;
 		int bx0, by0, bx1, by1;
 		int cx0, cy0, cx1, cy1;
@@ -385,43 +361,43 @@ public final class Quad {
 		final int position2 = edgePosition(cx0, cy0, cx1, cy1);
 		final int position3 = edgePosition(dx0, dy0, dx1, dy1);
 
-		Data.minPixelX = minPixelX;
-		Data.minPixelY = minPixelY;
-		Data.maxPixelX = maxPixelX;
-		Data.maxPixelY = maxPixelY;
-		Data.ax0 = ax0;
-		Data.ay0 = ay0;
-		Data.ax1 = ax1;
-		Data.ay1 = ay1;
-		Data.bx0 = bx0;
-		Data.by0 = by0;
-		Data.bx1 = bx1;
-		Data.by1 = by1;
-		Data.cx0 = cx0;
-		Data.cy0 = cy0;
-		Data.cx1 = cx1;
-		Data.cy1 = cy1;
-		Data.dx0 = dx0;
-		Data.dy0 = dy0;
-		Data.dx1 = dx1;
-		Data.dy1 = dy1;
-		Data.position0 = position0;
-		Data.position1 = position1;
-		Data.position2 = position2;
-		Data.position3 = position3;
+		this.minPixelX = minPixelX;
+		this.minPixelY = minPixelY;
+		this.maxPixelX = maxPixelX;
+		this.maxPixelY = maxPixelY;
+		this.ax0 = ax0;
+		this.ay0 = ay0;
+		this.ax1 = ax1;
+		this.ay1 = ay1;
+		this.bx0 = bx0;
+		this.by0 = by0;
+		this.bx1 = bx1;
+		this.by1 = by1;
+		this.cx0 = cx0;
+		this.cy0 = cy0;
+		this.cx1 = cx1;
+		this.cy1 = cy1;
+		this.dx0 = dx0;
+		this.dy0 = dy0;
+		this.dx1 = dx1;
+		this.dy1 = dy1;
+		this.position0 = position0;
+		this.position1 = position1;
+		this.position2 = position2;
+		this.position3 = position3;
 
 		final int eventKey = (position0 - 1) & EVENT_POSITION_MASK
 				| (((position1 - 1) & EVENT_POSITION_MASK) << 2)
 				| (((position2 - 1) & EVENT_POSITION_MASK) << 4)
 				| (((position3 - 1) & EVENT_POSITION_MASK) << 6);
 
-		EVENT_FILLERS[eventKey].apply();
+		EVENT_FILLERS[eventKey].apply(this);
 
 		return BOUNDS_IN;
 	}
 
-	private static int prepareBounds0011(int v0, int v1, int ext2, int ext3) {
-		final int[] vertexData = Data.vertexData;
+	private int prepareBounds0011(int v0, int v1, int ext2, int ext3) {
+		final int[] vertexData = this.vertexData;
 		int ax0, ay0, ax1, ay1;
 		int bx0, by0, bx1, by1;
 		int cx0, cy0, cx1, cy1;
@@ -517,43 +493,43 @@ public final class Quad {
 		final int position2 = edgePosition(cx0, cy0, cx1, cy1);
 		final int position3 = edgePosition(dx0, dy0, dx1, dy1);
 
-		Data.minPixelX = minPixelX;
-		Data.minPixelY = minPixelY;
-		Data.maxPixelX = maxPixelX;
-		Data.maxPixelY = maxPixelY;
-		Data.ax0 = ax0;
-		Data.ay0 = ay0;
-		Data.ax1 = ax1;
-		Data.ay1 = ay1;
-		Data.bx0 = bx0;
-		Data.by0 = by0;
-		Data.bx1 = bx1;
-		Data.by1 = by1;
-		Data.cx0 = cx0;
-		Data.cy0 = cy0;
-		Data.cx1 = cx1;
-		Data.cy1 = cy1;
-		Data.dx0 = dx0;
-		Data.dy0 = dy0;
-		Data.dx1 = dx1;
-		Data.dy1 = dy1;
-		Data.position0 = position0;
-		Data.position1 = position1;
-		Data.position2 = position2;
-		Data.position3 = position3;
+		this.minPixelX = minPixelX;
+		this.minPixelY = minPixelY;
+		this.maxPixelX = maxPixelX;
+		this.maxPixelY = maxPixelY;
+		this.ax0 = ax0;
+		this.ay0 = ay0;
+		this.ax1 = ax1;
+		this.ay1 = ay1;
+		this.bx0 = bx0;
+		this.by0 = by0;
+		this.bx1 = bx1;
+		this.by1 = by1;
+		this.cx0 = cx0;
+		this.cy0 = cy0;
+		this.cx1 = cx1;
+		this.cy1 = cy1;
+		this.dx0 = dx0;
+		this.dy0 = dy0;
+		this.dx1 = dx1;
+		this.dy1 = dy1;
+		this.position0 = position0;
+		this.position1 = position1;
+		this.position2 = position2;
+		this.position3 = position3;
 
 		final int eventKey = (position0 - 1) & EVENT_POSITION_MASK
 				| (((position1 - 1) & EVENT_POSITION_MASK) << 2)
 				| (((position2 - 1) & EVENT_POSITION_MASK) << 4)
 				| (((position3 - 1) & EVENT_POSITION_MASK) << 6);
 
-		EVENT_FILLERS[eventKey].apply();
+		EVENT_FILLERS[eventKey].apply(this);
 
 		return BOUNDS_IN;
 	}
 
-	private static int prepareBounds0111(int v0, int ext1, int ext2, int ext3) {
-		final int[] vertexData = Data.vertexData;
+	private int prepareBounds0111(int v0, int ext1, int ext2, int ext3) {
+		final int[] vertexData = this.vertexData;
 		int ax0, ay0, ax1, ay1;
 		int bx0, by0, bx1, by1;
 		int cx0, cy0, cx1, cy1;
@@ -645,484 +621,484 @@ public final class Quad {
 		final int position2 = edgePosition(cx0, cy0, cx1, cy1);
 		final int position3 = edgePosition(dx0, dy0, dx1, dy1);
 
-		Data.minPixelX = minPixelX;
-		Data.minPixelY = minPixelY;
-		Data.maxPixelX = maxPixelX;
-		Data.maxPixelY = maxPixelY;
-		Data.ax0 = ax0;
-		Data.ay0 = ay0;
-		Data.ax1 = ax1;
-		Data.ay1 = ay1;
-		Data.bx0 = bx0;
-		Data.by0 = by0;
-		Data.bx1 = bx1;
-		Data.by1 = by1;
-		Data.cx0 = cx0;
-		Data.cy0 = cy0;
-		Data.cx1 = cx1;
-		Data.cy1 = cy1;
-		Data.dx0 = dx0;
-		Data.dy0 = dy0;
-		Data.dx1 = dx1;
-		Data.dy1 = dy1;
-		Data.position0 = position0;
-		Data.position1 = position1;
-		Data.position2 = position2;
-		Data.position3 = position3;
+		this.minPixelX = minPixelX;
+		this.minPixelY = minPixelY;
+		this.maxPixelX = maxPixelX;
+		this.maxPixelY = maxPixelY;
+		this.ax0 = ax0;
+		this.ay0 = ay0;
+		this.ax1 = ax1;
+		this.ay1 = ay1;
+		this.bx0 = bx0;
+		this.by0 = by0;
+		this.bx1 = bx1;
+		this.by1 = by1;
+		this.cx0 = cx0;
+		this.cy0 = cy0;
+		this.cx1 = cx1;
+		this.cy1 = cy1;
+		this.dx0 = dx0;
+		this.dy0 = dy0;
+		this.dx1 = dx1;
+		this.dy1 = dy1;
+		this.position0 = position0;
+		this.position1 = position1;
+		this.position2 = position2;
+		this.position3 = position3;
 
 		final int eventKey = (position0 - 1) & EVENT_POSITION_MASK
 				| (((position1 - 1) & EVENT_POSITION_MASK) << 2)
 				| (((position2 - 1) & EVENT_POSITION_MASK) << 4)
 				| (((position3 - 1) & EVENT_POSITION_MASK) << 6);
 
-		EVENT_FILLERS[eventKey].apply();
+		EVENT_FILLERS[eventKey].apply(this);
 
 		return BOUNDS_IN;
 	}
 
 	@FunctionalInterface interface EventFiller {
-		void apply();
+		void apply(Quad q);
 	}
 
 	private static EventFiller[] EVENT_FILLERS = new EventFiller[0x1000];
 
 	static  {
-		EVENT_FILLERS[EVENT_0123_RRRR] = () -> {
-			populateLeftEvents();
-			populateRightEvents4(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LRRR] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents3(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FRRR] = () -> {
-			populateLeftEvents();
-			populateRightEvents3(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLRR] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents3(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LLRR] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateRightEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FLRR] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFRR] = () -> {
-			populateLeftEvents();
-			populateRightEvents3(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFRR] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFRR] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-		};
-
-		EVENT_FILLERS[EVENT_0123_RRLR] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LRLR] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateRightEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FRLR] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLLR] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LLLR] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FLLR] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFLR] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFLR] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFLR] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-		};
-
-		EVENT_FILLERS[EVENT_0123_LRFR] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRFR] = () -> {
-			populateLeftEvents();
-			populateRightEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FRFR] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLFR] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LLFR] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FLFR] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFFR] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFFR] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFFR] = () -> {
-			populateLeftEvents();
-			populateRightEvents(dx0, dy0, dx1, dy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-
-
-		EVENT_FILLERS[EVENT_0123_RRRL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LRRL] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateRightEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FRRL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLRL] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-		};
-		EVENT_FILLERS[EVENT_0123_LLRL] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-		};
-		EVENT_FILLERS[EVENT_0123_FLRL] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFRL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFRL] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFRL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRLL] = () -> {
-			populateLeftEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-		};
-		EVENT_FILLERS[EVENT_0123_LRLL] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-		};
-		EVENT_FILLERS[EVENT_0123_FRLL] = () -> {
-			populateLeftEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLLL] = () -> {
-			populateLeftEvents3(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-		};
-		EVENT_FILLERS[EVENT_0123_LLLL] = () -> {
-			populateLeftEvents4(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-		};
-		EVENT_FILLERS[EVENT_0123_FLLL] = () -> {
-			populateLeftEvents3(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFLL] = () -> {
-			populateLeftEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFLL] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFLL] = () -> {
-			populateLeftEvents2(cx0, cy0, cx1, cy1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-		};
-		EVENT_FILLERS[EVENT_0123_LRFL] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRFL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FRFL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLFL] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LLFL] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FLFL] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFFL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFFL] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFFL] = () -> {
-			populateLeftEvents(dx0, dy0, dx1, dy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRRF] = () -> {
-			populateLeftEvents();
-			populateRightEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LRRF] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FRRF] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLRF] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LLRF] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FLRF] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFRF] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFRF] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFRF] = () -> {
-			populateLeftEvents();
-			populateRightEvents(cx0, cy0, cx1, cy1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRLF] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LRLF] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FRLF] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLLF] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LLLF] = () -> {
-			populateLeftEvents3(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents();
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FLLF] = () -> {
-			populateLeftEvents2(bx0, by0, bx1, by1, cx0, cy0, cx1, cy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFLF] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFLF] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, cx0, cy0, cx1, cy1);
-			populateRightEvents();
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFLF] = () -> {
-			populateLeftEvents(cx0, cy0, cx1, cy1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LRFF] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RRFF] = () -> {
-			populateLeftEvents();
-			populateRightEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FRFF] = () -> {
-			populateLeftEvents();
-			populateRightEvents(bx0, by0, bx1, by1);
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RLFF] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LLFF] = () -> {
-			populateLeftEvents2(ax0, ay0, ax1, ay1, bx0, by0, bx1, by1);
-			populateRightEvents();
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FLFF] = () -> {
-			populateLeftEvents(bx0, by0, bx1, by1);
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_RFFF] = () -> {
-			populateLeftEvents();
-			populateRightEvents(ax0, ay0, ax1, ay1);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_LFFF] = () -> {
-			populateLeftEvents(ax0, ay0, ax1, ay1);
-			populateRightEvents();
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
-		};
-		EVENT_FILLERS[EVENT_0123_FFFF] = () -> {
+		EVENT_FILLERS[EVENT_0123_RRRR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents4(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LRRR] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents3(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FRRR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents3(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLRR] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LLRR] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FLRR] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFRR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFRR] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFRR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+
+		EVENT_FILLERS[EVENT_0123_RRLR] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LRLR] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FRLR] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLLR] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LLLR] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FLLR] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFLR] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFLR] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFLR] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+
+		EVENT_FILLERS[EVENT_0123_LRFR] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRFR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FRFR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLFR] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LLFR] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FLFR] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFFR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFFR] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFFR] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+
+
+		EVENT_FILLERS[EVENT_0123_RRRL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LRRL] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FRRL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLRL] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+		};
+		EVENT_FILLERS[EVENT_0123_LLRL] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+		};
+		EVENT_FILLERS[EVENT_0123_FLRL] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFRL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFRL] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFRL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRLL] = q -> {
+			q.populateLeftEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+		};
+		EVENT_FILLERS[EVENT_0123_LRLL] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+		};
+		EVENT_FILLERS[EVENT_0123_FRLL] = q -> {
+			q.populateLeftEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLLL] = q -> {
+			q.populateLeftEvents3(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+		};
+		EVENT_FILLERS[EVENT_0123_LLLL] = q -> {
+			q.populateLeftEvents4(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+		};
+		EVENT_FILLERS[EVENT_0123_FLLL] = q -> {
+			q.populateLeftEvents3(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFLL] = q -> {
+			q.populateLeftEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFLL] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFLL] = q -> {
+			q.populateLeftEvents2(q.cx0, q.cy0, q.cx1, q.cy1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+		};
+		EVENT_FILLERS[EVENT_0123_LRFL] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRFL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FRFL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLFL] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LLFL] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FLFL] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFFL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFFL] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFFL] = q -> {
+			q.populateLeftEvents(q.dx0, q.dy0, q.dx1, q.dy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRRF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LRRF] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FRRF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLRF] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LLRF] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FLRF] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFRF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFRF] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFRF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRLF] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LRLF] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FRLF] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLLF] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LLLF] = q -> {
+			q.populateLeftEvents3(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FLLF] = q -> {
+			q.populateLeftEvents2(q.bx0, q.by0, q.bx1, q.by1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFLF] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFLF] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFLF] = q -> {
+			q.populateLeftEvents(q.cx0, q.cy0, q.cx1, q.cy1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LRFF] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RRFF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FRFF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RLFF] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LLFF] = q -> {
+			q.populateLeftEvents2(q.ax0, q.ay0, q.ax1, q.ay1, q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FLFF] = q -> {
+			q.populateLeftEvents(q.bx0, q.by0, q.bx1, q.by1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_RFFF] = q -> {
+			q.populateLeftEvents();
+			q.populateRightEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_LFFF] = q -> {
+			q.populateLeftEvents(q.ax0, q.ay0, q.ax1, q.ay1);
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
+		};
+		EVENT_FILLERS[EVENT_0123_FFFF] = q -> {
 			// fill it
-			populateLeftEvents();
-			populateRightEvents();
-			populateFlatEvents(position0, ay0);
-			populateFlatEvents(position1, by0);
-			populateFlatEvents(position2, cy0);
-			populateFlatEvents(position3, dy0);
+			q.populateLeftEvents();
+			q.populateRightEvents();
+			q.populateFlatEvents(q.position0, q.ay0);
+			q.populateFlatEvents(q.position1, q.by0);
+			q.populateFlatEvents(q.position2, q.cy0);
+			q.populateFlatEvents(q.position3, q.dy0);
 		};
 
 	}
@@ -1136,7 +1112,7 @@ public final class Quad {
 		return (1 << (((-dy >> 31) | (dy >>> 31)) + 1)) | (1 << (((dx >> 31) | (-dx >>> 31)) + 4));
 	}
 
-	private static void populateFlatEvents(int position, int y0In) {
+	private void populateFlatEvents(int position, int y0In) {
 		if (position == EDGE_TOP) {
 			final int py = ((y0In + SCANT_PRECISE_PIXEL_CENTER) >> PRECISION_BITS) + 1;
 
@@ -1173,8 +1149,8 @@ public final class Quad {
 	}
 
 	/** Puts left edge at screen boundary */
-	private static void populateLeftEvents() {
-		final int[] events = Data.events;
+	private void populateLeftEvents() {
+		final int[] events = this.events;
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		final int limit = (y1 << 1);
@@ -1184,7 +1160,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateLeftEvents(int x0In, int y0In, int x1In, int y1In) {
+	private void populateLeftEvents(int x0In, int y0In, int x1In, int y1In) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		final int limit = (y1 << 1);
@@ -1209,8 +1185,8 @@ public final class Quad {
 		}
 	}
 
-	private static void populateRightEvents() {
-		final int[] events = Data.events;
+	private void populateRightEvents() {
+		final int[] events = this.events;
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		// difference from left: is high index in pairs
@@ -1222,7 +1198,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateRightEvents(int x0In, int y0In, int x1In, int y1In) {
+	private void populateRightEvents(int x0In, int y0In, int x1In, int y1In) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		// difference from left: is high index in pairs
@@ -1250,7 +1226,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateLeftEvents2(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1) {
+	private void populateLeftEvents2(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		final int limit = (y1 << 1);
@@ -1292,7 +1268,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateLeftEvents3(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1) {
+	private void populateLeftEvents3(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		final int limit = (y1 << 1);
@@ -1349,7 +1325,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateLeftEvents4(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1, int dx0, int dy0, int dx1, int dy1) {
+	private void populateLeftEvents4(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1, int dx0, int dy0, int dx1, int dy1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		final int limit = (y1 << 1);
@@ -1421,7 +1397,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateRightEvents2(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1) {
+	private void populateRightEvents2(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		// difference from left: is high index in pairs
@@ -1468,7 +1444,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateRightEvents3(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1) {
+	private void populateRightEvents3(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		// difference from left: is high index in pairs
@@ -1532,7 +1508,7 @@ public final class Quad {
 		}
 	}
 
-	private static void populateRightEvents4(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1, int dx0, int dy0, int dx1, int dy1) {
+	private void populateRightEvents4(int ax0, int ay0, int ax1, int ay1, int bx0, int by0, int bx1, int by1, int cx0, int cy0, int cx1, int cy1, int dx0, int dy0, int dx1, int dy1) {
 		final int y0 = minPixelY & TILE_AXIS_MASK;
 		final int y1 = maxTileOriginY + 7;
 		// difference from left: is high index in pairs
@@ -1614,8 +1590,8 @@ public final class Quad {
 
 	// For abandoned traversal scheme
 	//	static void populateTileEvents() {
-	//		final int[] events = Data.events;
-	//		final int[] tileEvents = Data.tileEvents;
+	//		final int[] events = this.events;
+	//		final int[] tileEvents = this.tileEvents;
 	//
 	//		int y = (minPixelY & TILE_AXIS_MASK) << 1;
 	//		final int ty0 = (y >> TILE_AXIS_SHIFT); //  NB: no left shift here because y already includes
@@ -1694,9 +1670,9 @@ public final class Quad {
 	//		}
 	//	}
 
-	static void setupVertex(final int baseIndex, final int x, final int y, final int z) {
-		final int[] data = Data.vertexData;
-		final Matrix4L mvpMatrix = Data.mvpMatrix;
+	void setupVertex(final int baseIndex, final int x, final int y, final int z) {
+		final int[] data = this.vertexData;
+		final Matrix4L mvpMatrix = this.mvpMatrix;
 
 		final float tx = mvpMatrix.transformVec4X(x, y, z) * Matrix4L.FLOAT_CONVERSION;
 		final float ty = mvpMatrix.transformVec4Y(x, y, z) * Matrix4L.FLOAT_CONVERSION;
@@ -1717,8 +1693,8 @@ public final class Quad {
 		}
 	}
 
-	static int needsNearClip(final int baseIndex) {
-		final int[] data = Data.vertexData;
+	int needsNearClip(final int baseIndex) {
+		final int[] data = this.vertexData;
 		final float w = Float.intBitsToFloat(data[baseIndex + PV_W]);
 		final float z = Float.intBitsToFloat(data[baseIndex + PV_Z]);
 
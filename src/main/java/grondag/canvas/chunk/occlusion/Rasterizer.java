@@ -3,23 +3,7 @@ package grondag.canvas.chunk.occlusion;
 import static grondag.canvas.chunk.occlusion.Constants.BOUNDS_OUTSIDE_OR_TOO_SMALL;
 import static grondag.canvas.chunk.occlusion.Constants.PIXEL_HEIGHT;
 import static grondag.canvas.chunk.occlusion.Constants.PIXEL_WIDTH;
-import static grondag.canvas.chunk.occlusion.Data.maxPixelX;
-import static grondag.canvas.chunk.occlusion.Data.maxPixelY;
-import static grondag.canvas.chunk.occlusion.Data.maxTileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.maxTileOriginY;
-import static grondag.canvas.chunk.occlusion.Data.minPixelX;
-import static grondag.canvas.chunk.occlusion.Data.minPixelY;
-import static grondag.canvas.chunk.occlusion.Data.minTileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.tileIndex;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginY;
-import static grondag.canvas.chunk.occlusion.Data.tiles;
-import static grondag.canvas.chunk.occlusion.Indexer.testPixel;
-import static grondag.canvas.chunk.occlusion.Quad.prepareBounds;
-import static grondag.canvas.chunk.occlusion.Tile.computeTileCoverage;
-import static grondag.canvas.chunk.occlusion.Tile.moveTileLeft;
-import static grondag.canvas.chunk.occlusion.Tile.moveTileRight;
-import static grondag.canvas.chunk.occlusion.Tile.moveTileUp;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_AXIS_SHIFT;
 
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.StringUtils;
@@ -28,10 +12,14 @@ import org.apache.commons.lang3.StringUtils;
 // Some elements are adapted from content found at
 // https://fgiesen.wordpress.com/2013/02/17/optimizing-sw-occlusion-culling-index/
 // by Fabian “ryg” Giesen. That content is in the public domain.
-abstract class Rasterizer  {
-	private Rasterizer() { }
+abstract class Rasterizer extends Quad {
+	Rasterizer() { }
 
-	static final void drawQuad(int v0, int v1, int v2, int v3) {
+	Rasterizer(Data shared) {
+		super(shared);
+	}
+
+	final void drawQuad(int v0, int v1, int v2, int v3) {
 		final int boundsResult  = prepareBounds(v0, v1, v2, v3);
 
 		if (boundsResult == BOUNDS_OUTSIDE_OR_TOO_SMALL) {
@@ -43,10 +31,15 @@ abstract class Rasterizer  {
 			return;
 		}
 
-		Rasterizer.drawQuad();
+		// nothing to do if already fully occluded
+		if (isTileRectFull(minPixelX >> TILE_AXIS_SHIFT, minPixelY >> TILE_AXIS_SHIFT, maxPixelX >> TILE_AXIS_SHIFT, maxPixelY >> TILE_AXIS_SHIFT)) {
+			return;
+		}
+
+		drawQuad();
 	}
 
-	static boolean testQuad(int v0, int v1, int v2, int v3) {
+	boolean testQuad(int v0, int v1, int v2, int v3) {
 		final int boundsResult  = prepareBounds(v0, v1, v2, v3);
 
 		if (boundsResult == BOUNDS_OUTSIDE_OR_TOO_SMALL) {
@@ -57,12 +50,14 @@ abstract class Rasterizer  {
 			final int px = minPixelX;
 			final int py = minPixelY;
 			return px >= 0 && py >= 0 && px < PIXEL_WIDTH && py < PIXEL_HEIGHT && testPixel(px, py);
+		} else if (isTileRectFull(minPixelX >> TILE_AXIS_SHIFT, minPixelY >> TILE_AXIS_SHIFT, maxPixelX >> TILE_AXIS_SHIFT, maxPixelY >> TILE_AXIS_SHIFT)) {
+			return false;
 		} else {
 			return testQuad();
 		}
 	}
 
-	static boolean testQuad() {
+	boolean testQuad() {
 		boolean goRight = true;
 
 		while(true) {
@@ -96,7 +91,7 @@ abstract class Rasterizer  {
 		}
 	}
 
-	static boolean testQuadInner() {
+	boolean testQuadInner() {
 		final long word = tiles[tileIndex];
 
 		// nothing to test if fully occluded
@@ -185,7 +180,7 @@ abstract class Rasterizer  {
 	//		}
 	//	}
 
-	static void drawQuad() {
+	void drawQuad() {
 		boolean goRight = true;
 
 		while(true) {
@@ -234,7 +229,7 @@ abstract class Rasterizer  {
 	//		return coverage;
 	//	}
 
-	static void drawQuadInner() {
+	void drawQuadInner() {
 		assert tileOriginY < PIXEL_HEIGHT;
 		assert tileOriginX < PIXEL_WIDTH;
 		assert tileOriginX >= 0;
@@ -245,6 +240,10 @@ abstract class Rasterizer  {
 		if  (word != -1L) {
 			word |= computeTileCoverage();
 			tiles[tileIndex] = word;
+
+			if (word == -1L) {
+				markTileFull(tileIndex);
+			}
 		}
 	}
 
@@ -0,0 +1,286 @@
+package grondag.canvas.chunk.occlusion;
+
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_COUNT;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.HALF_PIXEL_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.HALF_PIXEL_WIDTH;
+import static grondag.canvas.chunk.occlusion.Constants.PIXEL_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.PIXEL_WIDTH;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_AXIS_SHIFT;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_COUNT;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_PIXEL_DIAMETER;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_WIDTH;
+
+import java.util.Arrays;
+
+/**
+ * Carries occluder coverage from the prior frame into the current frame when the camera
+ * has turned but not moved. With no translation, screen positions in the two frames are
+ * related by a homography that doesn't depend on depth, so coverage can be resampled
+ * without a depth buffer.<p>
+ *
+ * Resampling is conservative: a pixel is covered only when every prior pixel overlapped by
+ * its reprojected footprint was covered. Tiles that sample only from inside the prior screen
+ * are marked clean, and regions that project entirely within clean tiles don't need
+ * their occluders redrawn. Each reprojection erodes edges slightly, so a full redraw
+ * is forced after a few consecutive frames.
+ */
+final class Reprojection {
+	/** Beyond this the newly exposed area is large enough that a full redraw is simpler */
+	private static final int MAX_SHIFT_PIXELS = 96;
+
+	private static final int MAX_CONSECUTIVE_FRAMES = 8;
+
+	/** Allows for float noise in translation terms - view bobbing is much larger than this */
+	private static final long MAX_TRANSLATION = 16;
+
+	private final Matrix4L priorMatrix = new Matrix4L();
+	private long priorViewX;
+	private long priorViewY;
+	private long priorViewZ;
+	private boolean hasPrior = false;
+	private int frameCount = 0;
+
+	private final long[] priorTiles = new long[TILE_COUNT];
+	private final long[] priorFullTiles = new long[GROUP_COUNT];
+	private final long[] priorFullGroups = new long[GROUP_HEIGHT];
+
+	/** One bit per tile, set when tile content is reliable. Same layout as {@link Data#fullTiles} */
+	final long[] cleanTiles = new long[GROUP_COUNT];
+	final long[] cleanGroups = new long[GROUP_HEIGHT];
+
+	/** True when current tile content was reprojected from the prior frame */
+	boolean isActive = false;
+
+	// maps current pixel coordinates to homogeneous prior pixel coordinates
+	private double h00, h01, h02;
+	private double h10, h11, h12;
+	private double h20, h21, h22;
+
+	/**
+	 * Call before the view matrix of the given context changes.
+	 */
+	void capture(OcclusionContext ctx) {
+		priorMatrix.copyFrom(ctx.baseMvpMatrix);
+		priorViewX = ctx.viewX;
+		priorViewY = ctx.viewY;
+		priorViewZ = ctx.viewZ;
+		hasPrior = ctx.viewVersion != -1;
+	}
+
+	void deactivate() {
+		isActive = false;
+		frameCount = 0;
+	}
+
+	/**
+	 * Replaces tile content of the given context with prior content reprojected to the current view.
+	 * Returns false with tiles unchanged if the view change is not suitable, in which case caller
+	 * must clear tiles and redraw everything.
+	 */
+	boolean apply(OcclusionContext ctx) {
+		if (!hasPrior || frameCount >= MAX_CONSECUTIVE_FRAMES
+				|| priorViewX != ctx.viewX || priorViewY != ctx.viewY || priorViewZ != ctx.viewZ
+				|| !computeHomography(priorMatrix, ctx.baseMvpMatrix)
+				|| !isShiftSmall(0, 0) || !isShiftSmall(PIXEL_WIDTH, 0)
+				|| !isShiftSmall(0, PIXEL_HEIGHT) || !isShiftSmall(PIXEL_WIDTH, PIXEL_HEIGHT)) {
+			deactivate();
+			return false;
+		}
+
+		System.arraycopy(ctx.tiles, 0, priorTiles, 0, TILE_COUNT);
+		System.arraycopy(ctx.fullTiles, 0, priorFullTiles, 0, GROUP_COUNT);
+		System.arraycopy(ctx.fullGroups, 0, priorFullGroups, 0, GROUP_HEIGHT);
+		ctx.clearTiles();
+		Arrays.fill(cleanTiles, 0);
+		Arrays.fill(cleanGroups, 0);
+
+		for (int tileY = 0; tileY < TILE_HEIGHT; ++tileY) {
+			for (int tileX = 0; tileX < TILE_WIDTH; ++tileX) {
+				reprojectTile(ctx, tileX, tileY);
+			}
+		}
+
+		++frameCount;
+		isActive = true;
+		return true;
+	}
+
+	private static boolean hasTranslation(Matrix4L m) {
+		return Math.abs(m.a03()) > MAX_TRANSLATION || Math.abs(m.a13()) > MAX_TRANSLATION || Math.abs(m.a33()) > MAX_TRANSLATION;
+	}
+
+	/**
+	 * Screen position depends on x, y and w rows only. Without translation those rows are a linear
+	 * map of view direction, so prior = A_prior * inverse(A_current) when both are in pixel space.
+	 */
+	private boolean computeHomography(Matrix4L prior, Matrix4L current) {
+		if (hasTranslation(prior) || hasTranslation(current)) {
+			return false;
+		}
+
+		// current x, y, w rows converted so that output is in pixel space
+		final double c00 = HALF_PIXEL_WIDTH * (current.a00() + current.a30());
+		final double c01 = HALF_PIXEL_WIDTH * (current.a01() + current.a31());
+		final double c02 = HALF_PIXEL_WIDTH * (current.a02() + current.a32());
+		final double c10 = HALF_PIXEL_HEIGHT * (current.a10() + current.a30());
+		final double c11 = HALF_PIXEL_HEIGHT * (current.a11() + current.a31());
+		final double c12 = HALF_PIXEL_HEIGHT * (current.a12() + current.a32());
+		final double c20 = current.a30();
+		final double c21 = current.a31();
+		final double c22 = current.a32();
+
+		final double i00 = c11 * c22 - c12 * c21;
+		final double i01 = c02 * c21 - c01 * c22;
+		final double i02 = c01 * c12 - c02 * c11;
+		final double i10 = c12 * c20 - c10 * c22;
+		final double i11 = c00 * c22 - c02 * c20;
+		final double i12 = c02 * c10 - c00 * c12;
+		final double i20 = c10 * c21 - c11 * c20;
+		final double i21 = c01 * c20 - c00 * c21;
+		final double i22 = c00 * c11 - c01 * c10;
+
+		final double det = c00 * i00 + c01 * i10 + c02 * i20;
+
+		if (det == 0 || !Double.isFinite(det)) {
+			return false;
+		}
+
+		// adjugate is enough - homogeneous result doesn't care about scale, only sign of w
+		final double s = det > 0 ? 1 : -1;
+
+		final double p00 = HALF_PIXEL_WIDTH * (prior.a00() + prior.a30());
+		final double p01 = HALF_PIXEL_WIDTH * (prior.a01() + prior.a31());
+		final double p02 = HALF_PIXEL_WIDTH * (prior.a02() + prior.a32());
+		final double p10 = HALF_PIXEL_HEIGHT * (prior.a10() + prior.a30());
+		final double p11 = HALF_PIXEL_HEIGHT * (prior.a11() + prior.a31());
+		final double p12 = HALF_PIXEL_HEIGHT * (prior.a12() + prior.a32());
+		final double p20 = prior.a30();
+		final double p21 = prior.a31();
+		final double p22 = prior.a32();
+
+		h00 = s * (p00 * i00 + p01 * i10 + p02 * i20);
+		h01 = s * (p00 * i01 + p01 * i11 + p02 * i21);
+		h02 = s * (p00 * i02 + p01 * i12 + p02 * i22);
+		h10 = s * (p10 * i00 + p11 * i10 + p12 * i20);
+		h11 = s * (p10 * i01 + p11 * i11 + p12 * i21);
+		h12 = s * (p10 * i02 + p11 * i12 + p12 * i22);
+		h20 = s * (p20 * i00 + p21 * i10 + p22 * i20);
+		h21 = s * (p20 * i01 + p21 * i11 + p22 * i21);
+		h22 = s * (p20 * i02 + p21 * i12 + p22 * i22);
+
+		return true;
+	}
+
+	private boolean isShiftSmall(double u, double v) {
+		final double w = h20 * u + h21 * v + h22;
+
+		if (w <= 0) {
+			return false;
+		}
+
+		final double du = (h00 * u + h01 * v + h02) / w - u;
+		final double dv = (h10 * u + h11 * v + h12) / w - v;
+		return du < MAX_SHIFT_PIXELS && du > -MAX_SHIFT_PIXELS && dv < MAX_SHIFT_PIXELS && dv > -MAX_SHIFT_PIXELS;
+	}
+
+	private void reprojectTile(OcclusionContext ctx, int tileX, int tileY) {
+		final int x0 = tileX << TILE_AXIS_SHIFT;
+		final int y0 = tileY << TILE_AXIS_SHIFT;
+		final int x1 = x0 + TILE_PIXEL_DIAMETER;
+		final int y1 = y0 + TILE_PIXEL_DIAMETER;
+
+		// w is linear, so positive at all corners means positive everywhere in the tile
+		final double w00 = h20 * x0 + h21 * y0 + h22;
+		final double w10 = h20 * x1 + h21 * y0 + h22;
+		final double w01 = h20 * x0 + h21 * y1 + h22;
+		final double w11 = h20 * x1 + h21 * y1 + h22;
+
+		if (w00 <= 0 || w10 <= 0 || w01 <= 0 || w11 <= 0) {
+			return;
+		}
+
+		final double u00 = (h00 * x0 + h01 * y0 + h02) / w00;
+		final double u10 = (h00 * x1 + h01 * y0 + h02) / w10;
+		final double u01 = (h00 * x0 + h01 * y1 + h02) / w01;
+		final double u11 = (h00 * x1 + h01 * y1 + h02) / w11;
+		final double v00 = (h10 * x0 + h11 * y0 + h12) / w00;
+		final double v10 = (h10 * x1 + h11 * y0 + h12) / w10;
+		final double v01 = (h10 * x0 + h11 * y1 + h12) / w01;
+		final double v11 = (h10 * x1 + h11 * y1 + h12) / w11;
+
+		// each pixel footprint overlaps up to 2x2 prior pixels, so pad by one pixel
+		final int sx0 = (int) Math.floor(Math.min(Math.min(u00, u10), Math.min(u01, u11))) - 1;
+		final int sx1 = (int) Math.floor(Math.max(Math.max(u00, u10), Math.max(u01, u11))) + 1;
+		final int sy0 = (int) Math.floor(Math.min(Math.min(v00, v10), Math.min(v01, v11))) - 1;
+		final int sy1 = (int) Math.floor(Math.max(Math.max(v00, v10), Math.max(v01, v11))) + 1;
+
+		if (sx1 < 0 || sy1 < 0 || sx0 >= PIXEL_WIDTH || sy0 >= PIXEL_HEIGHT) {
+			return;
+		}
+
+		final int tileIndex = Indexer.tileIndex(tileX, tileY);
+		final boolean inside = sx0 >= 0 && sy0 >= 0 && sx1 < PIXEL_WIDTH && sy1 < PIXEL_HEIGHT;
+
+		if (inside) {
+			Indexer.setTileBit(cleanTiles, cleanGroups, tileIndex);
+		}
+
+		final int tx0 = Math.max(0, sx0) >> TILE_AXIS_SHIFT;
+		final int ty0 = Math.max(0, sy0) >> TILE_AXIS_SHIFT;
+		final int tx1 = Math.min(PIXEL_WIDTH - 1, sx1) >> TILE_AXIS_SHIFT;
+		final int ty1 = Math.min(PIXEL_HEIGHT - 1, sy1) >> TILE_AXIS_SHIFT;
+
+		if (inside && Indexer.isTileRectSet(priorFullTiles, priorFullGroups, tx0, ty0, tx1, ty1)) {
+			ctx.tiles[tileIndex] = -1L;
+			ctx.markTileFull(tileIndex);
+			return;
+		}
+
+		final long[] priorTiles = this.priorTiles;
+		long any = 0;
+
+		for (int ty = ty0; ty <= ty1; ++ty) {
+			for (int tx = tx0; tx <= tx1; ++tx) {
+				any |= priorTiles[Indexer.tileIndex(tx, ty)];
+			}
+		}
+
+		if (any == 0) {
+			return;
+		}
+
+		long word = 0;
+
+		for (int y = 0; y < TILE_PIXEL_DIAMETER; ++y) {
+			final double v = y0 + y + 0.5;
+
+			for (int x = 0; x < TILE_PIXEL_DIAMETER; ++x) {
+				final double u = x0 + x + 0.5;
+				final double w = h20 * u + h21 * v + h22;
+				final double su = (h00 * u + h01 * v + h02) / w;
+				final double sv = (h10 * u + h11 * v + h12) / w;
+				final int px0 = (int) Math.floor(su - 0.5);
+				final int py0 = (int) Math.floor(sv - 0.5);
+				final int px1 = (int) Math.ceil(su + 0.5) - 1;
+				final int py1 = (int) Math.ceil(sv + 0.5) - 1;
+
+				if (isPriorSet(px0, py0) && isPriorSet(px1, py0) && isPriorSet(px0, py1) && isPriorSet(px1, py1)) {
+					word |= 1L << ((y << TILE_AXIS_SHIFT) | x);
+				}
+			}
+		}
+
+		ctx.tiles[tileIndex] = word;
+
+		if (word == -1L) {
+			ctx.markTileFull(tileIndex);
+		}
+	}
+
+	private boolean isPriorSet(int x, int y) {
+		return x >= 0 && y >= 0 && x < PIXEL_WIDTH && y < PIXEL_HEIGHT
+				&& (priorTiles[Indexer.lowIndexFromPixelXY(x, y)] & (1L << Indexer.pixelIndex(x, y))) != 0;
+	}
+}
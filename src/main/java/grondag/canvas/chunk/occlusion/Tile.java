@@ -8,23 +8,20 @@ import static grondag.canvas.chunk.occlusion.Constants.TILE_INDEX_HIGH_Y;
 import static grondag.canvas.chunk.occlusion.Constants.TILE_INDEX_LOW_X_MASK;
 import static grondag.canvas.chunk.occlusion.Constants.TILE_INDEX_LOW_Y;
 import static grondag.canvas.chunk.occlusion.Constants.TILE_INDEX_LOW_Y_MASK;
-import static grondag.canvas.chunk.occlusion.Data.events;
-import static grondag.canvas.chunk.occlusion.Data.save_tileIndex;
-import static grondag.canvas.chunk.occlusion.Data.save_tileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.save_tileOriginY;
-import static grondag.canvas.chunk.occlusion.Data.tileIndex;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginX;
-import static grondag.canvas.chunk.occlusion.Data.tileOriginY;
 import static grondag.canvas.chunk.occlusion.Indexer.tileIndex;
 
-abstract class Tile {
-	private Tile() {}
+abstract class Tile extends Indexer {
+	Tile() {}
+
+	Tile(Data shared) {
+		super(shared);
+	}
 
 	//	static boolean atRight() {
 	//		return tileOriginX >= maxTileOriginX;
 	//	}
 
-	static void moveTileRight() {
+	void moveTileRight() {
 		//		if (tileOriginX >= maxTileOriginX) {
 		//			return false;
 		//		}
@@ -47,7 +44,7 @@ abstract class Tile {
 	//		return tileOriginX <= minTileOriginX;
 	//	}
 
-	static void moveTileLeft() {
+	void moveTileLeft() {
 		//		if (tileOriginX <= minTileOriginX)  {
 		//			return false;
 		//		}
@@ -71,7 +68,7 @@ abstract class Tile {
 	//		return tileOriginY >= maxTileOriginY;
 	//	}
 
-	static void moveTileUp() {
+	void moveTileUp() {
 		//		if (tileOriginY >= maxTileOriginY) {
 		//			return  false;
 		//		}
@@ -91,13 +88,13 @@ abstract class Tile {
 		//		return  true;
 	}
 
-	static void pushTile() {
+	void pushTile() {
 		save_tileOriginX = tileOriginX;
 		save_tileOriginY = tileOriginY;
 		save_tileIndex = tileIndex;
 	}
 
-	static void popTile() {
+	void popTile() {
 		tileOriginX = save_tileOriginX;
 		tileOriginY = save_tileOriginY;
 		tileIndex = save_tileIndex;
@@ -147,7 +144,7 @@ abstract class Tile {
 	//		return oldResult;
 	//	}
 
-	static long computeTileCoverage() {
+	long computeTileCoverage() {
 		final int[] e = events;
 
 		int y = tileOriginY << 1;
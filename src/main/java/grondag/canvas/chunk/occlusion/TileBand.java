@@ -0,0 +1,201 @@
+package grondag.canvas.chunk.occlusion;
+
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_HEIGHT;
+import static grondag.canvas.chunk.occlusion.Constants.GROUP_PIXEL_DIAMETER;
+import static grondag.canvas.chunk.occlusion.Constants.MAX_PIXEL_Y;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_AXIS_SHIFT;
+import static grondag.canvas.chunk.occlusion.Constants.TILE_PIXEL_DIAMETER;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import grondag.canvas.chunk.occlusion.region.PackedBox;
+
+/**
+ * Draws occluders into a horizontal band of tile rows in the tile bitmap of a parent context.
+ * Before drawing, the parent's thread bins each occluder box into every band its projected
+ * y-extent overlaps, and each band then draws only the boxes in its own bin, visiting only
+ * tiles in its own rows. Bands never share tiles, so they can draw concurrently and because
+ * tile coverage is combined with OR the result is identical to drawing every quad serially
+ * in the parent.
+ */
+final class TileBand extends OcclusionContext {
+	/** Regions with fewer occluder boxes than this are cheaper to draw serially */
+	static final int MIN_BINNED_BOX_COUNT = 16;
+
+	static final int BAND_COUNT = bandCount();
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(BAND_COUNT - 1, pool -> {
+		final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("Canvas Occlusion Thread - " + thread.getPoolIndex());
+		return thread;
+	}, null, false);
+
+	private final OcclusionContext parent;
+	private final int minBandOriginY;
+	private final int maxBandOriginY;
+	private final ForkJoinTask<?> task;
+
+	/** Pixel rows covered by this band, inclusive */
+	private final int minBandPixelY;
+	private final int maxBandPixelY;
+
+	/** Occluder boxes overlapping this band, in the same near-to-far order as region occlusion data */
+	private int[] boxes = new int[256];
+	private int boxCount;
+
+	private TileBand(OcclusionContext parent, int index) {
+		super(parent);
+		this.parent = parent;
+		// bands are aligned to rows of tile groups so that coarse occlusion masks are never shared
+		minBandOriginY = (GROUP_HEIGHT * index / BAND_COUNT) * GROUP_PIXEL_DIAMETER;
+		maxBandOriginY = (GROUP_HEIGHT * (index + 1) / BAND_COUNT) * GROUP_PIXEL_DIAMETER - TILE_PIXEL_DIAMETER;
+		minBandPixelY = minBandOriginY;
+		maxBandPixelY = maxBandOriginY + TILE_PIXEL_DIAMETER - 1;
+		task = ForkJoinTask.adapt(this::drawBand);
+	}
+
+	private static int bandCount() {
+		final int threadCount = Runtime.getRuntime().availableProcessors() / 2;
+		return threadCount < 2 ? 2 : threadCount > GROUP_HEIGHT ? GROUP_HEIGHT : threadCount;
+	}
+
+	static TileBand[] create(OcclusionContext parent) {
+		final TileBand[] result = new TileBand[BAND_COUNT];
+
+		for (int i = 0; i < BAND_COUNT; ++i) {
+			result[i] = new TileBand(parent, i);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Draws the given occlusion data in all bands, using the calling thread for the first band.
+	 * Parent region state must already be prepared via {@link OcclusionContext#prepareRegion}.
+	 */
+	static void occlude(TileBand[] bands, int[] visData) {
+		bin(bands, visData);
+
+		final int limit = bands.length;
+
+		for (int i = 1; i < limit; ++i) {
+			final TileBand band = bands[i];
+
+			if (band.boxCount != 0) {
+				band.task.reinitialize();
+				POOL.execute(band.task);
+			}
+		}
+
+		final TileBand first = bands[0];
+
+		if (first.boxCount != 0) {
+			first.drawBand();
+		}
+
+		for (int i = 1; i < limit; ++i) {
+			final TileBand band = bands[i];
+
+			if (band.boxCount != 0) {
+				band.task.join();
+			}
+		}
+	}
+
+	/**
+	 * Projects each box within occlusion range using the parent context and adds it to every
+	 * band overlapped by its y-extent. Boxes that cross the near plane have no meaningful bounds
+	 * and go to every band.  Boxes are only drawn for tiles in the band, so bins need not be tight.
+	 */
+	private static void bin(TileBand[] bands, int[] visData) {
+		final int bandCount = bands.length;
+
+		for (int i = 0; i < bandCount; ++i) {
+			bands[i].boxCount = 0;
+		}
+
+		final OcclusionContext parent = bands[0].parent;
+		final int occlusionRange = parent.occlusionRange;
+		final int limit = visData.length;
+
+		for (int i = 1; i < limit; i++) {
+			final int box  = visData[i];
+
+			if (occlusionRange > PackedBox.range(box)) {
+				break;
+			}
+
+			if (parent.projectBox(box)) {
+				// pad by a pixel to allow for rounding differences with the rasterizer
+				final int minY = parent.projectedBoxMinY() - 1;
+				final int maxY = parent.projectedBoxMaxY() + 1;
+
+				if (maxY < 0 || minY > MAX_PIXEL_Y) {
+					continue;
+				}
+
+				for (int j = 0; j < bandCount; ++j) {
+					final TileBand band = bands[j];
+
+					if (minY <= band.maxBandPixelY && maxY >= band.minBandPixelY) {
+						band.addBox(box);
+					}
+				}
+			} else {
+				for (int j = 0; j < bandCount; ++j) {
+					bands[j].addBox(box);
+				}
+			}
+		}
+	}
+
+	private void addBox(int box) {
+		final int count = boxCount;
+
+		if (count == boxes.length) {
+			boxes = Arrays.copyOf(boxes, count * 2);
+		}
+
+		boxes[count] = box;
+		boxCount = count + 1;
+	}
+
+	private void drawBand() {
+		final OcclusionContext parent = this.parent;
+		mvpMatrix.copyFrom(parent.mvpMatrix);
+		offsetX = parent.offsetX;
+		offsetY = parent.offsetY;
+		offsetZ = parent.offsetZ;
+		occlusionRange = parent.occlusionRange;
+
+		final int[] boxes = this.boxes;
+		final int limit = boxCount;
+
+		for (int i = 0; i < limit; i++) {
+			occludeInner(boxes[i]);
+		}
+	}
+
+	@Override
+	void drawQuad() {
+		if (maxTileOriginY > maxBandOriginY) {
+			maxTileOriginY = maxBandOriginY;
+		}
+
+		if (tileOriginY < minBandOriginY) {
+			if (minBandOriginY > maxTileOriginY) {
+				return;
+			}
+
+			tileOriginY = minBandOriginY;
+			tileIndex = Indexer.tileIndex(tileOriginX >> TILE_AXIS_SHIFT, minBandOriginY >> TILE_AXIS_SHIFT);
+		} else if (tileOriginY > maxTileOriginY) {
+			return;
+		}
+
+		super.drawQuad();
+	}
+}
@@ -15,6 +15,9 @@ public class AreaFinder {
 
 	public static final int SECTION_COUNT;
 
+	/** Index in {@link #AREA} by x0 | y0 << 4 | x1 << 8 | y1 << 12 */
+	private static final char[] RECT_INDEX = new char[0x10000];
+
 	public Area get(int index) {
 		return AREA[index];
 	}
@@ -62,7 +65,9 @@ public class AreaFinder {
 
 		// PERF: minor, but sort keys instead array to avoid extra alloc at startup
 		for (int j = 0; j < AREA_COUNT; j++) {
-			AREA[j] = new Area(AREA[j].areaKey, j);
+			final Area a = new Area(AREA[j].areaKey, j);
+			AREA[j] = a;
+			RECT_INDEX[a.x0 | (a.y0 << 4) | (a.x1 << 8) | (a.y1 << 12)] = (char) j;
 		}
 
 		final ObjectArrayList<Area> sections = new ObjectArrayList<>();
@@ -82,25 +87,25 @@ public class AreaFinder {
 
 	public final ObjectArrayList<Area> areas =  new ObjectArrayList<>();
 
-	public void find(long[] bitsIn, int sourceIndex) {
-		areas.clear();
-		final long[] bits = this.bits;
-		System.arraycopy(bitsIn, sourceIndex, bits, 0, 4);
+	private final Consumer<Area> areaCollector = areas::add;
 
-		final long hash = AreaUtil.areaHash(bits);
+	/** Rows of the sample being searched, 16 bits each */
+	private final int[] rows = new int[16];
 
-		for(final Area r : AREA) {
-			if (r.matchesHash(hash) && r.isIncludedBySample(bits, 0)) {
-				areas.add(r);
-				r.clearBits(bits, 0);
+	/** Column heights for {@link #largestAreaSize()}, with a zero sentinel at the end */
+	private final int[] heights = new int[17];
+	private final int[] stack = new int[17];
 
-				if (hash == 0) {
-					break;
-				}
-			}
-		}
+	public void find(long[] bitsIn, int sourceIndex) {
+		find(bitsIn, sourceIndex, areaCollector);
 	}
 
+	/**
+	 * Covers the sample with areas, largest first.  Each area is the first area in {@link #AREA}
+	 * order that fits in the part of the sample not yet covered.  Rather than testing every area,
+	 * finds the size of the largest rectangle that fits and then tests only positions where a
+	 * rectangle of that size fits.
+	 */
 	public void find(long[] bitsIn, int sourceIndex, Consumer<Area> consumer) {
 		areas.clear();
 		final long[] bits = this.bits;
@@ -112,18 +117,27 @@ public class AreaFinder {
 			return;
 		}
 
-		final long hash = AreaUtil.areaHash(bits);
+		loadRows(bits, 0);
+		int size = largestAreaSize();
 
-		for(final Area r : AREA) {
-			if (r.matchesHash(hash) && r.isIncludedBySample(bits, 0)) {
-				consumer.accept(r);
-				r.clearBits(bits, 0);
-				bitCount -= r.areaSize;
+		while (true) {
+			// often more than one area of the same size
+			Area r = firstAreaOfSize(size);
 
-				if (bitCount == 0) {
-					break;
-				}
+			if (r == null) {
+				size = largestAreaSize();
+				r = firstAreaOfSize(size);
+			}
+
+			consumer.accept(r);
+			r.clearBits(bits, 0);
+			bitCount -= r.areaSize;
+
+			if (bitCount == 0) {
+				break;
 			}
+
+			loadRows(bits, 0);
 		}
 	}
 
@@ -147,15 +161,106 @@ public class AreaFinder {
 		}
 	}
 
-	// PERF: start later in search for smaller samples
-	// or search by hash
 	public Area findLargest(long[] bitsIn, int sourceIndex) {
-		for(final Area r : AREA) {
-			if (r.isIncludedBySample(bitsIn, sourceIndex)) {
-				return r;
+		loadRows(bitsIn, sourceIndex);
+		final int size = largestAreaSize();
+		return size == 0 ? null : firstAreaOfSize(size);
+	}
+
+	private void loadRows(long[] sample, int sampleStart) {
+		final int[] rows = this.rows;
+
+		for (int y = 0; y < 16; y++) {
+			rows[y] = (int) (sample[sampleStart + (y >> 2)] >>> ((y & 3) << 4)) & 0xFFFF;
+		}
+	}
+
+	/**
+	 * Size of the largest rectangle in the loaded rows, or zero if they are empty.
+	 * Treats each row as the base of a histogram of column heights and finds the largest
+	 * rectangle under it with a stack of increasing heights.
+	 */
+	private int largestAreaSize() {
+		final int[] rows = this.rows;
+		final int[] heights = this.heights;
+		final int[] stack = this.stack;
+		int result = 0;
+
+		Arrays.fill(heights, 0);
+
+		for (int y = 0; y < 16; y++) {
+			final int row = rows[y];
+
+			for (int x = 0; x < 16; x++) {
+				heights[x] = (row & (1 << x)) == 0 ? 0 : heights[x] + 1;
+			}
+
+			int top = 0;
+
+			for (int x = 0; x <= 16; x++) {
+				final int h = heights[x];
+
+				while (top > 0 && heights[stack[top - 1]] >= h) {
+					final int height = heights[stack[--top]];
+					final int width = top == 0 ? x : x - stack[top - 1] - 1;
+					final int area = height * width;
+
+					if (area > result) {
+						result = area;
+					}
+				}
+
+				stack[top++] = x;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * First area in {@link #AREA} order with the given size that fits in the loaded rows,
+	 * or null if none fit.  For each shape with that size, intersects rows to find the
+	 * columns covered by each band of rows, then finds where the band has enough
+	 * consecutive columns.
+	 */
+	private Area firstAreaOfSize(int size) {
+		final int[] rows = this.rows;
+		int result = Integer.MAX_VALUE;
+
+		for (int h = 1; h <= 16; h++) {
+			final int w = size / h;
+
+			if (w * h != size || w > 16) {
+				continue;
+			}
+
+			for (int y0 = 0; y0 <= 16 - h; y0++) {
+				int band = 0xFFFF;
+
+				for (int y = y0; y < y0 + h; y++) {
+					band &= rows[y];
+				}
+
+				// bit x is set if w columns starting at x are all set
+				int starts = band;
+
+				for (int k = 1; k < w && starts != 0; k++) {
+					starts &= band >>> k;
+				}
+
+				while (starts != 0) {
+					final int x0 = Integer.numberOfTrailingZeros(starts);
+					starts &= starts - 1;
+
+					final int index = RECT_INDEX[x0 | (y0 << 4) | ((x0 + w - 1) << 8) | ((y0 + h - 1) << 12)];
+
+					if (index < result) {
+						result = index;
+					}
+				}
 			}
 		}
 
-		return  null;
+		return result == Integer.MAX_VALUE ? null : AREA[result];
 	}
-}
\ No newline at end of file
+}
@@ -15,6 +15,9 @@ public class BoxFinder {
 	/** bits 0-15 indicate which slices contain the area with the same index of the value */
 	final int[] areaSlices = new int[AreaFinder.AREA_COUNT];
 
+	/** Indices of areas with non-zero {@link #areaSlices}, so passes only visit areas found in some slice */
+	private final IntArrayList markedAreas = new IntArrayList();
+
 	public final IntArrayList boxes = new IntArrayList();
 	private final LongArrayList sortedBoxes = new LongArrayList();
 
@@ -83,8 +86,11 @@ public class BoxFinder {
 	private void markBoxNeighborSlices() {
 		final AreaFinder areaFinder = this.areaFinder;
 		final int[] areaSlices = this.areaSlices;
+		final IntArrayList markedAreas = this.markedAreas;
+		final int limit = markedAreas.size();
 
-		for (int i = 0; i < AreaFinder.AREA_COUNT; ++i) {
+		for (int n = 0; n < limit; ++n) {
+			final int i = markedAreas.getInt(n);
 			int slice = areaSlices[i];
 
 			if (slice != 0) {
@@ -140,8 +146,11 @@ public class BoxFinder {
 
 		final AreaFinder areaFinder = this.areaFinder;
 		final int[] areaSlices = this.areaSlices;
+		final IntArrayList markedAreas = this.markedAreas;
+		final int limit = markedAreas.size();
 
-		for (int i = 0; i < AreaFinder.AREA_COUNT; ++i) {
+		for (int n = 0; n < limit; ++n) {
+			final int i = markedAreas.getInt(n);
 			final int slice = areaSlices[i];
 
 			if (slice != 0) {
@@ -190,14 +199,32 @@ public class BoxFinder {
 
 	int mask;
 
-	private final Consumer<Area> markSliceConsumer = a -> areaSlices[a.index] |= mask;
+	private final Consumer<Area> markSliceConsumer = a -> {
+		final int index = a.index;
+
+		if (areaSlices[index] == 0) {
+			markedAreas.add(index);
+		}
+
+		areaSlices[index] |= mask;
+	};
+
+	private void clearAreaSlices() {
+		final int[] areaSlices = this.areaSlices;
+		final IntArrayList markedAreas = this.markedAreas;
+		final int limit = markedAreas.size();
+
+		for (int n = 0; n < limit; ++n) {
+			areaSlices[markedAreas.getInt(n)] = 0;
+		}
+
+		markedAreas.clear();
+	}
 
-	// PERF: still slow on relative basis to rest of chunk baking
 	private void markBoxSlices() {
 		final long[] sourceBits = source;
 		final AreaFinder areaFinder = this.areaFinder;
-		final int[] areaSlices = this.areaSlices;
-		System.arraycopy(EMPTY_AREA_SLICES, 0, areaSlices, 0, AreaFinder.AREA_COUNT);
+		clearAreaSlices();
 		mask = 1;
 		int sourceIndex = 0;
 
@@ -211,8 +238,7 @@ public class BoxFinder {
 	private void markSectionSlices() {
 		final long[] sourceBits = source;
 		final AreaFinder areaFinder = this.areaFinder;
-		final int[] areaSlices = this.areaSlices;
-		System.arraycopy(EMPTY_AREA_SLICES, 0, areaSlices, 0, AreaFinder.AREA_COUNT);
+		clearAreaSlices();
 		mask = 1;
 		int sourceIndex = 0;
 
@@ -329,6 +355,4 @@ public class BoxFinder {
 		}
 	}
 
-	private final int[] EMPTY_AREA_SLICES = new int[AreaFinder.AREA_COUNT];
-
 }
@@ -16,6 +16,7 @@ package grondag.canvas.chunk.occlusion.region;
 
 import static grondag.canvas.chunk.RenderRegionAddressHelper.INTERIOR_CACHE_SIZE;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.INTERIOR_CACHE_WORDS;
+import static grondag.canvas.chunk.RenderRegionAddressHelper.SLICE_WORD_COUNT;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.TOTAL_CACHE_WORDS;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.interiorIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localCornerIndex;
@@ -26,17 +27,39 @@ import static grondag.canvas.chunk.RenderRegionAddressHelper.localYfaceIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localZEdgeIndex;
 import static grondag.canvas.chunk.RenderRegionAddressHelper.localZfaceIndex;
 
-import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import javax.annotation.Nullable;
+
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.util.math.Direction;
 
 public abstract class OcclusionRegion {
-	private final IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+	private static final int FACE_DOWN = Direction.DOWN.getId();
+	private static final int FACE_UP = Direction.UP.getId();
+	private static final int FACE_NORTH = Direction.NORTH.getId();
+	private static final int FACE_SOUTH = Direction.SOUTH.getId();
+	private static final int FACE_WEST = Direction.WEST.getId();
+	private static final int FACE_EAST = Direction.EAST.getId();
+
 	private final long[] bits = new long[WORD_COUNT];
+
+	/** Open interior positions reachable from open exterior faces, used during fill */
+	private final long[] reachBits = new long[INTERIOR_CACHE_WORDS];
+
+	/** Interior positions that are not closed, used during fill */
+	private final long[] openBits = new long[INTERIOR_CACHE_WORDS];
+
+	/** Surface positions with an open exterior neighbor, one array per face in face index order */
+	private final long[][] portalBits = new long[6][INTERIOR_CACHE_WORDS];
+
+	/** Open positions reachable from the portals of one face, used to find face connectivity */
+	private final long[] faceReachBits = new long[INTERIOR_CACHE_WORDS];
+
 	private int openCount;
+	private long faceConnectivity;
 	public final BoxFinder boxFinder = new BoxFinder(new AreaFinder());
 
 	private int minRenderableX;
@@ -67,6 +90,14 @@ public abstract class OcclusionRegion {
 		return (bits[(interiorIndex >> 6) + RENDERABLE_OFFSET] & (1L << (interiorIndex & 63))) != 0;
 	}
 
+	/**
+	 * Copies renderable flags of all interior positions, one bit per interior index.
+	 * Only valid after {@link #build(int[])}.
+	 */
+	public void copyRenderable(long[] target) {
+		System.arraycopy(bits, RENDERABLE_OFFSET, target, 0, INTERIOR_CACHE_WORDS);
+	}
+
 	protected void setVisibility(int index, boolean isRenderable, boolean isClosed) {
 		final long mask = (1L << (index & 63));
 		final int baseIndex = index >> 6;
@@ -157,24 +188,6 @@ public abstract class OcclusionRegion {
 		bits[(index >> 6) + EXTERIOR_VISIBLE_OFFSET] |= (1L << (index & 63));
 	}
 
-	// interior, not opaque and not already visited
-	private boolean canVisit(int index) {
-		// can't visit outside central chunk
-		if (index >= INTERIOR_CACHE_SIZE) {
-			return false;
-		}
-
-		final int baseIndex = index >> 6;
-		final long mask = 1L << (index & 63);
-
-		if((bits[baseIndex + EXTERIOR_VISIBLE_OFFSET] & mask) == 0) {
-			bits[baseIndex + EXTERIOR_VISIBLE_OFFSET] |= mask;
-			return (bits[baseIndex] & mask) == 0;
-		} else {
-			return false;
-		}
-	}
-
 	private void clearInteriorRenderable(int x, int y, int z) {
 		final int index = interiorIndex(x, y, z);
 		bits[(index >> 6) + RENDERABLE_OFFSET] &= ~(1L << (index & 63));
@@ -231,106 +244,274 @@ public abstract class OcclusionRegion {
 
 	/**
 	 * Removes renderable flag and marks closed if position has no open neighbors and is not visible from exterior.
+	 * Also finds bounds of renderable positions.
 	 */
 	private void hideInteriorClosedPositions() {
-		int minX = Integer.MAX_VALUE;
-		int minY = Integer.MAX_VALUE;
+		final long[] bits = this.bits;
+		int xBits = 0;
+		int yBits = 0;
 		int minZ = Integer.MAX_VALUE;
-		int maxX = Integer.MIN_VALUE;
-		int maxY = Integer.MIN_VALUE;
 		int maxZ = Integer.MIN_VALUE;
 
-		for (int i = 0; i < INTERIOR_CACHE_SIZE; i++) {
-			// PERF: iterate by word vs recomputing mask each time
-			final long mask = (1L << (i & 63));
-			final int wordIndex = (i >> 6);
+		for (int i = 0; i < INTERIOR_CACHE_WORDS; i++) {
+			//  TODO: disable in near chunks
+			final long hidden = ~(bits[i + EXTERIOR_VISIBLE_OFFSET] | EXTERIOR_MASK[i]);
 
-			final int x = i & 0xF;
-			final int y = (i >> 4) & 0xF;
-			final int z = (i >> 8) & 0xF;
+			// mark hidden positions opaque
+			bits[i] |= hidden;
 
-			//  TODO: disable in near chunks
-			if ((bits[wordIndex + EXTERIOR_VISIBLE_OFFSET] & mask) == 0 && x != 0 && y != 0 && z != 0 && x != 15 && y != 15 && z != 15) {
-
-				//				if((bits[wordIndex + EXTERIOR_VISIBLE_OFFSET] & mask) == 0 && isClosed(fastRelativeCacheIndex(x - 1, y, z)) && isClosed(fastRelativeCacheIndex(x + 1, y, z))
-				//						&& isClosed(fastRelativeCacheIndex(x, y - 1, z)) && isClosed(fastRelativeCacheIndex(x, y + 1, z))
-				//						&& isClosed(fastRelativeCacheIndex(x, y, z - 1)) && isClosed(fastRelativeCacheIndex(x, y, z + 1))) {
-				bits[wordIndex + RENDERABLE_OFFSET] &= ~mask;
-				// mark it opaque
-				bits[wordIndex] |= mask;
-			} else if ((bits[wordIndex + RENDERABLE_OFFSET] & mask) != 0){
-
-				// PERF: probably faster to do bit-wise analysis of words after the face
-				if (x < minX) {
-					minX = x;
-				} else if (x > maxX) {
-					maxX = x;
-				}
+			final long renderable = bits[i + RENDERABLE_OFFSET] & ~hidden;
+			bits[i + RENDERABLE_OFFSET] = renderable;
 
-				if (y < minY) {
-					minY = y;
-				} else if (y > maxY) {
-					maxY = y;
-				}
+			if (renderable != 0) {
+				// words are visited in z order
+				final int z = i / SLICE_WORD_COUNT;
 
 				if (z < minZ) {
 					minZ = z;
-				} else if (z > maxZ) {
-					maxZ = z;
+				}
+
+				maxZ = z;
+
+				// each word has four rows of sixteen x positions
+				xBits |= (int) (renderable | (renderable >>> 16) | (renderable >>> 32) | (renderable >>> 48)) & 0xFFFF;
+
+				final int yBase = (i & (SLICE_WORD_COUNT - 1)) << 2;
+
+				for (int row = 0; row < 4; row++) {
+					if (((renderable >>> (row << 4)) & 0xFFFF) != 0) {
+						yBits |= 1 << (yBase + row);
+					}
 				}
 			}
 		}
 
-		minRenderableX = minX;
-		minRenderableY = minY;
-		minRenderableZ = minZ;
-		// handle cases when min and max are same - logic in loop won't catch
-		maxRenderableX = maxX < minX ? minX : maxX;
-		maxRenderableY = maxY < minY ? minY : maxY;
-		maxRenderableZ = maxZ < minZ ? minZ : maxZ;
+		if (xBits == 0) {
+			minRenderableX = Integer.MAX_VALUE;
+		} else {
+			minRenderableX = Integer.numberOfTrailingZeros(xBits);
+			minRenderableY = Integer.numberOfTrailingZeros(yBits);
+			minRenderableZ = minZ;
+			maxRenderableX = 31 - Integer.numberOfLeadingZeros(xBits);
+			maxRenderableY = 31 - Integer.numberOfLeadingZeros(yBits);
+			maxRenderableZ = maxZ;
+		}
 	}
 
-	private void visitSurfaceIfPossible(int x, int y, int z) {
-		final int index = interiorIndex(x, y, z);
-
-		if (canVisit(index)) {
-			fill(index);
+	private void visitSurfaceIfOpen(int exteriorIndex, int x, int y, int z, long[] portal) {
+		if (!isClosed(exteriorIndex)) {
+			final int index = interiorIndex(x, y, z);
+			setVisited(index);
+			portal[index >> 6] |= (1L << (index & 63));
 		}
 	}
 
-	private int[] computeOcclusion() {
-		//		final RegionOcclusionData result = new RegionOcclusionData(null);
-		//
-		//		// determine which blocks are visible
+	/**
+	 * Marks open positions reachable from open exterior faces as visited, along with their neighbors.
+	 * Seeds are the surface positions already marked visited.
+	 *
+	 * The reachable set is grown one word at a time until no word changes.  Within a word, x runs along
+	 * sixteen-bit rows and y steps by row, so growth inside a word is a few shifts and masks. Growth
+	 * across words is y between adjacent words of a slice and z between slices. Passes alternate
+	 * direction so that paths running either way through the region are filled in a few passes.
+	 */
+	private void fill() {
+		final long[] bits = this.bits;
+		final long[] reachBits = this.reachBits;
+		final long[] openBits = this.openBits;
+
+		for (int i = 0; i < INTERIOR_CACHE_WORDS; i++) {
+			final long open = ~bits[i];
+			openBits[i] = open;
+			reachBits[i] = bits[i + EXTERIOR_VISIBLE_OFFSET] & open;
+		}
 
-		for (int i = 0; i < 16; i++) {
-			for (int j = 0; j < 16; j++) {
-				if (!isClosed(localXfaceIndex(false, i, j))) {
-					visitSurfaceIfPossible(0, i, j);
-				}
+		spread(reachBits, openBits);
 
-				if (!isClosed(localXfaceIndex(true, i, j))) {
-					visitSurfaceIfPossible(15, i, j);
-				}
+		// closed neighbors of reachable positions are visible
+		for (int i = 0; i < INTERIOR_CACHE_WORDS; i++) {
+			final long word = reachBits[i];
+			bits[i + EXTERIOR_VISIBLE_OFFSET] |= growWithinWord(word) | growAcrossWords(reachBits, i);
+		}
+	}
 
-				if (!isClosed(localZfaceIndex(i, j, false))) {
-					visitSurfaceIfPossible(i, j, 0);
+	/**
+	 * Grows set positions in words through adjacent positions set in mask until no word changes.
+	 * Set positions must already be within mask.
+	 */
+	private static void spread(long[] words, long[] mask) {
+		boolean forward = true;
+		boolean changed;
+
+		do {
+			changed = false;
+
+			for (int n = 0; n < INTERIOR_CACHE_WORDS; n++) {
+				final int i = forward ? n : INTERIOR_CACHE_WORDS - 1 - n;
+				final long open = mask[i];
+				final long prior = words[i];
+				long word = (prior | growAcrossWords(words, i)) & open;
+				long grown;
+
+				while ((grown = growWithinWord(word) & open) != word) {
+					word = grown;
 				}
 
-				if (!isClosed(localZfaceIndex(i, j, true))) {
-					visitSurfaceIfPossible(i, j, 15);
+				if (word != prior) {
+					words[i] = word;
+					changed = true;
 				}
+			}
 
-				if (!isClosed(localYfaceIndex(i, false, j))) {
-					visitSurfaceIfPossible(i, 0, j);
+			forward = !forward;
+		} while (changed);
+	}
+
+	/**
+	 * Finds which faces are joined by open space inside the region. Must follow {@link #fill()}, which leaves
+	 * every position reachable from any portal in reachBits, so each face only has to spread through those.
+	 * Result has one row of six face flags per face, see {@link #connectedFaceFlags(long, int)}.
+	 * A face with no portals has no connections, not even to itself.
+	 */
+	private long computeFaceConnectivity() {
+		final long[] reachBits = this.reachBits;
+		final long[] faceReachBits = this.faceReachBits;
+		final long[][] portalBits = this.portalBits;
+		int portalFaces = 0;
+
+		for (int face = 0; face < 6; face++) {
+			final long[] portal = portalBits[face];
+			long any = 0;
+
+			for (int i = 0; i < INTERIOR_CACHE_WORDS; i++) {
+				final long word = portal[i] & reachBits[i];
+				portal[i] = word;
+				any |= word;
+			}
+
+			if (any != 0) {
+				portalFaces |= 1 << face;
+			}
+		}
+
+		long result = 0;
+
+		if (openCount == INTERIOR_CACHE_SIZE) {
+			// nothing closed, so all open faces are one space
+			for (int face = 0; face < 6; face++) {
+				if ((portalFaces & (1 << face)) != 0) {
+					result |= (long) portalFaces << (face * 6);
 				}
+			}
+
+			return result;
+		}
+
+		final int lastFace = 31 - Integer.numberOfLeadingZeros(portalFaces);
 
-				if (!isClosed(localYfaceIndex(i, true, j))) {
-					visitSurfaceIfPossible(i, 15, j);
+		for (int face = 0; face < lastFace; face++) {
+			if ((portalFaces & (1 << face)) == 0) {
+				continue;
+			}
+
+			System.arraycopy(portalBits[face], 0, faceReachBits, 0, INTERIOR_CACHE_WORDS);
+			spread(faceReachBits, reachBits);
+
+			// connections to prior faces are already known from their rows
+			int row = (1 << face) | connectedFaceFlags(result, 1 << face);
+
+			for (int other = face + 1; other < 6; other++) {
+				if ((portalFaces & (1 << other)) != 0 && intersects(faceReachBits, portalBits[other])) {
+					row |= 1 << other;
+					result |= 1L << (other * 6 + face);
 				}
 			}
+
+			result |= (long) row << (face * 6);
+		}
+
+		// last face connects to self and to any earlier face that reached it
+		if (lastFace >= 0) {
+			result |= (long) ((1 << lastFace) | connectedFaceFlags(result, 1 << lastFace)) << (lastFace * 6);
+		}
+
+		return result;
+	}
+
+	private static boolean intersects(long[] a, long[] b) {
+		for (int i = 0; i < INTERIOR_CACHE_WORDS; i++) {
+			if ((a[i] & b[i]) != 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/** Bits in positions at x = 0 and x = 15 of each row */
+	private static final long ROW_START = 0x0001000100010001L;
+	private static final long ROW_END = 0x8000800080008000L;
+
+	/** Word with all positions adjacent to a set position in the same word, including the set positions */
+	private static long growWithinWord(long word) {
+		return word | ((word << 1) & ~ROW_START) | ((word >>> 1) & ~ROW_END) | (word << 16) | (word >>> 16);
+	}
+
+	/** Positions in word at given index adjacent to set positions in other words */
+	private static long growAcrossWords(long[] words, int index) {
+		final int slicePos = index & (SLICE_WORD_COUNT - 1);
+		long result = 0;
+
+		if (slicePos != 0) {
+			result |= words[index - 1] >>> 48;
+		}
+
+		if (slicePos != SLICE_WORD_COUNT - 1) {
+			result |= words[index + 1] << 48;
+		}
+
+		if (index >= SLICE_WORD_COUNT) {
+			result |= words[index - SLICE_WORD_COUNT];
+		}
+
+		if (index < INTERIOR_CACHE_WORDS - SLICE_WORD_COUNT) {
+			result |= words[index + SLICE_WORD_COUNT];
+		}
+
+		return result;
+	}
+
+	private int[] computeOcclusion(int[] prior) {
+		//		final RegionOcclusionData result = new RegionOcclusionData(null);
+		//
+		//		// determine which blocks are visible
+
+		final long[][] portalBits = this.portalBits;
+
+		for (int face = 0; face < 6; face++) {
+			System.arraycopy(EMPTY_BITS, 0, portalBits[face], 0, INTERIOR_CACHE_WORDS);
+		}
+
+		final long[] westPortal = portalBits[FACE_WEST];
+		final long[] eastPortal = portalBits[FACE_EAST];
+		final long[] northPortal = portalBits[FACE_NORTH];
+		final long[] southPortal = portalBits[FACE_SOUTH];
+		final long[] downPortal = portalBits[FACE_DOWN];
+		final long[] upPortal = portalBits[FACE_UP];
+
+		for (int i = 0; i < 16; i++) {
+			for (int j = 0; j < 16; j++) {
+				visitSurfaceIfOpen(localXfaceIndex(false, i, j), 0, i, j, westPortal);
+				visitSurfaceIfOpen(localXfaceIndex(true, i, j), 15, i, j, eastPortal);
+				visitSurfaceIfOpen(localZfaceIndex(i, j, false), i, j, 0, northPortal);
+				visitSurfaceIfOpen(localZfaceIndex(i, j, true), i, j, 15, southPortal);
+				visitSurfaceIfOpen(localYfaceIndex(i, false, j), i, 0, j, downPortal);
+				visitSurfaceIfOpen(localYfaceIndex(i, true, j), i, 15, j, upPortal);
+			}
 		}
 
+		fill();
+		faceConnectivity = computeFaceConnectivity();
 		hideInteriorClosedPositions();
 
 		final BoxFinder boxFinder = this.boxFinder;
@@ -339,8 +520,25 @@ public abstract class OcclusionRegion {
 		boxFinder.findBoxes(bits, 0);
 
 		final int boxCount = boxes.size();
+		final int bounds;
+
+		if (minRenderableX == Integer.MAX_VALUE) {
+			bounds = PackedBox.EMPTY_BOX;
+		} else {
+			if ((minRenderableX | minRenderableY | minRenderableZ) == 0 && (maxRenderableX & maxRenderableY & maxRenderableZ) == 15) {
+				bounds = PackedBox.FULL_BOX;
+			} else {
+				bounds = PackedBox.pack(minRenderableX, minRenderableY, minRenderableZ,
+						maxRenderableX + 1, maxRenderableY + 1, maxRenderableZ + 1, PackedBox.RANGE_EXTREME);
+			}
+		}
+
+		if (matches(prior, bounds, boxes)) {
+			return prior;
+		}
 
 		final int[] result = new int[boxCount + 1];
+		result[CULL_DATA_REGION_BOUNDS] = bounds;
 
 		int n = OcclusionRegion.CULL_DATA_FIRST_BOX;
 
@@ -350,87 +548,49 @@ public abstract class OcclusionRegion {
 			}
 		}
 
-		if (minRenderableX == Integer.MAX_VALUE) {
-			result[CULL_DATA_REGION_BOUNDS] = PackedBox.EMPTY_BOX;
-		} else {
-			if ((minRenderableX | minRenderableY | minRenderableZ) == 0 && (maxRenderableX & maxRenderableY & maxRenderableZ) == 15) {
-				result[CULL_DATA_REGION_BOUNDS] = PackedBox.FULL_BOX;
-			} else {
-				result[CULL_DATA_REGION_BOUNDS] = PackedBox.pack(minRenderableX, minRenderableY, minRenderableZ,
-						maxRenderableX + 1, maxRenderableY + 1, maxRenderableZ + 1, PackedBox.RANGE_EXTREME);
+		return result;
+	}
+
+	private static boolean matches(int[] prior, int bounds, IntArrayList boxes) {
+		final int boxCount = boxes.size();
+
+		if (prior == null || prior.length != boxCount + 1 || prior[CULL_DATA_REGION_BOUNDS] != bounds) {
+			return false;
+		}
+
+		for (int i = 0; i < boxCount; i++) {
+			if (prior[CULL_DATA_FIRST_BOX + i] != boxes.getInt(i)) {
+				return false;
 			}
 		}
 
-		return result;
+		return true;
 	}
 
-	public int[] build() {
+	/**
+	 * @param prior	Result of the previous build of the same region, or null.
+	 * Returned instead of a new array if the result is the same, so unchanged regions don't allocate.
+	 */
+	public int[] build(@Nullable int[] prior) {
 		if (openCount == 0) {
+			faceConnectivity = 0;
+
 			// only surface blocks are visible, and only if not covered
 
 			// PERF: should do this after hiding interior closed positions?
 			// PERF: should still compute render box instead of assuming it is full
 			adjustSurfaceVisbility();
 
+			if (prior != null && prior.length == 2 && prior[CULL_DATA_REGION_BOUNDS] == PackedBox.FULL_BOX && prior[CULL_DATA_FIRST_BOX] == PackedBox.FULL_BOX) {
+				return prior;
+			}
+
 			final int[] result = new int[2];
 			result[CULL_DATA_REGION_BOUNDS] = PackedBox.FULL_BOX;
 			result[CULL_DATA_FIRST_BOX] = PackedBox.FULL_BOX;
 			return result;
 		} else {
-			return computeOcclusion();
-		}
-	}
-
-	private  void fill(int xyz4) {
-		final int faceBits = 0;
-		setVisited(xyz4);
-		visit(xyz4, faceBits);
-
-		while (!queue.isEmpty()) {
-			final int nextXyz4 = queue.dequeueInt();
-			visit(nextXyz4, faceBits);
-		}
-	}
-
-	private void visit(int xyz4, int faceBits) {
-		final int x = xyz4 & 0xF;
-
-		if (x == 0) {
-			enqueIfUnvisited(xyz4 + 1);
-		} else if (x == 15) {
-			enqueIfUnvisited(xyz4 - 1);
-		} else {
-			enqueIfUnvisited(xyz4 - 1);
-			enqueIfUnvisited(xyz4 + 1);
-		}
-
-		final int y = xyz4 & 0xF0;
-
-		if (y == 0) {
-			enqueIfUnvisited(xyz4 + 0x10);
-		} else if (y == 0xF0) {
-			enqueIfUnvisited(xyz4 - 0x10);
-		} else {
-			enqueIfUnvisited(xyz4 - 0x10);
-			enqueIfUnvisited(xyz4 + 0x10);
-		}
-
-		final int z = xyz4 & 0xF00;
-
-		if (z == 0) {
-			enqueIfUnvisited(xyz4 + 0x100);
-		} else if (z == 0xF00) {
-			enqueIfUnvisited(xyz4 - 0x100);
-		} else {
-			enqueIfUnvisited(xyz4 - 0x100);
-			enqueIfUnvisited(xyz4 + 0x100);
-		}
-	}
-
-	private void enqueIfUnvisited(int xyz4) {
-		if (canVisit(xyz4)) {
-			setVisited(xyz4);
-			queue.enqueue(xyz4);
+			return computeOcclusion(prior);
 		}
 	}
 
@@ -472,4 +632,37 @@ public abstract class OcclusionRegion {
 	public static final int CULL_DATA_FIRST_BOX = 1;
 
 	public static final int[] EMPTY_CULL_DATA = {PackedBox.EMPTY_BOX};
+
+	/**
+	 * Which faces of the region are joined by open space, as found by the last {@link #build(int[])}.
+	 * Lets the visibility walk skip neighbors that can't be seen through the region.
+	 */
+	public long faceConnectivity() {
+		return faceConnectivity;
+	}
+
+	/** Face connectivity of regions with nothing closed, or that are never built */
+	public static final long ALL_FACES_CONNECTED = (1L << 36) - 1;
+
+	/** Face flags with all six faces set */
+	public static final int ALL_FACE_FLAGS = 0x3F;
+
+	/**
+	 * Face connectivity has six rows of six face flags, one row per face in face index order.
+	 * A face is connected to itself only if it has open positions shared with the neighboring region.
+	 *
+	 * @param entryFaceFlags  Faces where a path enters the region, as 1 << face index
+	 * @return Faces where a path entering any of the given faces can leave the region
+	 */
+	public static int connectedFaceFlags(long faceConnectivity, int entryFaceFlags) {
+		int result = 0;
+
+		while (entryFaceFlags != 0) {
+			final int face = Integer.numberOfTrailingZeros(entryFaceFlags);
+			result |= (int) (faceConnectivity >>> (face * 6)) & ALL_FACE_FLAGS;
+			entryFaceFlags &= entryFaceFlags - 1;
+		}
+
+		return result;
+	}
 }
@@ -22,6 +22,8 @@ import static grondag.canvas.chunk.RenderRegionAddressHelper.fastRelativeCacheIn
 import static grondag.canvas.chunk.RenderRegionAddressHelper.offsetMainChunkBlockIndex;
 import static grondag.canvas.light.AoFaceData.OPAQUE;
 
+import java.util.Arrays;
+
 import net.minecraft.client.util.math.Vector3f;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.MathHelper;
@@ -80,6 +82,35 @@ public abstract class AoCalculator {
 	 */
 	private int completionFlags = 0;
 
+	/**
+	 * indicates which elements of {@link #faceData} have a valid {@link AoFaceData#calc}
+	 * for the current block, possibly without the gathered values
+	 */
+	private int calcCompletionFlags = 0;
+
+	/**
+	 * Light and AO of face corners shared by neighboring blocks, packed by {@link AoFaceCalc#packCorner(int, int)}.
+	 * A corner is the meeting point of a 2x2 group of blocks within one layer of the region.  Faces on
+	 * either side of that layer and faces of all four blocks use the same corner value, so it is only
+	 * computed once per region build.
+	 *
+	 * Index is axis * CORNER_GRID_AXIS_SIZE + layer * 289 + low cell of first in-plane axis * 17
+	 * + low cell of second in-plane axis, all plus one so that -1 is index 0.
+	 */
+	private final int[] cornerGrid = new int[CORNER_GRID_AXIS_SIZE * 3];
+
+	/** True when {@link #cornerGrid} can be used - only for region builds */
+	private boolean useCornerGrid = false;
+
+	private static final int CORNER_GRID_AXIS_SIZE = 18 * 17 * 17;
+	private static final int CORNER_UNKNOWN = -1;
+
+	/** Corner value depends on which block is the center and must be computed per face */
+	private static final int CORNER_UNSHARED = -2;
+
+	/** receives HD lightmaps used by this calculator, if tracked */
+	private LightmapHd.Refs lightmapRefs;
+
 	/** holds per-corner weights - used locally to avoid new allocation. */
 	private final float[] w = new float[4];
 
@@ -121,6 +152,26 @@ public abstract class AoCalculator {
 		}
 	}
 
+	/**
+	 * Lightmaps found after this call will be acquired and added to the given references.
+	 * Pass null to stop tracking.
+	 */
+	public void trackLightmaps(LightmapHd.Refs refs) {
+		lightmapRefs = refs;
+	}
+
+	/**
+	 * Call at start of each region build, before the first block.  Lets blocks in the region
+	 * share face corner values.  Not for single block rendering, where cache indices don't
+	 * correspond to fixed world positions.
+	 */
+	public void prepareRegion() {
+		Arrays.fill(cornerGrid, CORNER_UNKNOWN);
+
+		// HD lightmaps use different corner AO, and only reach shared corners for irregular faces
+		useCornerGrid = !Configurator.hdLightmaps;
+	}
+
 	/**
 	 * call at start of each new block
 	 * @param index region-relative index - must be an interior index - for block context, will always be 0
@@ -128,6 +179,7 @@ public abstract class AoCalculator {
 	public void prepare(int index) {
 		regionRelativeCacheIndex = index;
 		completionFlags = 0;
+		calcCompletionFlags = 0;
 		blendCacheCompletionLowFlags = 0;
 		blendCacheCompletionHighFlags = 0;
 	}
@@ -185,7 +237,7 @@ public abstract class AoCalculator {
 
 	private void blockFace(MutableQuadViewImpl quad, boolean isOnLightFace) {
 		final int lightFace = quad.lightFaceId();
-		final AoFaceCalc faceData = gatherFace(lightFace, isOnLightFace).calc;
+		final AoFaceCalc faceData = faceCalc(lightFace, isOnLightFace);
 		final AoFace face = AoFace.get(lightFace);
 		final WeightFunction wFunc = face.weightFunc;
 		final float[] w = this.w;
@@ -210,7 +262,7 @@ public abstract class AoCalculator {
 			quad.v[i] = vFunc.apply(quad, i);
 		}
 
-		quad.hdLight = LightmapHd.find(faceData);
+		quad.hdLight = LightmapHd.find(quad, faceData, lightmapRefs);
 	}
 
 	private void flatFaceSmooth(MutableQuadViewImpl quad, int flatBrightness) {
@@ -226,7 +278,7 @@ public abstract class AoCalculator {
 			quad.v[i] = vFunc.apply(quad, i);
 		}
 
-		quad.hdLight = LightmapHd.find(faceData);
+		quad.hdLight = LightmapHd.find(quad, faceData, lightmapRefs);
 	}
 
 	/**
@@ -237,9 +289,9 @@ public abstract class AoCalculator {
 		final float w1 = AoFace.get(lightFace).depthFunc.apply(quad, vertexIndex);
 
 		if (w1 <= 0.03125f) {
-			return gatherFace(lightFace, true).calc;
+			return faceCalc(lightFace, true);
 		} else if (w1 >= 0.96875f) {
-			return gatherFace(lightFace, false).calc;
+			return faceCalc(lightFace, false);
 		} else {
 			final int blendIndex = blendIndex(lightFace, w1);
 			final AoFaceCalc result = blendCache[blendIndex];
@@ -247,8 +299,8 @@ public abstract class AoCalculator {
 			if (checkBlendDirty(blendIndex)) {
 				final float w0 = 1 - w1;
 				result.weightedMean(
-						gatherFace(lightFace, true).calc, w0,
-						gatherFace(lightFace, false).calc, w1);
+						faceCalc(lightFace, true), w0,
+						faceCalc(lightFace, false), w1);
 			}
 
 			return result;
@@ -288,7 +340,7 @@ public abstract class AoCalculator {
 			quad.v[i] = vFunc.apply(quad, i);
 		}
 
-		quad.hdLight = LightmapHd.find(faceData);
+		quad.hdLight = LightmapHd.find(quad, faceData, lightmapRefs);
 	}
 
 	/**
@@ -397,6 +449,166 @@ public abstract class AoCalculator {
 		return fd;
 	}
 
+	/**
+	 * Same result as {@code gatherFace(lightFace, isOnBlockFace).calc} but uses shared
+	 * corner values when it can, which is much cheaper after the first block in a region.
+	 */
+	private AoFaceCalc faceCalc(final int lightFace, boolean isOnBlockFace) {
+		final int faceDataIndex = isOnBlockFace ? lightFace : lightFace + 6;
+		final int mask = 1 << faceDataIndex;
+		final AoFaceData fd = faceData[faceDataIndex];
+
+		if (((completionFlags | calcCompletionFlags) & mask) == 0) {
+			calcCompletionFlags |= mask;
+
+			if (!useCornerGrid || !updateCalcFromCorners(fd.calc, lightFace, isOnBlockFace)) {
+				completionFlags |= mask;
+				updateFace(fd, lightFace, isOnBlockFace);
+			}
+		}
+
+		return fd.calc;
+	}
+
+	/**
+	 * @return false if any corner cannot be shared, in which case the face must be gathered
+	 */
+	private boolean updateCalcFromCorners(AoFaceCalc calc, final int lightFace, boolean isOnBlockFace) {
+		int index = regionRelativeCacheIndex;
+
+		// same center selection as updateFace
+		if (isOnBlockFace) {
+			final int offsetIndex = offsetMainChunkBlockIndex(index, ModelHelper.faceFromIndex(lightFace));
+
+			if(!isOpaque(offsetIndex)) {
+				index = offsetIndex;
+			}
+		}
+
+		// corner values assume the center is one of the clear samples
+		if (isOpaque(index)) {
+			return false;
+		}
+
+		final int packedXyz5 = cacheIndexToXyz5(index);
+		final int x = (packedXyz5 & 31) - 1;
+		final int y = ((packedXyz5 >> 5) & 31) - 1;
+		final int z = (packedXyz5 >> 10) - 1;
+
+		final AoFace aoFace = AoFace.get(lightFace);
+		final int axis = FACE_AXIS[lightFace];
+
+		final int bottomRight = corner(axis, x, y, z, aoFace.bottomRightVec);
+		final int bottomLeft = corner(axis, x, y, z, aoFace.bottomLeftVec);
+		final int topLeft = corner(axis, x, y, z, aoFace.topLeftVec);
+		final int topRight = corner(axis, x, y, z, aoFace.topRightVec);
+
+		if ((bottomRight | bottomLeft | topLeft | topRight) < 0) {
+			return false;
+		}
+
+		calc.setCorners(bottomRight, bottomLeft, topLeft, topRight);
+		return true;
+	}
+
+	private static final int[] FACE_AXIS = new int[6];
+
+	static {
+		for (final Direction face : Direction.values()) {
+			FACE_AXIS[face.ordinal()] = face.getAxis().ordinal();
+		}
+	}
+
+	/**
+	 * Steps to the second cell of a 2x2 corner group along the first and second in-plane axis.
+	 * Packed as x | y << 1 | z << 2, indexed by the axis normal to the plane.
+	 */
+	private static final int[] FIRST_STEP = {0b010, 0b001, 0b001};
+	private static final int[] SECOND_STEP = {0b100, 0b100, 0b010};
+
+	/**
+	 * Shared value for the corner of the center block in direction of the given offset.
+	 * Coordinates are region-relative and in-plane coordinates must be in the interior.
+	 */
+	private int corner(int axis, int x, int y, int z, Vec3i offset) {
+		// low cell of the 2x2 group along each in-plane axis - offset is zero on the normal axis
+		final int x0 = offset.getX() < 0 ? x - 1 : x;
+		final int y0 = offset.getY() < 0 ? y - 1 : y;
+		final int z0 = offset.getZ() < 0 ? z - 1 : z;
+
+		final int gridIndex;
+
+		switch (axis) {
+		case 0:
+			gridIndex = (x0 + 1) * 289 + (y0 + 1) * 17 + z0 + 1;
+			break;
+		case 1:
+			gridIndex = CORNER_GRID_AXIS_SIZE + (y0 + 1) * 289 + (x0 + 1) * 17 + z0 + 1;
+			break;
+		default:
+			gridIndex = CORNER_GRID_AXIS_SIZE * 2 + (z0 + 1) * 289 + (x0 + 1) * 17 + y0 + 1;
+			break;
+		}
+
+		int result = cornerGrid[gridIndex];
+
+		if (result == CORNER_UNKNOWN) {
+			final int a = FIRST_STEP[axis];
+			final int b = SECOND_STEP[axis];
+			final int ab = a | b;
+			result = computeCorner(
+					fastRelativeCacheIndex(x0, y0, z0),
+					fastRelativeCacheIndex(x0 + (a & 1), y0 + ((a >> 1) & 1), z0 + (a >> 2)),
+					fastRelativeCacheIndex(x0 + (b & 1), y0 + ((b >> 1) & 1), z0 + (b >> 2)),
+					fastRelativeCacheIndex(x0 + (ab & 1), y0 + ((ab >> 1) & 1), z0 + (ab >> 2)));
+
+			cornerGrid[gridIndex] = result;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Corner value for a 2x2 group of cells, with the same result as {@link #updateFace(AoFaceData, int, boolean)}
+	 * for any clear cell as center.  Cells {@code c00} and {@code c11} are diagonal, as are {@code c10} and {@code c01}.
+	 */
+	private int computeCorner(int c00, int c10, int c01, int c11) {
+		final boolean clear00 = !isOpaque(c00);
+		final boolean clear10 = !isOpaque(c10);
+		final boolean clear01 = !isOpaque(c01);
+		final boolean clear11 = !isOpaque(c11);
+
+		final int ao00 = Math.round(ao(c00) * 255);
+		final int ao10 = Math.round(ao(c10) * 255);
+		final int ao01 = Math.round(ao(c01) * 255);
+		final int ao11 = Math.round(ao(c11) * 255);
+
+		if (clear00 == clear11 && clear10 == clear01 && clear00 != clear10) {
+			// only diagonal cells are clear - each ignores the other
+			return CORNER_UNSHARED;
+		}
+
+		// opaque cells are left out of the mean, so light is the same for any center
+		final int light = AoFaceCalc.meanBrightness(
+				clear00 ? brightness(c00) : OPAQUE,
+				clear10 ? brightness(c10) : OPAQUE,
+				clear01 ? brightness(c01) : OPAQUE,
+				clear11 ? brightness(c11) : OPAQUE);
+
+		// a lone clear cell has both neighbors opaque, so the diagonal is left out of AO
+		if (clear00 && !(clear10 || clear01 || clear11)) {
+			return AoFaceCalc.packCorner(light, (Math.min(ao10, ao01) + ao10 + ao01 + 1 + ao00) >> 2);
+		} else if (clear10 && !(clear00 || clear01 || clear11)) {
+			return AoFaceCalc.packCorner(light, (Math.min(ao00, ao11) + ao00 + ao11 + 1 + ao10) >> 2);
+		} else if (clear01 && !(clear00 || clear10 || clear11)) {
+			return AoFaceCalc.packCorner(light, (Math.min(ao00, ao11) + ao00 + ao11 + 1 + ao01) >> 2);
+		} else if (clear11 && !(clear00 || clear10 || clear01)) {
+			return AoFaceCalc.packCorner(light, (Math.min(ao10, ao01) + ao10 + ao01 + 1 + ao11) >> 2);
+		}
+
+		return AoFaceCalc.packCorner(light, (ao00 + ao10 + ao01 + ao11 + 1) >> 2);
+	}
+
 	private void updateFace(AoFaceData fd, final int lightFace, boolean isOnBlockFace) {
 		int index = regionRelativeCacheIndex;
 
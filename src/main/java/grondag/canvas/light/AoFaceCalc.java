@@ -59,6 +59,32 @@ public class AoFaceCalc {
 		skyTopRight = (l >>> 16) & 0xFFFF;
 	}
 
+	/**
+	 * Packs the light and AO of one corner, for {@link #setCorners(int, int, int, int)}.
+	 * Light is block and sky light as computed by {@link #meanBrightness(int, int, int, int)}
+	 * and AO is 0-255.  Result is never negative.
+	 */
+	static int packCorner(int light, int ao) {
+		return light | (ao << 8);
+	}
+
+	void setCorners(int bottomRight, int bottomLeft, int topLeft, int topRight) {
+		aoBottomRight = (bottomRight >> 8) & 0xFF;
+		aoBottomLeft = (bottomLeft >> 8) & 0xFF;
+		aoTopLeft = (topLeft >> 8) & 0xFF;
+		aoTopRight = (topRight >> 8) & 0xFF;
+
+		blockBottomRight = bottomRight & 0xFF;
+		blockBottomLeft = bottomLeft & 0xFF;
+		blockTopLeft = topLeft & 0xFF;
+		blockTopRight = topRight & 0xFF;
+
+		skyBottomRight = (bottomRight >> 16) & 0xFF;
+		skyBottomLeft = (bottomLeft >> 16) & 0xFF;
+		skyTopLeft = (topLeft >> 16) & 0xFF;
+		skyTopRight = (topRight >> 16) & 0xFF;
+	}
+
 	int weigtedBlockLight(float[] w) {
 		return (int) (blockBottomRight * w[0] + blockBottomLeft * w[1] + blockTopLeft * w[2] + blockTopRight * w[3]) & 0xFF;
 	}
@@ -136,7 +162,7 @@ public class AoFaceCalc {
 	 * Still need to substitute or edges are too dark but consistently use the min
 	 * value from all four samples.
 	 */
-	private static int meanBrightness(int a, int b, int c, int d) {
+	static int meanBrightness(int a, int b, int c, int d) {
 		int missingVal = 0x0FFFFFFF;
 		final IntBinaryOperator func = AoFaceCalc::min;
 		int missingCount = 0;
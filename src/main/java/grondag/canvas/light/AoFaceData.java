@@ -193,6 +193,163 @@ public class AoFaceData {
 		return result;
 	}
 
+	/** Grid positions in row order, top row first. Center is 4. */
+	private static final int TOP_LEFT = 0, TOP = 1, TOP_RIGHT = 2, LEFT = 3, CENTER = 4, RIGHT = 5, BOTTOM_LEFT = 6, BOTTOM = 7, BOTTOM_RIGHT = 8;
+
+	/** Transform bit: swap u and v. Applied before the flips. */
+	public static final int TRANSPOSE = 1;
+	/** Transform bit: mirror left and right */
+	public static final int FLIP_U = 2;
+	/** Transform bit: mirror top and bottom */
+	public static final int FLIP_V = 4;
+
+	public static final int TRANSFORM_COUNT = 8;
+
+	/** For each transform, the source grid position of each transformed grid position */
+	private static final int[][] TRANSFORM_SOURCE = new int[TRANSFORM_COUNT][9];
+
+	/** Edge positions compared to choose the canonical transform, center is the same in all */
+	private static final int[] COMPARE_ORDER = {TOP_LEFT, TOP, TOP_RIGHT, LEFT, RIGHT, BOTTOM_LEFT, BOTTOM, BOTTOM_RIGHT};
+
+	static {
+		for (int t = 0; t < TRANSFORM_COUNT; ++t) {
+			for (int g = 0; g < 9; ++g) {
+				int u = g % 3;
+				int v = g / 3;
+
+				if ((t & TRANSPOSE) != 0) {
+					final int swap = u;
+					u = v;
+					v = swap;
+				}
+
+				if ((t & FLIP_U) != 0) {
+					u = 2 - u;
+				}
+
+				if ((t & FLIP_V) != 0) {
+					v = 2 - v;
+				}
+
+				TRANSFORM_SOURCE[t][v * 3 + u] = g;
+			}
+		}
+	}
+
+	private int light(int gridPos) {
+		switch (gridPos) {
+		case TOP_LEFT: return topLeft;
+		case TOP: return top;
+		case TOP_RIGHT: return topRight;
+		case LEFT: return left;
+		case CENTER: return center;
+		case RIGHT: return right;
+		case BOTTOM_LEFT: return bottomLeft;
+		case BOTTOM: return bottom;
+		default: return bottomRight;
+		}
+	}
+
+	private int ao(int gridPos) {
+		switch (gridPos) {
+		case TOP_LEFT: return aoTopLeft;
+		case TOP: return aoTop;
+		case TOP_RIGHT: return aoTopRight;
+		case LEFT: return aoLeft;
+		case CENTER: return aoCenter;
+		case RIGHT: return aoRight;
+		case BOTTOM_LEFT: return aoBottomLeft;
+		case BOTTOM: return aoBottom;
+		default: return aoBottomRight;
+		}
+	}
+
+	/**
+	 * Face data that differ only by rotation or mirroring give the same lightmap, rotated or
+	 * mirrored. This picks one of the eight orientations as canonical so those faces can share
+	 * a lightmap. The result is the same for all orientations of the same data.
+	 *
+	 * @return transform that gives the canonical orientation, see {@link #transformTo(int, AoFaceData)}
+	 */
+	public int canonicalTransform() {
+		int best = 0;
+
+		for (int t = 1; t < TRANSFORM_COUNT; ++t) {
+			if (compareTransformed(t, best) < 0) {
+				best = t;
+			}
+		}
+
+		return best;
+	}
+
+	/** Lexicographic comparison of this data under two transforms, light values first */
+	private int compareTransformed(int t0, int t1) {
+		final int[] s0 = TRANSFORM_SOURCE[t0];
+		final int[] s1 = TRANSFORM_SOURCE[t1];
+
+		for (final int g : COMPARE_ORDER) {
+			final int result = Integer.compare(light(s0[g]), light(s1[g]));
+
+			if (result != 0) {
+				return result;
+			}
+		}
+
+		for (final int g : COMPARE_ORDER) {
+			final int result = Integer.compare(ao(s0[g]), ao(s1[g]));
+
+			if (result != 0) {
+				return result;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Writes this data to target in transformed orientation and updates the target hash.
+	 * A point at u, v of this face is at the point given by {@link #transformU(int, float, float)}
+	 * and {@link #transformV(int, float, float)} of the target.
+	 */
+	public void transformTo(int transform, AoFaceData target) {
+		final int[] s = TRANSFORM_SOURCE[transform];
+
+		target.topLeft = light(s[TOP_LEFT]);
+		target.top = light(s[TOP]);
+		target.topRight = light(s[TOP_RIGHT]);
+		target.left = light(s[LEFT]);
+		target.center = center;
+		target.right = light(s[RIGHT]);
+		target.bottomLeft = light(s[BOTTOM_LEFT]);
+		target.bottom = light(s[BOTTOM]);
+		target.bottomRight = light(s[BOTTOM_RIGHT]);
+
+		target.aoTopLeft = ao(s[TOP_LEFT]);
+		target.aoTop = ao(s[TOP]);
+		target.aoTopRight = ao(s[TOP_RIGHT]);
+		target.aoLeft = ao(s[LEFT]);
+		target.aoCenter = aoCenter;
+		target.aoRight = ao(s[RIGHT]);
+		target.aoBottomLeft = ao(s[BOTTOM_LEFT]);
+		target.aoBottom = ao(s[BOTTOM]);
+		target.aoBottomRight = ao(s[BOTTOM_RIGHT]);
+
+		target.updateHash();
+	}
+
+	/** Face-relative u coordinate, 0 to 1, after the given transform */
+	public static float transformU(int transform, float u, float v) {
+		final float result = (transform & TRANSPOSE) == 0 ? u : v;
+		return (transform & FLIP_U) == 0 ? result : 1 - result;
+	}
+
+	/** Face-relative v coordinate, 0 to 1, after the given transform */
+	public static float transformV(int transform, float u, float v) {
+		final float result = (transform & TRANSPOSE) == 0 ? v : u;
+		return (transform & FLIP_V) == 0 ? result : 1 - result;
+	}
+
 	public void updateHash() {
 		int h = bottom;
 		h = 31 * h + top;
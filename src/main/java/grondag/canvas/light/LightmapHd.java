@@ -14,75 +14,188 @@
  ******************************************************************************/
 package grondag.canvas.light;
 
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import net.minecraft.client.resource.language.I18n;
-import net.minecraft.util.math.MathHelper;
 
 import grondag.canvas.CanvasMod;
 import grondag.canvas.apiimpl.mesh.MutableQuadViewImpl;
 
+/**
+ * Light and AO values for one face, stored in a slot of the HD lightmap atlas.
+ *
+ * Terrain builds hold references to the lightmaps used by their vertices, see {@link Refs}.
+ * Lightmaps without references stay cached for reuse until the atlas is full.
+ * Then the longest-unreferenced lightmaps are evicted and their slots recycled.
+ * Slots are always allocated lowest-first, so occupied slots stay packed at the start of the atlas.
+ */
 public class LightmapHd {
 	private static boolean errorNoticeNeeded = true;
 
-	private static final AtomicInteger nextIndex = new AtomicInteger();
+	/** Reference count of lightmaps that have been evicted. They can no longer be acquired. */
+	private static final int EVICTED = -1;
+
+	static final ConcurrentHashMap<AoFaceData, LightmapHd> MAP = new ConcurrentHashMap<>(4096, 0.75f, Runtime.getRuntime().availableProcessors());
+
+	/** Lightmaps whose reference count has dropped to zero, least recently released first */
+	private static final ConcurrentLinkedQueue<LightmapHd> UNREFERENCED = new ConcurrentLinkedQueue<>();
+
+	/** Occupied atlas slots. Guarded by itself, as are {@link #slotCount} and {@link #firstFreeSlot}. */
+	private static final BitSet SLOTS = new BitSet();
+	private static int slotCount = 0;
+	private static int firstFreeSlot = 0;
+
+	/** Lightmaps from before the last reload have stale slots and must not free them */
+	private static volatile int generation = 0;
 
 	public static String occupancyReport() {
-		final int i = nextIndex.get();
-		return String.format("%d of %d ( %d percent )", i, LightmapSizer.maxCount, i * 100 / LightmapSizer.maxCount);
+		final int i = slotCount;
+		return String.format("%d of %d ( %d percent ), %d in map", i, LightmapSizer.maxCount, i * 100 / LightmapSizer.maxCount, MAP.size());
 	}
 
 	public static void forceReload() {
-		nextIndex.set(0);
-		MAP.clear();
+		synchronized(SLOTS) {
+			++generation;
+			MAP.clear();
+			UNREFERENCED.clear();
+			SLOTS.clear();
+			slotCount = 0;
+			firstFreeSlot = 0;
+		}
+
 		errorNoticeNeeded = true;
 	}
 
-	// PERF: use Fermion cache
-	static final Object2ObjectOpenHashMap<AoFaceData, LightmapHd> MAP = new Object2ObjectOpenHashMap<>(MathHelper.smallestEncompassingPowerOfTwo(LightmapSizer.maxCount), LightmapSizer.maxCount / (float)MathHelper.smallestEncompassingPowerOfTwo(LightmapSizer.maxCount));
-
 	static int lightIndex(int u, int v) {
 		return v * LightmapSizer.paddedSize + u;
 	}
 
-	// PERF: can reduce texture consumption 8X by reusing rotations/inversions
-	public static LightmapHd find(AoFaceData faceData) {
-		LightmapHd result = MAP.get(faceData);
+	private static final ThreadLocal<AoFaceData> CANONICAL_DATA = ThreadLocal.withInitial(AoFaceData::new);
+
+	/**
+	 * Finds the lightmap for face data in canonical orientation, so that rotated and mirrored
+	 * faces share a lightmap. Transforms the lightmap u, v coordinates of the quad to match.
+	 *
+	 * @param quad	Quad with lightmap u, v coordinates already set
+	 * @param refs	If non-null, the result is added to and acquired for the given references
+	 */
+	public static LightmapHd find(MutableQuadViewImpl quad, AoFaceData faceData, @Nullable Refs refs) {
+		final int transform = faceData.canonicalTransform();
+
+		if (transform != 0) {
+			final float[] u = quad.u;
+			final float[] v = quad.v;
+
+			for (int i = 0; i < 4; ++i) {
+				final float u0 = u[i];
+				final float v0 = v[i];
+				u[i] = AoFaceData.transformU(transform, u0, v0);
+				v[i] = AoFaceData.transformV(transform, u0, v0);
+			}
+
+			final AoFaceData canonical = CANONICAL_DATA.get();
+			faceData.transformTo(transform, canonical);
+			faceData = canonical;
+		}
+
+		return find(faceData, refs);
+	}
+
+	private static LightmapHd find(AoFaceData faceData, @Nullable Refs refs) {
+		for (;;) {
+			LightmapHd result = MAP.get(faceData);
+
+			if (result == null) {
+				final AoFaceData key = faceData.clone();
+				final LightmapHd created = new LightmapHd(key);
 
-		if(result == null) {
-			synchronized(MAP) {
-				result = MAP.get(faceData);
-				if(result == null) {
-					result = new LightmapHd(faceData);
-					MAP.put(faceData.clone(), result);
+				if (created.slot == -1) {
+					// atlas full of referenced lightmaps - not cached or tracked
+					return created;
 				}
+
+				result = MAP.putIfAbsent(key, created);
+
+				if (result == null) {
+					result = created;
+					created.upload();
+					created.onUnreferenced();
+				} else {
+					created.freeSlot();
+				}
+			}
+
+			if (refs == null || refs.add(result)) {
+				return result;
+			}
+
+			// was evicted after lookup - remove in case evicting thread has not yet
+			MAP.remove(result.key, result);
+		}
+	}
+
+	private static int allocateSlot() {
+		synchronized(SLOTS) {
+			final int slot = SLOTS.nextClearBit(firstFreeSlot);
+
+			if (slot < LightmapSizer.maxCount) {
+				SLOTS.set(slot);
+				++slotCount;
+				firstFreeSlot = slot + 1;
+				return slot;
+			}
+		}
+
+		LightmapHd candidate;
+
+		while ((candidate = UNREFERENCED.poll()) != null) {
+			candidate.isQueued.set(false);
+
+			if (candidate.generation == generation && candidate.refCount.compareAndSet(0, EVICTED)) {
+				MAP.remove(candidate.key, candidate);
+				// slot passes directly to the new lightmap, stays occupied
+				return candidate.slot;
 			}
 		}
 
-		return result;
+		if(errorNoticeNeeded) {
+			CanvasMod.LOG.warn(I18n.translate("error.canvas.fail_create_lightmap"));
+			errorNoticeNeeded = false;
+		}
+
+		return -1;
 	}
 
+	private final AoFaceData key;
+	private final int slot;
+	private final int generation;
+	private final AtomicInteger refCount = new AtomicInteger();
+	private final AtomicBoolean isQueued = new AtomicBoolean();
 	public final int uMinImg;
 	public final int vMinImg;
 	private final int[] light;
 
 	private LightmapHd(AoFaceData faceData) {
-		final int index = nextIndex.getAndIncrement();
+		key = faceData;
+		generation = LightmapHd.generation;
+		slot = allocateSlot();
+		// unavailable slot gives coordinates outside the atlas
+		final int index = slot == -1 ? LightmapSizer.maxCount : slot;
 		final int s = index % LightmapSizer.mapsPerAxis;
 		final int t = index / LightmapSizer.mapsPerAxis;
 		uMinImg = s * LightmapSizer.paddedSize;
 		vMinImg = t * LightmapSizer.paddedSize;
 		light = new int[LightmapSizer.lightmapPixels];
 
-
-		if(index >= LightmapSizer.maxCount) {
-			if(errorNoticeNeeded) {
-				CanvasMod.LOG.warn(I18n.translate("error.canvas.fail_create_lightmap"));
-				errorNoticeNeeded = false;
-			}
-		} else {
+		if(slot != -1) {
 			// PERF: pool these and the main array - not needed after upload
 
 			final int [] aoLight = new int[LightmapSizer.lightmapPixels];
@@ -104,11 +217,104 @@ public class LightmapHd {
 				final int block = blockLight[i];// * ao / 255;
 				light[i] = (sky << 24) | (ao << 16) | (block << 8) | ao;
 			}
+		}
+	}
+
+	private void upload() {
+		LightmapHdTexture.instance().enque(this);
+	}
+
+	/** For lightmaps that lost the race to be added to the map */
+	private void freeSlot() {
+		synchronized(SLOTS) {
+			if (generation == LightmapHd.generation) {
+				SLOTS.clear(slot);
+				--slotCount;
+				firstFreeSlot = Math.min(firstFreeSlot, slot);
+			}
+		}
+	}
+
+	private boolean tryAcquire() {
+		for (;;) {
+			final int count = refCount.get();
+
+			if (count == EVICTED || generation != LightmapHd.generation) {
+				return false;
+			}
+
+			if (refCount.compareAndSet(count, count + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void release() {
+		if (refCount.decrementAndGet() == 0) {
+			onUnreferenced();
+		}
+	}
+
+	private void onUnreferenced() {
+		if (isQueued.compareAndSet(false, true)) {
+			UNREFERENCED.offer(this);
+		}
+	}
+
+	/**
+	 * Lightmaps used by the vertices of one terrain build. Keeps them from being evicted
+	 * while the vertex data is in use. Not thread-safe - meant to be filled by one build
+	 * thread and then handed off.
+	 */
+	public static class Refs {
+		private final ReferenceOpenHashSet<LightmapHd> maps = new ReferenceOpenHashSet<>();
+
+		/** @return false if the lightmap was evicted and must not be used */
+		private boolean add(LightmapHd map) {
+			if (maps.contains(map)) {
+				return true;
+			}
+
+			if (map.tryAcquire()) {
+				maps.add(map);
+				return true;
+			} else {
+				return false;
+			}
+		}
+
+		/**
+		 * Acquires lightmaps of retained vertex data.
+		 * @return false if any were evicted, in which case the vertex data must not be used
+		 */
+		public boolean addAll(LightmapHd[] maps) {
+			for (final LightmapHd map : maps) {
+				if (!add(map)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		public LightmapHd[] toArray() {
+			return maps.toArray(new LightmapHd[maps.size()]);
+		}
+
+		public void release() {
+			for (final LightmapHd map : maps) {
+				map.release();
+			}
 
-			LightmapHdTexture.instance().enque(this);
+			maps.clear();
 		}
 	}
 
+	/** All pixels including padding, row-major */
+	int[] pixels() {
+		return light;
+	}
+
 	/**
 	 * Handles padding
 	 */
@@ -14,7 +14,7 @@
  ******************************************************************************/
 package grondag.canvas.light;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.mojang.blaze3d.platform.GlStateManager;
 import org.lwjgl.opengl.GL11;
@@ -28,6 +28,12 @@ import grondag.canvas.varia.DitherTexture;
 import grondag.canvas.varia.SimpleImage;
 import grondag.canvas.varia.SimpleTexture;
 
+/**
+ * Atlas texture of HD lightmaps. Lightmaps are written to the backing image as they are
+ * created, from any thread. The atlas is divided into square tiles, and tiles with new
+ * lightmaps are uploaded on the render thread. Adjacent dirty tiles in a tile row are
+ * uploaded together, up to a byte budget per frame. Tiles over budget wait for the next frame.
+ */
 @Environment(EnvType.CLIENT)
 public class LightmapHdTexture implements AutoCloseable {
 	private static LightmapHdTexture instance;
@@ -51,34 +57,68 @@ public class LightmapHdTexture implements AutoCloseable {
 		}
 	}
 
+	private static final int TILE_SHIFT = 6;
+	private static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+	/** Uploads stop for the frame once this many bytes are sent, but at least one upload always happens */
+	private static final int MAX_UPLOAD_BYTES_PER_FRAME = 8 << 20;
+
 	private final SimpleTexture texture;
 	private final SimpleImage image;
+	private final int tilesPerAxis;
+	private final int wordsPerTileRow;
+
+	/** One bit per tile, row-major, each tile row starts on a new word */
+	private final AtomicLongArray dirtyTiles;
 
 	private LightmapHdTexture() {
 		texture = new SimpleTexture(new SimpleImage(4, GL11.GL_RGBA, LightmapSizer.texSize, LightmapSizer.texSize, false), GL11.GL_RGBA);
 		image = texture.getImage();
+		tilesPerAxis = LightmapSizer.texSize >> TILE_SHIFT;
+		wordsPerTileRow = (tilesPerAxis + 63) >> 6;
+		dirtyTiles = new AtomicLongArray(wordsPerTileRow * tilesPerAxis);
 		clear();
 	}
 
 	private void clear() {
+		for (int i = 0; i < dirtyTiles.length(); ++i) {
+			dirtyTiles.set(i, 0);
+		}
+
 		image.clear((byte)255);
 		texture.upload();
 	}
 
-	private static final ConcurrentLinkedQueue<LightmapHd> updates = new ConcurrentLinkedQueue<>();
-
 	public void enque(LightmapHd lightmap) {
-		final SimpleImage image = this.image;
 		final int uMap = lightmap.uMinImg;
 		final int vMap = lightmap.vMinImg;
+		final int size = LightmapSizer.paddedSize;
 
-		for(int u = 0; u < LightmapSizer.paddedSize; u++) {
-			for(int v = 0; v < LightmapSizer.paddedSize; v++) {
-				image.setPixelRGBA(uMap + u, vMap + v, lightmap.pixel(u,v));
+		image.setPixelsRGBA(uMap, vMap, size, size, lightmap.pixels());
+
+		// pixels must be written before tiles are marked, so that upload can't miss them
+		final int x0 = uMap >> TILE_SHIFT;
+		final int x1 = (uMap + size - 1) >> TILE_SHIFT;
+		final int y0 = vMap >> TILE_SHIFT;
+		final int y1 = (vMap + size - 1) >> TILE_SHIFT;
+
+		for (int y = y0; y <= y1; ++y) {
+			for (int x = x0; x <= x1; ++x) {
+				markDirty(x, y);
 			}
 		}
+	}
 
-		updates.add(lightmap);
+	private void markDirty(int tileX, int tileY) {
+		final int word = tileY * wordsPerTileRow + (tileX >> 6);
+		final long bit = 1L << (tileX & 63);
+		long bits;
+
+		while (((bits = dirtyTiles.get(word)) & bit) == 0) {
+			if (dirtyTiles.compareAndSet(word, bits, bits | bit)) {
+				return;
+			}
+		}
 	}
 
 	@Override
@@ -122,34 +162,40 @@ public class LightmapHdTexture implements AutoCloseable {
 	public void onRenderTick() {
 		frameCounter++;
 
-		if(updates.isEmpty() || frameCounter < Configurator.maxLightmapDelayFrames) {
+		if(frameCounter < Configurator.maxLightmapDelayFrames) {
 			return;
 		}
 
 		frameCounter = 0;
 
-		int uMin = Integer.MAX_VALUE;
-		int vMin = Integer.MAX_VALUE;
-		int uMax = Integer.MIN_VALUE;
-		int vMax = Integer.MIN_VALUE;
-
-		LightmapHd map;
-		while((map = updates.poll()) != null) {
-			final int uMap = map.uMinImg;
-			final int vMap = map.vMinImg;
-			uMin = Math.min(uMin, uMap);
-			vMin = Math.min(vMin, vMap);
-			uMax = Math.max(uMax, uMap + LightmapSizer.paddedSize);
-			vMax = Math.max(vMax, vMap + LightmapSizer.paddedSize);
-		}
+		final AtomicLongArray dirtyTiles = this.dirtyTiles;
+		final int limit = dirtyTiles.length();
+		int bytes = 0;
 
-		if(uMin == Integer.MAX_VALUE) {
-			return;
-		}
+		for (int word = 0; word < limit && bytes < MAX_UPLOAD_BYTES_PER_FRAME; ++word) {
+			if (dirtyTiles.get(word) == 0) {
+				continue;
+			}
 
-		uMin = (uMin / 4) * 4;
-		final int w = ((uMax - uMin + 3) / 4) * 4;
+			// tiles marked after this are uploaded next frame
+			long bits = dirtyTiles.getAndSet(word, 0);
+			final int tileY = word / wordsPerTileRow;
+			final int tileBaseX = (word - tileY * wordsPerTileRow) << 6;
 
-		texture.uploadPartial(uMin, vMin, w, vMax - vMin);
+			while (bits != 0 && bytes < MAX_UPLOAD_BYTES_PER_FRAME) {
+				final int start = Long.numberOfTrailingZeros(bits);
+				final int length = Math.min(64 - start, Long.numberOfTrailingZeros(~(bits >>> start)));
+				final int width = length << TILE_SHIFT;
+
+				texture.uploadPartial((tileBaseX + start) << TILE_SHIFT, tileY << TILE_SHIFT, width, TILE_SIZE);
+				bytes += width * TILE_SIZE * 4;
+				bits &= length == 64 ? 0 : ~(((1L << length) - 1) << start);
+			}
+
+			if (bits != 0) {
+				// over budget - restore what was not uploaded
+				dirtyTiles.accumulateAndGet(word, bits, (a, b) -> a | b);
+			}
+		}
 	}
 }
@@ -26,6 +26,9 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import net.minecraft.client.gui.hud.DebugHud;
 
 import grondag.canvas.Configurator;
+import grondag.canvas.buffer.allocation.BufferAllocator;
+import grondag.canvas.buffer.packing.ArrayPool;
+import grondag.canvas.chunk.draw.Megabuffer;
 import grondag.canvas.light.LightmapHd;
 
 @Mixin(DebugHud.class)
@@ -35,5 +38,12 @@ public class MixinDebugHud {
 		if(Configurator.hdLightmaps) {
 			ci.getReturnValue().add("Canvas HD Lightmap Occupancy: " + LightmapHd.occupancyReport());
 		}
+
+		ci.getReturnValue().add("Canvas Vertex Buffers: " + BufferAllocator.debugReport());
+		ci.getReturnValue().add("Canvas Build Arrays: " + ArrayPool.debugReport());
+
+		if (Configurator.terrainMegabuffer) {
+			ci.getReturnValue().add("Canvas Terrain Megabuffers: " + Megabuffer.debugReport());
+		}
 	}
 }
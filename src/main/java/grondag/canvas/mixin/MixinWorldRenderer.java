@@ -53,8 +53,10 @@ import net.minecraft.client.world.ClientWorld;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Matrix4f;
+import net.minecraft.world.BlockView;
 
 import grondag.canvas.CanvasMod;
+import grondag.canvas.Configurator;
 import grondag.canvas.chunk.RenderRegionBuilder;
 import grondag.canvas.mixinterface.WorldRendererExt;
 import grondag.canvas.render.CanvasWorldRenderer;
@@ -142,6 +144,15 @@ public class MixinWorldRenderer implements WorldRendererExt {
 		canvasWorldRenderer.forceVisibilityUpdate();
 	}
 
+	@Inject(at = @At("HEAD"), method = "updateBlock", cancellable = true)
+	private void onUpdateBlock(BlockView blockView, BlockPos pos, BlockState oldState, BlockState newState, int flags, CallbackInfo ci) {
+		if (Configurator.incrementalRegionRebuild) {
+			canvasWorldRenderer.regionStorage().scheduleBlockRebuild(pos.getX(), pos.getY(), pos.getZ(), (flags & 8) != 0);
+			canvasWorldRenderer.forceVisibilityUpdate();
+			ci.cancel();
+		}
+	}
+
 	// circumvent vanilla logic by faking null world and then do our load after
 	ClientWorld saveWorld = null;
 
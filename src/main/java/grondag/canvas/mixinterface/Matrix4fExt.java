@@ -99,4 +99,29 @@ public interface Matrix4fExt {
 	default boolean matches(Matrix4f val) {
 		return matches((Matrix4fExt)(Object) val);
 	}
+
+	/**
+	 * Values are in row-major order: a00, a01, a02, a03, a10...
+	 */
+	default void copyTo(float[] target) {
+		target[0] = a00();
+		target[1] = a01();
+		target[2] = a02();
+		target[3] = a03();
+
+		target[4] = a10();
+		target[5] = a11();
+		target[6] = a12();
+		target[7] = a13();
+
+		target[8] = a20();
+		target[9] = a21();
+		target[10] = a22();
+		target[11] = a23();
+
+		target[12] = a30();
+		target[13] = a31();
+		target[14] = a32();
+		target[15] = a33();
+	}
 }
@@ -86,6 +86,49 @@ public class CanvasFrustum extends Frustum {
 		return lastModelMatrix;
 	}
 
+	public double viewX() {
+		return lastViewX;
+	}
+
+	public double viewY() {
+		return lastViewY;
+	}
+
+	public double viewZ() {
+		return lastViewZ;
+	}
+
+	/**
+	 * Copies normalized x, y, z, w plane coefficients for the left, right, near, top
+	 * and bottom planes, in that order. Region extents can be derived from these.
+	 */
+	public void copyPlanes(float[] target) {
+		target[0] = leftX;
+		target[1] = leftY;
+		target[2] = leftZ;
+		target[3] = leftW;
+
+		target[4] = rightX;
+		target[5] = rightY;
+		target[6] = rightZ;
+		target[7] = rightW;
+
+		target[8] = nearX;
+		target[9] = nearY;
+		target[10] = nearZ;
+		target[11] = nearW;
+
+		target[12] = topX;
+		target[13] = topY;
+		target[14] = topZ;
+		target[15] = topW;
+
+		target[16] = bottomX;
+		target[17] = bottomY;
+		target[18] = bottomZ;
+		target[19] = bottomW;
+	}
+
 	public void copy(CanvasFrustum src) {
 		viewVersion = src.viewVersion;
 		positionVersion = src.positionVersion;
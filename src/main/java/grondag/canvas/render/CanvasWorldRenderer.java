@@ -63,18 +63,24 @@ import net.minecraft.util.profiler.Profiler;
 
 import grondag.canvas.Configurator;
 import grondag.canvas.apiimpl.MaterialConditionImpl;
+import grondag.canvas.apiimpl.rendercontext.BlockTesselationCache;
 import grondag.canvas.buffer.allocation.BindStateManager;
+import grondag.canvas.buffer.allocation.BufferAllocator;
 import grondag.canvas.buffer.allocation.VboBuffer;
 import grondag.canvas.chunk.BuiltRenderRegion;
+import grondag.canvas.chunk.ChunkPaletteCopier;
 import grondag.canvas.chunk.DrawableChunk;
 import grondag.canvas.chunk.RenderRegionBuilder;
 import grondag.canvas.chunk.RenderRegionStorage;
 import grondag.canvas.chunk.draw.DrawableDelegate;
+import grondag.canvas.chunk.draw.Megabuffer;
+import grondag.canvas.chunk.draw.MultiDrawList;
 import grondag.canvas.chunk.occlusion.TerrainOccluder;
 import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
 import grondag.canvas.chunk.occlusion.region.PackedBox;
 import grondag.canvas.draw.DrawHandler;
 import grondag.canvas.light.LightmapHdTexture;
+import grondag.canvas.material.MaterialState;
 import grondag.canvas.mixinterface.WorldRendererExt;
 import grondag.canvas.shader.GlProgram;
 import grondag.canvas.shader.ShaderManager;
@@ -93,6 +99,7 @@ public class CanvasWorldRenderer {
 	private RenderRegionStorage renderRegionStorage;
 	private final TerrainIterator terrainIterator = new TerrainIterator();
 	private final CanvasFrustum frustum = new CanvasFrustum();
+	private final MultiDrawList solidDrawList = new MultiDrawList();
 	private int translucentSortPositionVersion;
 	private int viewVersion;
 	private int occluderVersion;
@@ -141,7 +148,10 @@ public class CanvasWorldRenderer {
 		}
 
 		clearRegions();
+		BufferAllocator.freeUnusedArenas();
 		TerrainOccluder.invalidate();
+		BlockTesselationCache.clear();
+		ChunkPaletteCopier.clearGlobalPalette();
 		renderRegionStorage = new RenderRegionStorage(regionBuilder, wr.canvas_mc().options.viewDistance);
 		terrainIterator.setRegionStorage(renderRegionStorage);
 		visibleRegionCount = 0;
@@ -238,6 +248,11 @@ public class CanvasWorldRenderer {
 
 		mc.getProfiler().swap("update");
 
+		if (Configurator.debugOcclusionCapture) {
+			Configurator.debugOcclusionCapture = false;
+			terrainIterator.requestCapture();
+		}
+
 		if (Configurator.terrainSetupOffThread) {
 			int state = terrainIterator.state();
 
@@ -745,6 +760,55 @@ public class CanvasWorldRenderer {
 		bufferBuilder.vertex(x1, y1, z1).color(r, g, b, a).next();
 	}
 
+	private void addToDrawList(DrawableChunk drawable) {
+		final ObjectArrayList<DrawableDelegate> delegates = drawable.delegates();
+		final int limit = delegates.size();
+
+		for(int i = 0; i < limit; i++) {
+			final DrawableDelegate d = delegates.get(i);
+			solidDrawList.add(d.materialState().index, d.megabuffer().index, d.megabufferFirstVertex(), d.vertexCount());
+		}
+	}
+
+	/**
+	 * Draws solid terrain held in megabuffers with one multi-draw call per material and buffer.
+	 * Vertex positions are relative to the megabuffer cell, so the view transform changes per buffer instead of per region.
+	 */
+	private void renderDrawList(MatrixStack matrixStack, double x, double y, double z, int frameIndex) {
+		final MultiDrawList list = solidDrawList;
+		list.sort();
+		Megabuffer.prepareBind();
+
+		final int limit = list.size();
+
+		for (int i = 0; i < limit; i++) {
+			final MultiDrawList.Batch batch = list.get(i);
+			final MaterialState materialState = MaterialState.get(batch.materialIndex());
+			final DrawHandler h = materialState.drawHandler;
+			final MaterialConditionImpl condition = h.condition;
+
+			if(!condition.affectBlocks || condition.compute(frameIndex)) {
+				h.setup();
+
+				final Megabuffer buffer = Megabuffer.get(batch.bufferIndex());
+				buffer.bind(materialState.bufferFormat);
+
+				matrixStack.push();
+				matrixStack.translate(buffer.cellX - x, -y, buffer.cellZ - z);
+				RenderSystem.pushMatrix();
+				RenderSystem.loadIdentity();
+				RenderSystem.multMatrix(matrixStack.peek().getModel());
+
+				Megabuffer.draw(batch);
+
+				RenderSystem.popMatrix();
+				matrixStack.pop();
+			}
+		}
+
+		list.clear();
+	}
+
 	private void renderTerrainLayer(boolean isTranslucent, MatrixStack matrixStack, double x, double y, double z) {
 		final BuiltRenderRegion[] visibleRegions = this.visibleRegions;
 		final int visibleRegionCount = this.visibleRegionCount;
@@ -798,6 +862,11 @@ public class CanvasWorldRenderer {
 			final DrawableChunk drawable = isTranslucent ? builtRegion.translucentDrawable() : builtRegion.solidDrawable();
 
 			if (drawable != null && !drawable.isEmpty()) {
+				if (!isTranslucent && drawable.isMegabuffer()) {
+					addToDrawList(drawable);
+					continue;
+				}
+
 				matrixStack.push();
 				final BlockPos blockPos = builtRegion.getOrigin();
 				matrixStack.translate(blockPos.getX() - x, blockPos.getY() - y, blockPos.getZ() - z);
@@ -830,6 +899,10 @@ public class CanvasWorldRenderer {
 			}
 		}
 
+		if (solidDrawList.size() > 0) {
+			renderDrawList(matrixStack, x, y, z, frameIndex);
+		}
+
 		if (Configurator.hdLightmaps) {
 			LightmapHdTexture.instance().disable();
 		}
@@ -855,7 +928,7 @@ public class CanvasWorldRenderer {
 	private void updateRegions(long endNanos) {
 		final Set<BuiltRenderRegion> regionsToRebuild = this.regionsToRebuild;
 
-		shouldUpdateVisibility |= regionBuilder.upload();
+		shouldUpdateVisibility |= regionBuilder.upload(endNanos);
 
 		//final long start = Util.getMeasuringTimeNano();
 		//int builtCount = 0;
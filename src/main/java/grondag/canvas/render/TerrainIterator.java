@@ -1,5 +1,9 @@
 package grondag.canvas.render;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
@@ -7,14 +11,17 @@ import javax.annotation.Nullable;
 import io.netty.util.internal.shaded.org.jctools.queues.MessagePassingQueue.Consumer;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3i;
 
+import grondag.canvas.CanvasMod;
 import grondag.canvas.Configurator;
 import grondag.canvas.apiimpl.rendercontext.TerrainRenderContext;
 import grondag.canvas.chunk.BuiltRenderRegion;
 import grondag.canvas.chunk.RegionData;
 import grondag.canvas.chunk.RenderRegionStorage;
+import grondag.canvas.chunk.occlusion.OcclusionScene;
 import grondag.canvas.chunk.occlusion.TerrainOccluder;
 import grondag.canvas.chunk.occlusion.region.OcclusionRegion;
 import grondag.fermion.sc.unordered.SimpleUnorderedArrayList;
@@ -40,6 +47,8 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 	public BuiltRenderRegion[] visibleRegions = new BuiltRenderRegion[4096];
 	public volatile int visibleRegionCount;
 	private volatile boolean cancelled = false;
+	private volatile boolean captureRequested = false;
+	private boolean capture = false;
 
 	public void setRegionStorage(RenderRegionStorage renderRegionStorage) {
 		this.renderRegionStorage = renderRegionStorage;
@@ -52,6 +61,8 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 		this.cameraBlockPos = cameraBlockPos;
 		this.frustum.copy(frustum);
 		this.renderDistance = renderDistance;
+		capture = captureRequested;
+		captureRequested = false;
 		state.set(READY);
 		cancelled = false;
 	}
@@ -65,6 +76,15 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 		state.compareAndSet(COMPLETE, IDLE);
 	}
 
+	/**
+	 * Saves the next complete pass for offline replay. Invalidates the occluder so that every
+	 * region in that pass is tested and the captured result doesn't depend on prior passes.
+	 */
+	public void requestCapture() {
+		captureRequested = true;
+		TerrainOccluder.invalidate();
+	}
+
 	@Override
 	public void accept(TerrainRenderContext ignored) {
 		assert state.get() == READY;
@@ -86,6 +106,8 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 		SimpleUnorderedArrayList<BuiltRenderRegion> nextLevel  =  regionListB;
 		nextLevel.clear();
 
+		final OcclusionScene scene = capture ? beginCapture(mc.chunkCullingEnabled) : null;
+
 		BuiltRenderRegion.advanceFrameIndex();
 
 		if (cameraRegion == null) {
@@ -104,12 +126,22 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 					final BuiltRenderRegion region = regions[regionIndex];
 
 					if (region.isInFrustum(frustum)) {
+						region.enterAllFaces();
 						currentLevel.add(region);
+
+						if (scene != null) {
+							scene.addStartRegion(regionIndex);
+						}
 					}
 				}
 			}
 		}  else {
+			cameraRegion.enterAllFaces();
 			currentLevel.add(cameraRegion);
+
+			if (scene != null) {
+				scene.addStartRegion(cameraRegion.regionIndex());
+			}
 		}
 
 		final boolean chunkCullingEnabled = mc.chunkCullingEnabled;
@@ -129,20 +161,38 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 
 			final BuiltRenderRegion builtRegion = currentLevel.removeLast();
 
+			// already visible, but entered through a new face that may connect to more neighbors
+			if (builtRegion.isExpanded()) {
+				builtRegion.enqueueUnvistedNeighbors(nextLevel);
+				continue;
+			}
+
 			// don't visit if not in frustum
 			if(!builtRegion.isInFrustum(frustum)) {
+				if (scene != null) {
+					captureRegion(scene, builtRegion, 0, null, 0);
+				}
+
 				continue;
 			}
 
 			// don't visit if region is outside near distance and doesn't have all 4 neighbors loaded
 			// also checks for outside of render distance
 			if (!builtRegion.shouldBuild()) {
+				if (scene != null) {
+					captureRegion(scene, builtRegion, OcclusionScene.FLAG_IN_FRUSTUM, null, 0);
+				}
+
 				continue;
 			}
 
 			final RegionData regionData = builtRegion.getBuildData();
 			final int[] visData =  regionData.getOcclusionData();
 
+			if (scene != null) {
+				captureRegion(scene, builtRegion, OcclusionScene.FLAG_IN_FRUSTUM | OcclusionScene.FLAG_SHOULD_BUILD, visData, regionData.faceConnectivity());
+			}
+
 			if (visData == null) {
 				updateRegions.add(builtRegion);
 				continue;
@@ -161,7 +211,13 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 			}
 
 			if (!chunkCullingEnabled || builtRegion == cameraRegion || builtRegion.isNear()) {
-				builtRegion.enqueueUnvistedNeighbors(nextLevel);
+				// camera can be anywhere in its own region, so all faces may be visible from it
+				if (!chunkCullingEnabled || builtRegion == cameraRegion) {
+					builtRegion.enqueueAllNeighbors(nextLevel);
+				} else {
+					builtRegion.enqueueUnvistedNeighbors(nextLevel);
+				}
+
 				visibleRegions[visibleRegionCount++] = builtRegion;
 
 				if (redrawOccluder || builtRegion.occluderVersion != occluderVersion) {
@@ -180,7 +236,7 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 					// will already have been drawn if occluder view version hasn't changed
 					if (redrawOccluder) {
 						TerrainOccluder.prepareRegion(builtRegion.getOrigin(), builtRegion.occlusionRange);
-						TerrainOccluder.occlude(visData);
+						TerrainOccluder.redraw(visData);
 					}
 				}
 			} else {
@@ -201,6 +257,10 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 		}
 
 		if (cancelled) {
+			if (scene != null) {
+				requestCapture();
+			}
+
 			state.set(IDLE);
 			this.visibleRegionCount = 0;
 		} else {
@@ -211,6 +271,58 @@ public class TerrainIterator implements  Consumer<TerrainRenderContext> {
 			if (Configurator.debugOcclusionRaster) {
 				TerrainOccluder.outputRaster();
 			}
+
+			if (scene != null) {
+				for (int i = 0; i < visibleRegionCount; ++i) {
+					scene.addVisibleRegion(visibleRegions[i].regionIndex());
+				}
+
+				saveCapture(scene);
+			}
+		}
+	}
+
+	private OcclusionScene beginCapture(boolean chunkCullingEnabled) {
+		final CanvasFrustum frustum = this.frustum;
+		final float[] projectionMatrix = new float[16];
+		final float[] modelMatrix = new float[16];
+		final float[] frustumPlanes = new float[20];
+		frustum.projectionMatrix().copyTo(projectionMatrix);
+		frustum.modelMatrix().copyTo(modelMatrix);
+		frustum.copyPlanes(frustumPlanes);
+
+		return new OcclusionScene(projectionMatrix, modelMatrix, frustumPlanes, frustum.viewX(), frustum.viewY(), frustum.viewZ(),
+				cameraRegion == null ? -1 : cameraRegion.regionIndex(), chunkCullingEnabled);
+	}
+
+	/**
+	 * Called with the occlusion data actually used by the pass because build data can change while iterating.
+	 * Only the first visit to a region is recorded.
+	 */
+	private static void captureRegion(OcclusionScene scene, BuiltRenderRegion region, int flags, int[] visData, long faceConnectivity) {
+		final int regionIndex = region.regionIndex();
+
+		if (!scene.containsRegion(regionIndex)) {
+			if (region.isNear()) {
+				flags |= OcclusionScene.FLAG_NEAR;
+			}
+
+			final BlockPos origin = region.getOrigin();
+			scene.addRegion(regionIndex, origin.getX(), origin.getY(), origin.getZ(), region.occlusionRange, flags, region.getNeighborIndices(), visData, faceConnectivity);
 		}
 	}
+
+	private static void saveCapture(OcclusionScene scene) {
+		@SuppressWarnings("resource")
+		final File file = new File(MinecraftClient.getInstance().runDirectory, "canvas_occlusion_scene.bin");
+
+		Util.method_27958().execute(() -> {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+				scene.write(out);
+				CanvasMod.LOG.info("Saved occlusion scene with " + scene.regionCount() + " regions to " + file);
+			} catch (final Exception e) {
+				CanvasMod.LOG.warn("Couldn't save occlusion scene", e);
+			}
+		});
+	}
 }
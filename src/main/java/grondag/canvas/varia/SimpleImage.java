@@ -97,6 +97,26 @@ public final class SimpleImage implements AutoCloseable {
 		intBuffer.put(x + y * width, rgba);
 	}
 
+	/**
+	 * Copies a rectangle of pixels, one bulk copy per row.
+	 * Safe to call from multiple threads if rectangles do not overlap.
+	 *
+	 * @param pixels	Source pixels, row-major with the given width
+	 */
+	public void setPixelsRGBA(int x, int y, int width, int height, int[] pixels) {
+		assert bytesPerPixel == 4;
+		assert x + width <= this.width && y + height <= this.height;
+		assert pointer != 0L : "Image not allocated.";
+
+		// buffer position is not shared between threads
+		final IntBuffer target = intBuffer.duplicate();
+
+		for (int row = 0; row < height; ++row) {
+			target.position(x + (y + row) * this.width);
+			target.put(pixels, row * width, width);
+		}
+	}
+
 	public void setLuminance(int u, int v, byte value) {
 		assert bytesPerPixel == 1;
 		assert u <= width && v <= height;
@@ -3,6 +3,7 @@ package grondag.canvas;
 import java.util.Random;
 
 import io.netty.util.internal.ThreadLocalRandom;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.junit.jupiter.api.Test;
 
 import grondag.canvas.chunk.occlusion.region.Area;
@@ -50,4 +51,45 @@ class AreaFinderTest {
 			a.printShape();
 		}
 	}
+
+	/**
+	 * Indexed search must give the same areas as testing every area in table order.
+	 */
+	@Test
+	void matchesTableOrder() {
+		final AreaFinder finder = new AreaFinder();
+		final Random rand = new Random(42);
+		final long[] sample = new long[4];
+		final long[] remaining = new long[4];
+		final IntArrayList expected = new IntArrayList();
+		final IntArrayList actual = new IntArrayList();
+		long nanos = 0;
+
+		for (int n = 0; n < 2000; n++) {
+			for (int i = 0; i < 4; i++) {
+				sample[i] = n % 2 == 0 ? rand.nextLong() & rand.nextLong() : rand.nextLong() | rand.nextLong();
+			}
+
+			expected.clear();
+			System.arraycopy(sample, 0, remaining, 0, 4);
+
+			for (int i = 0; i < AreaFinder.AREA_COUNT; i++) {
+				final Area a = finder.get(i);
+
+				if (!a.isAdditive(remaining, 0)) {
+					expected.add(i);
+					a.clearBits(remaining, 0);
+				}
+			}
+
+			actual.clear();
+			final long start = System.nanoTime();
+			finder.find(sample, 0, a -> actual.add(a.index));
+			nanos += System.nanoTime() - start;
+
+			assert actual.equals(expected);
+		}
+
+		System.out.println("Average find time: " + nanos / 2000 + "ns");
+	}
 }
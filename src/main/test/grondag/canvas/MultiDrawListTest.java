@@ -0,0 +1,46 @@
+package grondag.canvas;
+
+import org.junit.jupiter.api.Test;
+
+import grondag.canvas.chunk.draw.MultiDrawList;
+import grondag.canvas.chunk.draw.MultiDrawList.Batch;
+
+class MultiDrawListTest {
+	@Test
+	void test() {
+		final MultiDrawList list = new MultiDrawList();
+
+		list.add(5, 1, 0, 40);
+		list.add(2, 1, 40, 8);
+		list.add(5, 1, 40, 12);
+		list.add(5, 0, 100, 4);
+		// adjacent to first range of material 5, buffer 1
+		list.add(5, 1, 52, 4);
+		list.add(5, 1, 80, 4);
+
+		list.sort();
+
+		assert list.size() == 3;
+
+		final Batch first = list.get(0);
+		assert first.materialIndex() == 2 && first.bufferIndex() == 1;
+		assert first.size() == 1 && first.first(0) == 40 && first.count(0) == 8;
+
+		final Batch second = list.get(1);
+		assert second.materialIndex() == 5 && second.bufferIndex() == 0;
+		assert second.size() == 1 && second.first(0) == 100;
+
+		final Batch third = list.get(2);
+		assert third.materialIndex() == 5 && third.bufferIndex() == 1;
+		assert third.size() == 2;
+		assert third.first(0) == 0 && third.count(0) == 56;
+		assert third.first(1) == 80 && third.count(1) == 4;
+
+		list.clear();
+		assert list.size() == 0;
+
+		// batches are reused but start empty
+		list.add(7, 3, 12, 4);
+		assert list.size() == 1 && list.get(0).size() == 1 && list.get(0).first(0) == 12;
+	}
+}
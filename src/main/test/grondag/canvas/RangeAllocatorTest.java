@@ -0,0 +1,53 @@
+package grondag.canvas;
+
+import org.junit.jupiter.api.Test;
+
+import grondag.canvas.buffer.allocation.RangeAllocator;
+
+class RangeAllocatorTest {
+	@Test
+	void test() {
+		final RangeAllocator allocator = new RangeAllocator(1000);
+
+		final int a = allocator.allocate(100, 1);
+		final int b = allocator.allocate(100, 1);
+		final int c = allocator.allocate(100, 1);
+
+		assert a == 0 && b == 100 && c == 200;
+		assert allocator.usedBytes() == 300;
+		assert allocator.freeRangeCount() == 1;
+
+		// aligned start leaves a gap that remains free
+		final int d = allocator.allocate(28, 28);
+		assert d == 308;
+		assert allocator.freeRangeCount() == 2;
+
+		// gap is reused by later requests that fit
+		assert allocator.allocate(8, 1) == 300;
+		assert allocator.freeRangeCount() == 1;
+
+		allocator.free(b, 100);
+		assert allocator.freeRangeCount() == 2;
+
+		// merges with range before
+		allocator.free(a, 100);
+		assert allocator.freeRangeCount() == 2;
+		assert allocator.largestFreeRange() == 1000 - 336;
+
+		// merges with ranges on both sides
+		allocator.free(300, 8);
+		allocator.free(c, 100);
+		assert allocator.freeRangeCount() == 2;
+		assert allocator.largestFreeRange() == 1000 - 336;
+
+		allocator.free(d, 28);
+		assert allocator.isEmpty();
+		assert allocator.freeRangeCount() == 1;
+		assert allocator.largestFreeRange() == 1000;
+
+		assert !allocator.canAllocate(1001, 1);
+		assert allocator.allocate(1001, 1) == -1;
+		assert allocator.allocate(1000, 1) == 0;
+		assert !allocator.canAllocate(1, 1);
+	}
+}